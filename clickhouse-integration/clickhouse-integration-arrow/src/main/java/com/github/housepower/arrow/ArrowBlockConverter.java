@@ -0,0 +1,338 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.arrow;
+
+import com.github.housepower.data.*;
+import com.github.housepower.data.type.*;
+import com.github.housepower.data.type.complex.*;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.misc.Validate;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Converts the blocks read from the wire, e.g. the blocks of a {@link com.github.housepower.stream.BlockStream},
+ * into Arrow {@link VectorSchemaRoot}s.
+ * <p>
+ * Fixed-width columns are copied from the column arrays into the data buffers, strings from the arena and
+ * offsets of the column, null maps become validity bitmaps and arrays become {@link ListVector}s. The other
+ * supported types are converted from their values.
+ */
+public class ArrowBlockConverter {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L};
+
+    private final BufferAllocator allocator;
+
+    public ArrowBlockConverter(BufferAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public static Schema schema(Block block) throws SQLException {
+        List<Field> fields = new ArrayList<>(block.columnCnt());
+        for (int i = 0; i < block.columnCnt(); i++) {
+            IColumn column = block.getColumn(i);
+            fields.add(field(column.name(), column.type()));
+        }
+        return new Schema(fields);
+    }
+
+    /**
+     * Convert the block into a new root allocated from the allocator of the converter, closed by the caller.
+     */
+    public VectorSchemaRoot toVectorSchemaRoot(Block block) throws SQLException {
+        VectorSchemaRoot root = VectorSchemaRoot.create(schema(block), allocator);
+        try {
+            fill(block, root);
+            return root;
+        } catch (SQLException | RuntimeException ex) {
+            root.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Overwrite the vectors of a root created with the schema of the block, so that one root is reused
+     * for all blocks of a query.
+     */
+    public void fill(Block block, VectorSchemaRoot root) throws SQLException {
+        Validate.isTrue(root.getFieldVectors().size() == block.columnCnt(),
+                "Expect " + block.columnCnt() + " vectors, but got " + root.getFieldVectors().size());
+        int rows = block.rowCnt();
+        for (int i = 0; i < block.columnCnt(); i++) {
+            write(block.getColumn(i), root.getVector(i), rows);
+        }
+        root.setRowCount(rows);
+    }
+
+    private static Field field(String name, IDataType<?, ?> type) throws SQLException {
+        boolean nullable = false;
+        IDataType<?, ?> nested = type;
+        while (nested instanceof DataTypeNullable || nested instanceof DataTypeLowCardinality) {
+            if (nested instanceof DataTypeNullable) {
+                nullable = true;
+                nested = ((DataTypeNullable) nested).getNestedDataType();
+            } else {
+                nested = ((DataTypeLowCardinality) nested).getNestedDataType();
+            }
+        }
+        if (nested instanceof DataTypeArray) {
+            Field element = field(ListVector.DATA_VECTOR_NAME, ((DataTypeArray) nested).getElemDataType());
+            return new Field(name, new FieldType(nullable, ArrowType.List.INSTANCE, null),
+                    Collections.singletonList(element));
+        }
+        return new Field(name, new FieldType(nullable, arrowType(nested), null), null);
+    }
+
+    private static ArrowType arrowType(IDataType<?, ?> type) throws SQLException {
+        if (type instanceof DataTypeInt8 || type instanceof DataTypeUInt8) {
+            return new ArrowType.Int(8, type.isSigned());
+        }
+        if (type instanceof DataTypeInt16 || type instanceof DataTypeUInt16) {
+            return new ArrowType.Int(16, type.isSigned());
+        }
+        if (type instanceof DataTypeInt32 || type instanceof DataTypeUInt32 || type instanceof DataTypeIPv4) {
+            return new ArrowType.Int(32, type.isSigned());
+        }
+        if (type instanceof DataTypeInt64 || type instanceof DataTypeUInt64) {
+            return new ArrowType.Int(64, type.isSigned());
+        }
+        if (type instanceof DataTypeFloat32) {
+            return new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE);
+        }
+        if (type instanceof DataTypeFloat64) {
+            return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+        }
+        if (type instanceof DataTypeString || type instanceof DataTypeFixedString || type instanceof DataTypeUUID
+                || type instanceof DataTypeEnum8 || type instanceof DataTypeEnum16) {
+            return ArrowType.Utf8.INSTANCE;
+        }
+        if (type instanceof DataTypeDate) {
+            return new ArrowType.Date(DateUnit.DAY);
+        }
+        if (type instanceof DataTypeDateTime) {
+            return new ArrowType.Timestamp(TimeUnit.SECOND, ((DataTypeDateTime) type).getTimeZone().getId());
+        }
+        if (type instanceof DataTypeDateTime64) {
+            DataTypeDateTime64 dateTime64 = (DataTypeDateTime64) type;
+            return new ArrowType.Timestamp(timeUnit(dateTime64.getScale()), dateTime64.getTimeZone().getId());
+        }
+        if (type instanceof DataTypeDecimal) {
+            DataTypeDecimal decimal = (DataTypeDecimal) type;
+            return new ArrowType.Decimal(decimal.getPrecision(), decimal.getScale(),
+                    decimal.getPrecision() > 38 ? 256 : 128);
+        }
+        throw new SQLException("Type " + type.name() + " can not be converted to Arrow");
+    }
+
+    // the finest unit which does not lose the precision of the scale
+    private static TimeUnit timeUnit(int scale) {
+        return scale == 0 ? TimeUnit.SECOND
+                : scale <= 3 ? TimeUnit.MILLISECOND
+                : scale <= 6 ? TimeUnit.MICROSECOND
+                : TimeUnit.NANOSECOND;
+    }
+
+    private static int scaleOf(TimeUnit unit) {
+        switch (unit) {
+            case SECOND:
+                return 0;
+            case MILLISECOND:
+                return 3;
+            case MICROSECOND:
+                return 6;
+            default:
+                return 9;
+        }
+    }
+
+    private static void write(IColumn column, FieldVector vector, int rows) throws SQLException {
+        byte[] nullMap = null;
+        IColumn values = column;
+        if (column instanceof ColumnNullable && ((ColumnNullable) column).nullMap() != null) {
+            nullMap = ((ColumnNullable) column).nullMap();
+            values = ((ColumnNullable) column).nestedColumn();
+        }
+        if (vector instanceof BaseFixedWidthVector && writeFixedWidth(values, (BaseFixedWidthVector) vector, rows)) {
+            writeValidity(vector.getValidityBuffer(), nullMap, rows);
+        } else if (values instanceof ColumnString && vector instanceof VarCharVector) {
+            writeStrings((ColumnString) values, (VarCharVector) vector, rows);
+            writeValidity(vector.getValidityBuffer(), nullMap, rows);
+        } else {
+            vector.clear();
+            vector.allocateNew();
+            for (int row = 0; row < rows; row++) {
+                setObject(vector, row, column.value(row));
+            }
+        }
+        vector.setValueCount(rows);
+    }
+
+    private static boolean writeFixedWidth(IColumn values, BaseFixedWidthVector vector, int rows) {
+        if (values instanceof ColumnDecimal) {
+            // the unscaled values fit in long, widened to the width of the vector
+            vector.allocateNew(rows);
+            ColumnDecimal decimal = (ColumnDecimal) values;
+            for (int row = 0; row < rows; row++) {
+                if (vector instanceof DecimalVector) {
+                    ((DecimalVector) vector).set(row, decimal.unscaledValue(row));
+                } else {
+                    ((Decimal256Vector) vector).set(row, decimal.unscaledValue(row));
+                }
+            }
+            return true;
+        }
+        if (!(values instanceof ColumnLong || values instanceof ColumnInt || values instanceof ColumnShort
+                || values instanceof ColumnByte || values instanceof ColumnDouble || values instanceof ColumnFloat
+                || values instanceof ColumnDate || values instanceof ColumnDateTime
+                || values instanceof ColumnDateTime64)) {
+            return false;
+        }
+        vector.allocateNew(rows);
+        ArrowBuf buffer = vector.getDataBuffer();
+        // same width, copied in bulk; the widened and rescaled types below are converted value by value
+        if (values instanceof ColumnLong) {
+            view(buffer, rows << 3).asLongBuffer().put(((ColumnLong) values).data(), 0, rows);
+        } else if (values instanceof ColumnInt) {
+            view(buffer, rows << 2).asIntBuffer().put(((ColumnInt) values).data(), 0, rows);
+        } else if (values instanceof ColumnShort) {
+            view(buffer, rows << 1).asShortBuffer().put(((ColumnShort) values).data(), 0, rows);
+        } else if (values instanceof ColumnByte) {
+            buffer.setBytes(0, ((ColumnByte) values).data(), 0, rows);
+        } else if (values instanceof ColumnDouble) {
+            view(buffer, rows << 3).asDoubleBuffer().put(((ColumnDouble) values).data(), 0, rows);
+        } else if (values instanceof ColumnFloat) {
+            view(buffer, rows << 2).asFloatBuffer().put(((ColumnFloat) values).data(), 0, rows);
+        } else if (values instanceof ColumnDate) {
+            // UInt16 days to Int32 days
+            short[] data = ((ColumnDate) values).data();
+            for (int row = 0; row < rows; row++) {
+                buffer.setInt((long) row << 2, data[row] & 0xFFFF);
+            }
+        } else if (values instanceof ColumnDateTime) {
+            // UInt32 seconds to Int64 seconds
+            int[] data = ((ColumnDateTime) values).data();
+            for (int row = 0; row < rows; row++) {
+                buffer.setLong((long) row << 3, data[row] & 0xFFFFFFFFL);
+            }
+        } else {
+            long[] data = ((ColumnDateTime64) values).data();
+            int scale = ((DataTypeDateTime64) values.type()).getScale();
+            long factor = POWERS_OF_TEN[scaleOf(timeUnit(scale)) - scale];
+            for (int row = 0; row < rows; row++) {
+                buffer.setLong((long) row << 3, data[row] * factor);
+            }
+        }
+        return true;
+    }
+
+    private static void writeStrings(ColumnString values, VarCharVector vector, int rows) {
+        int[] offsets = values.offsets();
+        int bytes = offsets[rows];
+        vector.allocateNew(Math.max(bytes, 1), rows);
+        view(vector.getOffsetBuffer(), (rows + 1) << 2).asIntBuffer().put(offsets, 0, rows + 1);
+        vector.getDataBuffer().setBytes(0, values.arena(), 0, bytes);
+        vector.setLastSet(rows - 1);
+    }
+
+    // Arrow buffers are little-endian, the view writes through to the memory of the buffer
+    private static ByteBuffer view(ArrowBuf buffer, int length) {
+        return buffer.nioBuffer(0, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeValidity(ArrowBuf validity, @Nullable byte[] nullMap, int rows) {
+        for (int i = 0; i < (rows + 7) >> 3; i++) {
+            int bits = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                int row = (i << 3) + bit;
+                if (row < rows && (nullMap == null || nullMap[row] == 0)) {
+                    bits |= 1 << bit;
+                }
+            }
+            validity.setByte(i, bits);
+        }
+    }
+
+    private static void setObject(FieldVector vector, int idx, @Nullable Object value) throws SQLException {
+        if (value == null) {
+            Validate.isTrue(vector instanceof BaseFixedWidthVector || vector instanceof BaseVariableWidthVector,
+                    "Null value for non-nullable vector " + vector.getName());
+            if (vector instanceof BaseFixedWidthVector) {
+                ((BaseFixedWidthVector) vector).setNull(idx);
+            } else {
+                ((BaseVariableWidthVector) vector).setNull(idx);
+            }
+        } else if (vector instanceof ListVector) {
+            ListVector list = (ListVector) vector;
+            Object[] elements = ((ClickHouseArray) value).getArray();
+            int start = list.startNewValue(idx);
+            for (int i = 0; i < elements.length; i++) {
+                setObject(list.getDataVector(), start + i, elements[i]);
+            }
+            list.endValue(idx, elements.length);
+        } else if (vector instanceof VarCharVector) {
+            ((VarCharVector) vector).setSafe(idx, value.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (vector instanceof BaseIntVector) {
+            ((BaseIntVector) vector).setWithPossibleTruncate(idx, ((Number) value).longValue());
+        } else if (vector instanceof Float4Vector) {
+            ((Float4Vector) vector).setSafe(idx, ((Number) value).floatValue());
+        } else if (vector instanceof Float8Vector) {
+            ((Float8Vector) vector).setSafe(idx, ((Number) value).doubleValue());
+        } else if (vector instanceof DecimalVector) {
+            ((DecimalVector) vector).setSafe(idx, (BigDecimal) value);
+        } else if (vector instanceof Decimal256Vector) {
+            ((Decimal256Vector) vector).setSafe(idx, (BigDecimal) value);
+        } else if (vector instanceof DateDayVector) {
+            LocalDate date = value instanceof Date ? ((Date) value).toLocalDate() : (LocalDate) value;
+            ((DateDayVector) vector).setSafe(idx, (int) date.toEpochDay());
+        } else if (vector instanceof TimeStampVector) {
+            Instant instant = value instanceof Timestamp ? ((Timestamp) value).toInstant()
+                    : ((ZonedDateTime) value).toInstant();
+            TimeUnit unit = ((ArrowType.Timestamp) vector.getField().getType()).getUnit();
+            int scale = scaleOf(unit);
+            long ticks = instant.getEpochSecond() * POWERS_OF_TEN[scale]
+                    + instant.getNano() / POWERS_OF_TEN[9 - scale];
+            ((TimeStampVector) vector).setSafe(idx, ticks);
+        } else {
+            throw new SQLException("Value of " + value.getClass().getName() + " can not be written to "
+                    + vector.getClass().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.arrow;
+
+import com.github.housepower.buffer.ByteArrayReader;
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.Block;
+import com.github.housepower.data.ColumnFactory;
+import com.github.housepower.data.DataTypeFactory;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrowBlockConverterTest {
+
+    private static final NativeContext.ServerContext CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "localhost");
+
+    private static final String[] TYPES = {"Int64", "Nullable(UInt32)", "Float64", "Decimal(9,2)",
+            "Nullable(String)", "Date", "DateTime64(3)", "Array(Nullable(Int16))", "LowCardinality(String)"};
+
+    @Test
+    public void successfullyConvertBlock() throws Exception {
+        Block block = readBlock(0, 100);
+        try (BufferAllocator allocator = new RootAllocator();
+             VectorSchemaRoot root = new ArrowBlockConverter(allocator).toVectorSchemaRoot(block)) {
+            assertEquals(100, root.getRowCount());
+            assertEquals(new ArrowType.Int(32, false), root.getSchema().getFields().get(1).getType());
+            assertTrue(root.getSchema().getFields().get(1).isNullable());
+            assertFalse(root.getSchema().getFields().get(0).isNullable());
+
+            BigIntVector longs = (BigIntVector) root.getVector(0);
+            UInt4Vector unsigned = (UInt4Vector) root.getVector(1);
+            Float8Vector doubles = (Float8Vector) root.getVector(2);
+            DecimalVector decimals = (DecimalVector) root.getVector(3);
+            VarCharVector strings = (VarCharVector) root.getVector(4);
+            DateDayVector dates = (DateDayVector) root.getVector(5);
+            TimeStampMilliTZVector timestamps = (TimeStampMilliTZVector) root.getVector(6);
+            ListVector arrays = (ListVector) root.getVector(7);
+            VarCharVector lowCardinality = (VarCharVector) root.getVector(8);
+            for (int row = 0; row < 100; row++) {
+                assertEquals(row * 1000L, longs.get(row));
+                assertEquals(row % 4 == 0, unsigned.isNull(row));
+                if (!unsigned.isNull(row)) {
+                    assertEquals(4294967295L - row, UInt4Vector.getNoOverflow(unsigned.getDataBuffer(), row));
+                }
+                assertEquals(row / 4.0, doubles.get(row));
+                assertEquals(BigDecimal.valueOf(row, 2), decimals.getObject(row));
+                if (row % 3 == 0) {
+                    assertTrue(strings.isNull(row));
+                } else {
+                    assertEquals("s" + row, strings.getObject(row).toString());
+                }
+                assertEquals(row, dates.get(row));
+                assertEquals(row * 1001L, timestamps.get(row));
+                assertEquals(Arrays.asList((short) row, null), arrays.getObject(row));
+                assertEquals("v" + row % 7, lowCardinality.getObject(row).toString());
+            }
+        }
+    }
+
+    @Test
+    public void successfullyReuseRoot() throws Exception {
+        try (BufferAllocator allocator = new RootAllocator()) {
+            ArrowBlockConverter converter = new ArrowBlockConverter(allocator);
+            Block first = readBlock(0, 10);
+            try (VectorSchemaRoot root = VectorSchemaRoot.create(ArrowBlockConverter.schema(first), allocator)) {
+                converter.fill(first, root);
+                converter.fill(readBlock(10, 3), root);
+                assertEquals(3, root.getRowCount());
+                assertEquals(12000L, ((BigIntVector) root.getVector(0)).get(2));
+                assertEquals("s11", root.getVector(4).getObject(1).toString());
+            }
+        }
+    }
+
+    private static Block readBlock(int start, int rows) throws Exception {
+        IColumn[] columns = new IColumn[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(TYPES[i], CONTEXT), null);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+        for (int row = start; row < start + rows; row++) {
+            block.setObject(0, row * 1000L);
+            block.setObject(1, row % 4 == 0 ? null : 4294967295L - row);
+            block.setObject(2, row / 4.0);
+            block.setObject(3, BigDecimal.valueOf(row, 2));
+            block.setObject(4, row % 3 == 0 ? null : "s" + row);
+            block.setObject(5, LocalDate.ofEpochDay(row));
+            block.setObject(6, Instant.ofEpochMilli(row * 1001L).atZone(ZoneOffset.UTC));
+            block.setObject(7, new ClickHouseArray(DataTypeFactory.get("Nullable(Int16)", CONTEXT),
+                    new Object[]{(short) row, null}));
+            block.setObject(8, "v" + row % 7);
+            block.appendRow();
+        }
+
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        block.writeTo(new BinarySerializer(writer, false));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : writer.getBufferList()) {
+            ((Buffer) buffer).flip();
+            byte[] fragment = new byte[buffer.remaining()];
+            buffer.get(fragment);
+            bytes.write(fragment);
+        }
+        byte[] serialized = bytes.toByteArray();
+        return Block.readFrom(new BinaryDeserializer(new ByteArrayReader(serialized, 0, serialized.length), false),
+                CONTEXT);
+    }
+}
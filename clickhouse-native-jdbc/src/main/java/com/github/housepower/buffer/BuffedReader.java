@@ -15,10 +15,31 @@
 package com.github.housepower.buffer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public interface BuffedReader {
 
     int readBinary() throws IOException;
 
-    int readBinary(byte[] bytes) throws IOException;
+    default int readBinary(byte[] bytes) throws IOException {
+        return readBinary(bytes, 0, bytes.length);
+    }
+
+    int readBinary(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * The count of bytes that can be read without filling the buffer of the reader, 0 if it doesn't expose its
+     * buffer to {@link #readBuffered(int)}.
+     */
+    default int bufferedBytes() {
+        return 0;
+    }
+
+    /**
+     * Read {@code length} buffered bytes without copying them, the returned view of the reader buffer is only
+     * valid until the next read. Requires {@code length <= bufferedBytes()}.
+     */
+    default ByteBuffer readBuffered(int length) throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't expose its buffer");
+    }
 }
@@ -15,6 +15,8 @@
 package com.github.housepower.buffer;
 
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 public interface BuffedWriter {
 
@@ -24,5 +26,23 @@ public interface BuffedWriter {
 
     void writeBinary(byte[] bytes, int offset, int length) throws IOException;
 
+    /**
+     * Write the remaining bytes of {@code src}, and move its position to the limit.
+     */
+    @SuppressWarnings("RedundantCast")
+    default void writeBinary(ByteBuffer src) throws IOException {
+        if (src.hasArray()) {
+            writeBinary(src.array(), src.arrayOffset() + src.position(), src.remaining());
+            ((Buffer) src).position(src.limit());
+            return;
+        }
+        byte[] chunk = new byte[Math.min(src.remaining(), 8192)];
+        while (src.hasRemaining()) {
+            int num = Math.min(src.remaining(), chunk.length);
+            src.get(chunk, 0, num);
+            writeBinary(chunk, 0, num);
+        }
+    }
+
     void flushToTarget(boolean force) throws IOException;
 }
@@ -14,28 +14,45 @@
 
 package com.github.housepower.buffer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Collects the written bytes in a list of segments. With a {@link ByteBufferPool}, segments are borrowed
+ * from the pool, starting from the smallest size class and growing up to {@code blockSize}, so that small
+ * writes only hold small segments; call {@link #release()} to give them back once the content is consumed.
+ */
 public class ByteArrayWriter implements BuffedWriter {
-    private final int blockSize;
-    private ByteBuffer buffer;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
 
-    // TODO pooling
-    private final List<ByteBuffer> byteBufferList = new LinkedList<>();
+    private final int blockSize;
+    @Nullable
+    private final ByteBufferPool pool;
+    private final List<ByteBuffer> byteBufferList = new ArrayList<>();
+    private ByteBuffer buffer = EMPTY;
+    private int nextSegmentSize;
+    // bytes of the segments before the current one
+    private long filledBytes;
 
     public ByteArrayWriter(int blockSize) {
+        this(blockSize, null);
+    }
+
+    public ByteArrayWriter(int blockSize, @Nullable ByteBufferPool pool) {
         this.blockSize = blockSize;
-        this.buffer = ByteBuffer.allocate(blockSize);
-        this.byteBufferList.add(buffer);
+        this.pool = pool;
+        this.nextSegmentSize = initialSegmentSize();
     }
 
     @Override
     public void writeBinary(byte byt) throws IOException {
+        if (!buffer.hasRemaining()) {
+            nextSegment();
+        }
         buffer.put(byt);
-        flushToTarget(false);
     }
 
     @Override
@@ -49,14 +66,13 @@ public class ByteArrayWriter implements BuffedWriter {
         while (buffer.remaining() < length) {
             int num = buffer.remaining();
             buffer.put(bytes, offset, num);
-            flushToTarget(true);
+            nextSegment();
 
             offset += num;
             length -= num;
         }
 
         buffer.put(bytes, offset, length);
-        flushToTarget(false);
     }
 
     @Override
@@ -64,11 +80,49 @@ public class ByteArrayWriter implements BuffedWriter {
         if (buffer.hasRemaining() && !force) {
             return;
         }
-        buffer = ByteBuffer.allocate(blockSize);
-        byteBufferList.add(buffer);
+        // the next write starts a new segment
+        filledBytes += buffer.position();
+        buffer = EMPTY;
     }
 
     public List<ByteBuffer> getBufferList() {
         return byteBufferList;
     }
+
+    /**
+     * Bytes written since the last {@link #release()}.
+     */
+    public long size() {
+        return filledBytes + buffer.position();
+    }
+
+    /**
+     * Drop the written content, segments are returned to the pool if there is one.
+     */
+    public void release() {
+        if (pool != null) {
+            for (ByteBuffer segment : byteBufferList) {
+                pool.release(segment);
+            }
+        }
+        byteBufferList.clear();
+        buffer = EMPTY;
+        filledBytes = 0;
+        nextSegmentSize = initialSegmentSize();
+    }
+
+    private void nextSegment() {
+        filledBytes += buffer.position();
+        if (pool == null) {
+            buffer = ByteBuffer.allocate(blockSize);
+        } else {
+            buffer = pool.acquire(nextSegmentSize);
+            nextSegmentSize = (int) Math.min(blockSize, buffer.capacity() * 4L);
+        }
+        byteBufferList.add(buffer);
+    }
+
+    private int initialSegmentSize() {
+        return pool == null ? blockSize : Math.min(blockSize, ByteBufferPool.MIN_SEGMENT_BYTES);
+    }
 }
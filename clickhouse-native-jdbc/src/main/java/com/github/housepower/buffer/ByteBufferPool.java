@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.settings.ClickHouseDefines;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-classed pool of {@link ByteBuffer} segments. Size classes start at {@link #MIN_SEGMENT_BYTES}
+ * and grow 4 times each, requests are rounded up to the nearest class. Free segments are kept until
+ * the retained bytes reach {@code maxRetainedBytes}, further released segments are left to GC.
+ */
+public class ByteBufferPool {
+
+    public static final int MIN_SEGMENT_BYTES = 4 * 1024;
+
+    private static final int MIN_SEGMENT_SHIFT = Integer.numberOfTrailingZeros(MIN_SEGMENT_BYTES);
+    // 4K, 16K, 64K, 256K, 1M, 4M, 16M, 64M, 256M
+    private static final int SIZE_CLASSES = 9;
+
+    public static ByteBufferPool global() {
+        return GlobalHolder.INSTANCE;
+    }
+
+    private final long maxRetainedBytes;
+    private final boolean direct;
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final List<Deque<ByteBuffer>> freeSegments = new ArrayList<>(SIZE_CLASSES);
+
+    public ByteBufferPool(long maxRetainedBytes, boolean direct) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.direct = direct;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeSegments.add(new ConcurrentLinkedDeque<>());
+        }
+    }
+
+    /**
+     * Borrow a cleared segment with at least {@code size} bytes of capacity.
+     */
+    public ByteBuffer acquire(int size) {
+        int sizeClass = sizeClassOf(size);
+        if (sizeClass >= SIZE_CLASSES) {
+            return allocate(size);
+        }
+        ByteBuffer segment = freeSegments.get(sizeClass).pollFirst();
+        if (segment == null) {
+            return allocate(classSize(sizeClass));
+        }
+        retainedBytes.addAndGet(-segment.capacity());
+        segment.clear();
+        return segment;
+    }
+
+    /**
+     * Give the segment back, the caller must not touch it anymore.
+     */
+    public void release(ByteBuffer segment) {
+        int capacity = segment.capacity();
+        int sizeClass = sizeClassOf(capacity);
+        if (sizeClass >= SIZE_CLASSES || classSize(sizeClass) != capacity || segment.isDirect() != direct) {
+            return;
+        }
+        if (retainedBytes.addAndGet(capacity) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-capacity);
+            return;
+        }
+        freeSegments.get(sizeClass).offerFirst(segment);
+    }
+
+    public long retainedBytes() {
+        return retainedBytes.get();
+    }
+
+    private ByteBuffer allocate(int size) {
+        return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    private static int sizeClassOf(int size) {
+        if (size <= MIN_SEGMENT_BYTES) {
+            return 0;
+        }
+        int log2 = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return (log2 - MIN_SEGMENT_SHIFT + 1) >> 1;
+    }
+
+    private static int classSize(int sizeClass) {
+        return MIN_SEGMENT_BYTES << (sizeClass << 1);
+    }
+
+    private static class GlobalHolder {
+        private static final ByteBufferPool INSTANCE = new ByteBufferPool(
+                ClickHouseDefines.COLUMN_BUFFER_POOL_BYTES, ClickHouseDefines.COLUMN_BUFFER_DIRECT);
+    }
+}
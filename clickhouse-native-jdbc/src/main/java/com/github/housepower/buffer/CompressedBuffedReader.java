@@ -15,8 +15,10 @@
 package com.github.housepower.buffer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import com.github.housepower.misc.BytesHelper;
+import com.github.housepower.settings.ClickHouseDefines;
 import io.airlift.compress.Decompressor;
 import io.airlift.compress.lz4.Lz4Decompressor;
 import io.airlift.compress.zstd.ZstdDecompressor;
@@ -26,40 +28,48 @@ import static com.github.housepower.settings.ClickHouseDefines.COMPRESSION_HEADE
 
 public class CompressedBuffedReader implements BuffedReader, BytesHelper {
 
+    private final int maxRetainedBytes;
+
     private int position;
     private int capacity;
     private byte[] decompressed;
 
+    // scratch buffers reused across frames, grown to the largest frame seen but not beyond maxRetainedBytes
+    private final byte[] frameHeader = new byte[CHECKSUM_LENGTH + COMPRESSION_HEADER_LENGTH];
+    private byte[] compressedBuf = new byte[0];
+    private byte[] decompressedBuf = new byte[0];
+
     private final BuffedReader buf;
 
     private final Decompressor lz4Decompressor = new Lz4Decompressor();
     private final Decompressor zstdDecompressor = new ZstdDecompressor();
 
     public CompressedBuffedReader(BuffedReader buf) {
+        this(buf, ClickHouseDefines.COMPRESSED_BUFFER_RETAINED_BYTES);
+    }
+
+    public CompressedBuffedReader(BuffedReader buf, int maxRetainedBytes) {
         this.buf = buf;
+        this.maxRetainedBytes = maxRetainedBytes;
     }
 
     @Override
     public int readBinary() throws IOException {
         if (position == capacity) {
-            decompressed = readCompressedData();
-            this.position = 0;
-            this.capacity = decompressed.length;
+            readCompressedData();
         }
 
         return decompressed[position++];
     }
 
     @Override
-    public int readBinary(byte[] bytes) throws IOException {
-        for (int i = 0; i < bytes.length; ) {
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
+        for (int i = offset, end = offset + length; i < end; ) {
             if (position == capacity) {
-                decompressed = readCompressedData();
-                this.position = 0;
-                this.capacity = decompressed.length;
+                readCompressedData();
             }
 
-            int padding = bytes.length - i;
+            int padding = end - i;
             int fillLength = Math.min(padding, capacity - position);
 
             if (fillLength > 0) {
@@ -69,7 +79,22 @@ public class CompressedBuffedReader implements BuffedReader, BytesHelper {
                 this.position += fillLength;
             }
         }
-        return bytes.length;
+        return length;
+    }
+
+    @Override
+    public int bufferedBytes() {
+        return capacity - position;
+    }
+
+    @Override
+    public ByteBuffer readBuffered(int length) throws IOException {
+        if (length > capacity - position) {
+            throw new IOException("Only " + (capacity - position) + " bytes are buffered, but require " + length);
+        }
+        ByteBuffer view = ByteBuffer.wrap(decompressed, position, length);
+        position += length;
+        return view;
     }
 
     // @formatter:off
@@ -78,50 +103,75 @@ public class CompressedBuffedReader implements BuffedReader, BytesHelper {
     private static final int ZSTD = 0x90;
     // @formatter:on
 
-    private byte[] readCompressedData() throws IOException {
+    private void readCompressedData() throws IOException {
         //TODO: validate checksum
-        buf.readBinary(new byte[CHECKSUM_LENGTH]);
-
-        byte[] compressedHeader = new byte[COMPRESSION_HEADER_LENGTH];
-
-        if (buf.readBinary(compressedHeader) != COMPRESSION_HEADER_LENGTH) {
+        if (buf.readBinary(frameHeader) != frameHeader.length) {
             throw new IOException("Invalid compression header");
         }
 
-        int method = compressedHeader[0] & 0x0FF;
-        int compressedSize = getIntLE(compressedHeader, 1);
-        int decompressedSize = getIntLE(compressedHeader, 5);
+        int method = frameHeader[CHECKSUM_LENGTH] & 0x0FF;
+        int compressedSize = getIntLE(frameHeader, CHECKSUM_LENGTH + 1);
+        int decompressedSize = getIntLE(frameHeader, CHECKSUM_LENGTH + 5);
 
         switch (method) {
             case LZ4:
-                return readLZ4CompressedData(compressedSize - COMPRESSION_HEADER_LENGTH, decompressedSize);
+                decompressed = readCompressedData(lz4Decompressor, compressedSize - COMPRESSION_HEADER_LENGTH, decompressedSize);
+                break;
+            case ZSTD:
+                decompressed = readCompressedData(zstdDecompressor, compressedSize - COMPRESSION_HEADER_LENGTH, decompressedSize);
+                break;
             case NONE:
-                return readNoneCompressedData(decompressedSize);
+                decompressed = readNoneCompressedData(decompressedSize);
+                break;
             default:
                 throw new UnsupportedOperationException("Unknown compression magic code: " + method);
         }
+        this.position = 0;
+        this.capacity = decompressedSize;
     }
 
     private byte[] readNoneCompressedData(int size) throws IOException {
-        byte[] decompressed = new byte[size];
+        byte[] decompressed = decompressedBuffer(size);
 
-        if (buf.readBinary(decompressed) != size) {
+        if (buf.readBinary(decompressed, 0, size) != size) {
             throw new IOException("Cannot decompress use None method.");
         }
 
         return decompressed;
     }
 
-    private byte[] readLZ4CompressedData(int compressedSize, int decompressedSize) throws IOException {
-        byte[] compressed = new byte[compressedSize];
-        if (buf.readBinary(compressed) == compressedSize) {
-            byte[] decompressed = new byte[decompressedSize];
+    private byte[] readCompressedData(Decompressor decompressor, int compressedSize, int decompressedSize) throws IOException {
+        byte[] compressed = compressedBuffer(compressedSize);
+        if (buf.readBinary(compressed, 0, compressedSize) == compressedSize) {
+            byte[] decompressed = decompressedBuffer(decompressedSize);
 
-            if (lz4Decompressor.decompress(compressed, 0, compressedSize, decompressed, 0, decompressedSize) == decompressedSize) {
+            if (decompressor.decompress(compressed, 0, compressedSize, decompressed, 0, decompressedSize) == decompressedSize) {
                 return decompressed;
             }
         }
 
-        throw new IOException("Cannot decompress use LZ4 method.");
+        throw new IOException("Cannot decompress use " + decompressor.getClass().getSimpleName() + ".");
+    }
+
+    private byte[] compressedBuffer(int size) {
+        if (size > maxRetainedBytes)
+            return new byte[size];
+        if (compressedBuf.length < size)
+            compressedBuf = new byte[grow(compressedBuf.length, size)];
+        return compressedBuf;
+    }
+
+    private byte[] decompressedBuffer(int size) {
+        if (size > maxRetainedBytes)
+            return new byte[size];
+        if (decompressedBuf.length < size)
+            decompressedBuf = new byte[grow(decompressedBuf.length, size)];
+        return decompressedBuf;
+    }
+
+    // grow by half at least to amortize frames of slightly increasing size, but stay within the bound
+    private int grow(int current, int required) {
+        int expected = current + (current >> 1);
+        return Math.max(required, Math.min(expected, maxRetainedBytes));
     }
 }
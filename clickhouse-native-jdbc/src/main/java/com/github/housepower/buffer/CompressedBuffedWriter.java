@@ -20,7 +20,9 @@ import io.airlift.compress.Compressor;
 import io.airlift.compress.lz4.Lz4Compressor;
 import io.airlift.compress.zstd.ZstdCompressor;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static com.github.housepower.settings.ClickHouseDefines.CHECKSUM_LENGTH;
 import static com.github.housepower.settings.ClickHouseDefines.COMPRESSION_HEADER_LENGTH;
@@ -30,22 +32,34 @@ public class CompressedBuffedWriter implements BuffedWriter, BytesHelper {
     private final int capacity;
     private final byte[] writtenBuf;
     private final BuffedWriter writer;
-
-    private final Compressor lz4Compressor = new Lz4Compressor();
-    private final Compressor zstdCompressor = new ZstdCompressor();
+    private final CompressionMethod method;
+    @Nullable
+    private final Compressor compressor;
+    // frame output buffer, large enough for a frame of capacity bytes, reused across frames
+    private final byte[] compressedBuf;
 
     private int position;
 
     public CompressedBuffedWriter(int capacity, BuffedWriter writer) {
+        this(capacity, writer, CompressionMethod.LZ4);
+    }
+
+    public CompressedBuffedWriter(int capacity, BuffedWriter writer, CompressionMethod method) {
         this.capacity = capacity;
         this.writtenBuf = new byte[capacity];
         this.writer = writer;
+        this.method = method;
+        this.compressor = createCompressor(method);
+        int maxLen = compressor == null ? capacity : compressor.maxCompressedLength(capacity);
+        this.compressedBuf = new byte[maxLen + COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH];
     }
 
     @Override
     public void writeBinary(byte byt) throws IOException {
         writtenBuf[position++] = byt;
-        flushToTarget(false);
+        if (position == capacity) {
+            flushToTarget(false);
+        }
     }
 
     @Override
@@ -55,6 +69,17 @@ public class CompressedBuffedWriter implements BuffedWriter, BytesHelper {
 
     @Override
     public void writeBinary(byte[] bytes, int offset, int length) throws IOException {
+        if (length >= capacity) {
+            // large chunk such as column buffer segment, compress straight from the source without copying,
+            // the pending bytes are flushed as a short frame first to keep the order
+            flushToTarget(true);
+            while (length >= capacity) {
+                writeFrame(bytes, offset, capacity);
+                offset += capacity;
+                length -= capacity;
+            }
+        }
+
         while (remaining() < length) {
             int num = remaining();
             System.arraycopy(bytes, offset, writtenBuf, position, remaining());
@@ -67,28 +92,67 @@ public class CompressedBuffedWriter implements BuffedWriter, BytesHelper {
 
         System.arraycopy(bytes, offset, writtenBuf, position, length);
         position += length;
-        flushToTarget(false);
+        if (position == capacity) {
+            flushToTarget(false);
+        }
+    }
+
+    @Override
+    public void writeBinary(ByteBuffer src) throws IOException {
+        if (src.hasArray()) {
+            BuffedWriter.super.writeBinary(src);
+            return;
+        }
+        // off-heap segment, copy into the frame buffer directly
+        while (src.hasRemaining()) {
+            int num = Math.min(src.remaining(), remaining());
+            src.get(writtenBuf, position, num);
+            position += num;
+            flushToTarget(false);
+        }
     }
 
     @Override
     public void flushToTarget(boolean force) throws IOException {
         if (position > 0 && (force || !hasRemaining())) {
-            int maxLen = lz4Compressor.maxCompressedLength(position);
+            writeFrame(writtenBuf, 0, position);
+            position = 0;
+        }
+    }
 
-            byte[] compressedBuffer = new byte[maxLen + COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH];
-            int res = lz4Compressor.compress(writtenBuf, 0, position, compressedBuffer, COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH, compressedBuffer.length);
+    private void writeFrame(byte[] src, int offset, int length) throws IOException {
+        byte[] compressedBuffer = compressedBuf;
+        int res = compress(src, offset, length, compressedBuffer, COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH);
 
-            compressedBuffer[CHECKSUM_LENGTH] = (byte) (0x82 & 0xFF);
-            int compressedSize = res + COMPRESSION_HEADER_LENGTH;
-            System.arraycopy(getBytesLE(compressedSize), 0, compressedBuffer, CHECKSUM_LENGTH + 1, Integer.BYTES);
-            System.arraycopy(getBytesLE(position), 0, compressedBuffer, CHECKSUM_LENGTH + Integer.BYTES + 1, Integer.BYTES);
+        compressedBuffer[CHECKSUM_LENGTH] = (byte) (method.code() & 0xFF);
+        int compressedSize = res + COMPRESSION_HEADER_LENGTH;
+        setIntLE(compressedBuffer, CHECKSUM_LENGTH + 1, compressedSize);
+        setIntLE(compressedBuffer, CHECKSUM_LENGTH + Integer.BYTES + 1, length);
 
-            long[] checksum = ClickHouseCityHash.cityHash128(compressedBuffer, CHECKSUM_LENGTH, compressedSize);
-            System.arraycopy(getBytesLE(checksum[0]), 0, compressedBuffer, 0, Long.BYTES);
-            System.arraycopy(getBytesLE(checksum[1]), 0, compressedBuffer, Long.BYTES, Long.BYTES);
+        long[] checksum = ClickHouseCityHash.cityHash128(compressedBuffer, CHECKSUM_LENGTH, compressedSize);
+        setLongLE(compressedBuffer, 0, checksum[0]);
+        setLongLE(compressedBuffer, Long.BYTES, checksum[1]);
 
-            writer.writeBinary(compressedBuffer, 0, compressedSize + CHECKSUM_LENGTH);
-            position = 0;
+        writer.writeBinary(compressedBuffer, 0, compressedSize + CHECKSUM_LENGTH);
+    }
+
+    private int compress(byte[] src, int offset, int length, byte[] output, int outputOffset) {
+        if (compressor == null) {
+            System.arraycopy(src, offset, output, outputOffset, length);
+            return length;
+        }
+        return compressor.compress(src, offset, length, output, outputOffset, output.length - outputOffset);
+    }
+
+    @Nullable
+    private static Compressor createCompressor(CompressionMethod method) {
+        switch (method) {
+            case LZ4:
+                return new Lz4Compressor();
+            case ZSTD:
+                return new ZstdCompressor();
+            default:
+                return null;
         }
     }
 
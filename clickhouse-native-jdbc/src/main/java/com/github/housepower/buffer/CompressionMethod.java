@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.misc.StrUtil;
+
+import java.util.Locale;
+
+public enum CompressionMethod {
+
+    NONE(0x02),
+    LZ4(0x82),
+    ZSTD(0x90);
+
+    private final int code;
+
+    CompressionMethod(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    /**
+     * Parse the value of setting {@code network_compression_method}, which is LZ4 if absent.
+     */
+    public static CompressionMethod fromSetting(Object value) {
+        if (value == null || StrUtil.isBlank(value.toString())) {
+            return LZ4;
+        }
+        String name = value.toString().trim().toUpperCase(Locale.ROOT);
+        for (CompressionMethod method : values()) {
+            if (method.name().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported network_compression_method: " + value);
+    }
+}
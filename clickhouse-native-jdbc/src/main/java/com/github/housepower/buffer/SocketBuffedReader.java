@@ -20,6 +20,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 
 public class SocketBuffedReader implements BuffedReader {
 
@@ -53,13 +54,13 @@ public class SocketBuffedReader implements BuffedReader {
     }
 
     @Override
-    public int readBinary(byte[] bytes) throws IOException {
-        for (int i = 0; i < bytes.length; ) {
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
+        for (int i = offset, end = offset + length; i < end; ) {
             if (!remaining() && !refill()) {
                 throw new EOFException("Attempt to read after eof.");
             }
 
-            int pending = bytes.length - i;
+            int pending = end - i;
             int fillLength = Math.min(pending, limit - position);
 
             if (fillLength > 0) {
@@ -69,7 +70,22 @@ public class SocketBuffedReader implements BuffedReader {
                 this.position += fillLength;
             }
         }
-        return bytes.length;
+        return length;
+    }
+
+    @Override
+    public int bufferedBytes() {
+        return limit - position;
+    }
+
+    @Override
+    public ByteBuffer readBuffered(int length) throws IOException {
+        if (length > limit - position) {
+            throw new IOException("Only " + (limit - position) + " bytes are buffered, but require " + length);
+        }
+        ByteBuffer view = ByteBuffer.wrap(buf, position, length);
+        position += length;
+        return view;
     }
 
     private boolean remaining() {
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.settings.ClickHouseDefines;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Read from a non-blocking {@link SocketChannel} into a reusable direct buffer, the read timeout
+ * follows {@link java.net.Socket#getSoTimeout()} of the channel socket like {@link SocketBuffedReader}.
+ */
+public class SocketChannelBuffedReader implements BuffedReader, Closeable {
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final ByteBuffer buf;
+
+    public SocketChannelBuffedReader(SocketChannel channel) throws IOException {
+        this(channel, ClickHouseDefines.SOCKET_RECV_BUFFER_BYTES);
+    }
+
+    SocketChannelBuffedReader(SocketChannel channel, int capacity) throws IOException {
+        this.channel = channel;
+        this.selector = Selector.open();
+        this.channel.register(selector, SelectionKey.OP_READ);
+        this.buf = ByteBuffer.allocateDirect(capacity);
+        ((Buffer) this.buf).limit(0);
+    }
+
+    @Override
+    public int readBinary() throws IOException {
+        if (!buf.hasRemaining()) {
+            refill();
+        }
+
+        return buf.get() & 0xFF;
+    }
+
+    @Override
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
+        for (int i = offset, end = offset + length; i < end; ) {
+            if (!buf.hasRemaining()) {
+                refill();
+            }
+
+            int fillLength = Math.min(end - i, buf.remaining());
+            buf.get(bytes, i, fillLength);
+            i += fillLength;
+        }
+        return length;
+    }
+
+    @Override
+    public int bufferedBytes() {
+        return buf.remaining();
+    }
+
+    @Override
+    public ByteBuffer readBuffered(int length) throws IOException {
+        if (length > buf.remaining()) {
+            throw new IOException("Only " + buf.remaining() + " bytes are buffered, but require " + length);
+        }
+        ByteBuffer view = buf.duplicate();
+        ((Buffer) view).limit(buf.position() + length);
+        ((Buffer) buf).position(buf.position() + length);
+        return view;
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+    }
+
+    private void refill() throws IOException {
+        ((Buffer) buf).clear();
+        int n;
+        while ((n = channel.read(buf)) == 0) {
+            awaitReadable();
+        }
+        ((Buffer) buf).flip();
+        if (n < 0) {
+            throw new EOFException("Attempt to read after eof.");
+        }
+    }
+
+    private void awaitReadable() throws IOException {
+        int soTimeout = channel.socket().getSoTimeout();
+        if (selector.select(soTimeout) == 0 && soTimeout > 0) {
+            throw new SocketTimeoutException("Read timed out");
+        }
+        selector.selectedKeys().clear();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.settings.ClickHouseDefines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Write to a non-blocking {@link SocketChannel} through a reusable direct buffer. Chunks larger than
+ * the buffer, e.g. compressed frames, are written together with the buffered bytes by a gathering
+ * write instead of being copied.
+ */
+public class SocketChannelBuffedWriter implements BuffedWriter, Closeable {
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final ByteBuffer buf;
+    private final ByteBuffer[] gather = new ByteBuffer[2];
+
+    public SocketChannelBuffedWriter(SocketChannel channel) throws IOException {
+        this(channel, ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES);
+    }
+
+    SocketChannelBuffedWriter(SocketChannel channel, int capacity) throws IOException {
+        this.channel = channel;
+        this.selector = Selector.open();
+        this.channel.register(selector, SelectionKey.OP_WRITE);
+        this.buf = ByteBuffer.allocateDirect(capacity);
+    }
+
+    @Override
+    public void writeBinary(byte byt) throws IOException {
+        buf.put(byt);
+        flushToTarget(false);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes) throws IOException {
+        writeBinary(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes, int offset, int length) throws IOException {
+        if (length <= buf.remaining()) {
+            buf.put(bytes, offset, length);
+            flushToTarget(false);
+            return;
+        }
+
+        ((Buffer) buf).flip();
+        gather[0] = buf;
+        gather[1] = ByteBuffer.wrap(bytes, offset, length);
+        try {
+            writeFully(gather);
+        } finally {
+            gather[1] = null;
+            ((Buffer) buf).clear();
+        }
+    }
+
+    @Override
+    public void flushToTarget(boolean force) throws IOException {
+        if (buf.position() > 0 && (force || !buf.hasRemaining())) {
+            ((Buffer) buf).flip();
+            try {
+                while (buf.hasRemaining()) {
+                    if (channel.write(buf) == 0) {
+                        awaitWritable();
+                    }
+                }
+            } finally {
+                ((Buffer) buf).clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+    }
+
+    private void writeFully(ByteBuffer[] srcs) throws IOException {
+        while (srcs[srcs.length - 1].hasRemaining()) {
+            if (channel.write(srcs) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    private void awaitWritable() throws IOException {
+        selector.select();
+        selector.selectedKeys().clear();
+    }
+}
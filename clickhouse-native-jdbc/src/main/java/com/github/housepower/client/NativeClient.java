@@ -14,9 +14,14 @@
 
 package com.github.housepower.client;
 
+import com.github.housepower.buffer.CompressionMethod;
 import com.github.housepower.buffer.SocketBuffedReader;
 import com.github.housepower.buffer.SocketBuffedWriter;
+import com.github.housepower.buffer.SocketChannelBuffedReader;
+import com.github.housepower.buffer.SocketChannelBuffedWriter;
 import com.github.housepower.data.Block;
+import com.github.housepower.data.BlockRecycler;
+import com.github.housepower.exception.ClickHouseSQLException;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.protocol.*;
 import com.github.housepower.serde.BinaryDeserializer;
@@ -28,12 +33,16 @@ import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
 import com.github.housepower.stream.QueryResult;
 import com.github.housepower.stream.ClickHouseQueryResult;
+import com.github.housepower.stream.ResponsePrefetcher;
 
+import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.Map;
@@ -47,6 +56,10 @@ public class NativeClient {
     public static NativeClient connect(ClickHouseConfig configure) throws SQLException {
         try {
             SocketAddress endpoint = new InetSocketAddress(configure.host(), configure.port());
+            CompressionMethod compression = compressionMethod(configure);
+            if (configure.useNio()) {
+                return connectChannel(endpoint, compression, configure);
+            }
             // TODO support proxy
             Socket socket = new Socket();
             socket.setTcpNoDelay(true);
@@ -56,30 +69,122 @@ public class NativeClient {
             socket.connect(endpoint, (int) configure.connectTimeout().toMillis());
 
             return new NativeClient(socket,
-                    new BinarySerializer(new SocketBuffedWriter(socket), true),
+                    new BinarySerializer(new SocketBuffedWriter(socket), true, compression),
                     new BinaryDeserializer(new SocketBuffedReader(socket), true));
         } catch (IOException ex) {
             throw new SQLException(ex.getMessage(), ex);
         }
     }
 
+    private static CompressionMethod compressionMethod(ClickHouseConfig configure) throws SQLException {
+        try {
+            return CompressionMethod.fromSetting(configure.settings().get(SettingKey.network_compression_method));
+        } catch (IllegalArgumentException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+    }
+
+    private static NativeClient connectChannel(SocketAddress endpoint, CompressionMethod compression,
+                                               ClickHouseConfig configure) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            Socket socket = channel.socket();
+            socket.setTcpNoDelay(true);
+            socket.setSendBufferSize(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES);
+            socket.setReceiveBufferSize(ClickHouseDefines.SOCKET_RECV_BUFFER_BYTES);
+            socket.setKeepAlive(configure.tcpKeepAlive());
+            socket.connect(endpoint, (int) configure.connectTimeout().toMillis());
+            channel.configureBlocking(false);
+
+            SocketChannelBuffedWriter writer = new SocketChannelBuffedWriter(channel);
+            SocketChannelBuffedReader reader = new SocketChannelBuffedReader(channel);
+            return new NativeClient(socket,
+                    new BinarySerializer(writer, true, compression),
+                    new BinaryDeserializer(reader, true),
+                    writer, reader);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
     private final Socket socket;
     private final SocketAddress address;
     private final BinarySerializer serializer;
     private final BinaryDeserializer deserializer;
+    // released after the socket is closed, e.g. the selectors of SocketChannel transport
+    private final Closeable[] resources;
+    // last time the socket was successfully written or read, in System#nanoTime
+    private volatile long lastActiveNanos;
+    // a query was sent and its EndOfStream or Exception has not been received yet
+    private volatile boolean pendingResponses;
+    // an I/O error was observed, the stream is unusable and must be recreated
+    private volatile boolean broken;
+    // increased on each query, so that a prefetcher of previous query never reads responses of the next one
+    private volatile int queryGeneration;
+    // responses may be received by a prefetch thread, serialize receiving of whole responses
+    private final Object receiveLock = new Object();
+    // the first data block of current query, its data types are reused by the following blocks
+    private volatile Block queryHeader;
+    // the blocks released by the consumer of current query, only when blocks are recycled
+    private volatile BlockRecycler queryRecycler;
+    // reads the responses of current query in background, in result prefetch mode
+    @Nullable
+    private volatile ResponsePrefetcher queryPrefetcher;
 
     public NativeClient(Socket socket, BinarySerializer serializer, BinaryDeserializer deserializer) {
+        this(socket, serializer, deserializer, new Closeable[0]);
+    }
+
+    private NativeClient(Socket socket, BinarySerializer serializer, BinaryDeserializer deserializer,
+                         Closeable... resources) {
         this.socket = socket;
+        this.resources = resources;
         this.address = socket.getLocalSocketAddress();
         this.serializer = serializer;
         this.deserializer = deserializer;
+        this.lastActiveNanos = System.nanoTime();
     }
 
     public SocketAddress address() {
         return address;
     }
 
-    public boolean ping(Duration soTimeout, NativeContext.ServerContext info) {
+    public boolean isBroken() {
+        return broken || socket.isClosed();
+    }
+
+    public boolean hasPendingResponses() {
+        return pendingResponses;
+    }
+
+    public Duration idleTime() {
+        return Duration.ofNanos(System.nanoTime() - lastActiveNanos);
+    }
+
+    /**
+     * Consume the responses left by a previous query which was not read to the end,
+     * so that the next request starts on a clean stream.
+     */
+    public boolean drainPendingResponses(Duration soTimeout, NativeContext.ServerContext info) {
+        try {
+            synchronized (receiveLock) {
+                while (pendingResponses) {
+                    Response response = receiveResponse0(soTimeout, info);
+                    LOG.debug("drain pending response: {}", response.type());
+                }
+            }
+            return true;
+        } catch (ClickHouseSQLException e) {
+            // the pending query failed on server side, the stream is clean again
+            return true;
+        } catch (SQLException e) {
+            LOG.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    public synchronized boolean ping(Duration soTimeout, NativeContext.ServerContext info) {
         try {
             sendRequest(PingRequest.INSTANCE);
             while (true) {
@@ -112,11 +217,11 @@ public class NativeClient {
         sendRequest(new HelloRequest(client, reversion, db, user, password));
     }
 
-    public void sendQuery(String query, NativeContext.ClientContext info, Map<SettingKey, Serializable> settings) throws SQLException {
+    public synchronized void sendQuery(String query, NativeContext.ClientContext info, Map<SettingKey, Serializable> settings) throws SQLException {
         sendQuery(UUID.randomUUID().toString(), QueryRequest.STAGE_COMPLETE, info, query, settings);
     }
 
-    public void sendData(Block data) throws SQLException {
+    public synchronized void sendData(Block data) throws SQLException {
         sendRequest(new DataRequest("", data));
     }
 
@@ -133,7 +238,30 @@ public class NativeClient {
     }
 
     public QueryResult receiveQuery(Duration soTimeout, NativeContext.ServerContext info) {
-        return new ClickHouseQueryResult(() -> receiveResponse(soTimeout, info));
+        return new ClickHouseQueryResult(() -> receiveResponse(soTimeout, info), startRecycling(info));
+    }
+
+    /**
+     * Receive the query result in background, at most {@code prefetchRows} rows are read ahead of the consumer.
+     */
+    public QueryResult receiveQuery(Duration soTimeout, NativeContext.ServerContext info, int prefetchRows) {
+        final int generation = queryGeneration;
+        ResponsePrefetcher prefetcher = new ResponsePrefetcher(() -> {
+            synchronized (receiveLock) {
+                // the rest responses were drained by the next query
+                if (generation != queryGeneration || !pendingResponses)
+                    return null;
+                return receiveResponse(soTimeout, info);
+            }
+        }, prefetchRows, () -> generation != queryGeneration);
+        queryPrefetcher = prefetcher;
+        return new ClickHouseQueryResult(prefetcher, startRecycling(info));
+    }
+
+    private BlockRecycler startRecycling(NativeContext.ServerContext info) {
+        BlockRecycler recycler = info.getConfigure().recycleBlocks() ? new BlockRecycler() : null;
+        queryRecycler = recycler;
+        return recycler;
     }
 
     public void silentDisconnect() {
@@ -145,14 +273,24 @@ public class NativeClient {
     }
 
     public void disconnect() throws SQLException {
+        ResponsePrefetcher prefetcher = queryPrefetcher;
+        if (prefetcher != null) {
+            prefetcher.cancel();
+        }
         try {
             if (socket.isClosed()) {
                 LOG.info("socket already closed, ignore");
                 return;
             }
             LOG.trace("flush and close socket");
-            serializer.flushToTarget(true);
-            socket.close();
+            try {
+                serializer.flushToTarget(true);
+            } finally {
+                socket.close();
+                for (Closeable resource : resources) {
+                    resource.close();
+                }
+            }
         } catch (IOException ex) {
             throw new SQLException(ex.getMessage(), ex);
         }
@@ -160,7 +298,12 @@ public class NativeClient {
 
     private void sendQuery(String id, int stage, NativeContext.ClientContext info, String query,
                            Map<SettingKey, Serializable> settings) throws SQLException {
+        queryGeneration++;
+        queryHeader = null;
+        queryRecycler = null;
+        queryPrefetcher = null;
         sendRequest(new QueryRequest(id, info, stage, true, query, settings));
+        pendingResponses = true;
     }
 
     private void sendRequest(Request request) throws SQLException {
@@ -168,18 +311,40 @@ public class NativeClient {
             LOG.trace("send request: {}", request.type());
             request.writeTo(serializer);
             serializer.flushToTarget(true);
+            lastActiveNanos = System.nanoTime();
         } catch (IOException ex) {
+            broken = true;
             throw new SQLException(ex.getMessage(), ex);
         }
     }
 
     private Response receiveResponse(Duration soTimeout, NativeContext.ServerContext info) throws SQLException {
+        synchronized (receiveLock) {
+            return receiveResponse0(soTimeout, info);
+        }
+    }
+
+    private Response receiveResponse0(Duration soTimeout, NativeContext.ServerContext info) throws SQLException {
         try {
             socket.setSoTimeout(((int) soTimeout.toMillis()));
-            Response response = Response.readFrom(deserializer, info);
+            Response response = Response.readFrom(deserializer, info, queryHeader, queryRecycler);
             LOG.trace("recv response: {}", response.type());
+            lastActiveNanos = System.nanoTime();
+            if (response instanceof DataResponse && queryHeader == null)
+                queryHeader = ((DataResponse) response).block();
+            if (response instanceof EOFStreamResponse)
+                pendingResponses = false;
             return response;
+        } catch (ClickHouseSQLException ex) {
+            // server exception terminates the response stream of current query
+            pendingResponses = false;
+            throw ex;
+        } catch (SQLException | RuntimeException ex) {
+            // failed to decode the response, the rest of the stream can not be trusted
+            broken = true;
+            throw ex;
         } catch (IOException ex) {
+            broken = true;
             throw new SQLException(ex.getMessage(), ex);
         }
     }
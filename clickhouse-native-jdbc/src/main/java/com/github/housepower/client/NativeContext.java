@@ -55,11 +55,18 @@ public class NativeContext {
         private final String clientName;
         private final String clientHostname;
         private final String initialAddress;
+        // the fields of client info written to server depend on server revision
+        private final long serverReversion;
 
         public ClientContext(String initialAddress, String clientHostname, String clientName) {
+            this(initialAddress, clientHostname, clientName, ClickHouseDefines.CLIENT_REVISION);
+        }
+
+        public ClientContext(String initialAddress, String clientHostname, String clientName, long serverReversion) {
             this.clientName = clientName;
             this.clientHostname = clientHostname;
             this.initialAddress = initialAddress;
+            this.serverReversion = serverReversion;
         }
 
         public void writeTo(BinarySerializer serializer) throws IOException {
@@ -77,6 +84,9 @@ public class NativeContext {
             serializer.writeVarInt(ClickHouseDefines.MINOR_VERSION);
             serializer.writeVarInt(ClickHouseDefines.CLIENT_REVISION);
             serializer.writeUTF8StringBinary("");
+            if (serverReversion >= ClickHouseDefines.DBMS_MIN_REVISION_WITH_VERSION_PATCH) {
+                serializer.writeVarInt(ClickHouseDefines.PATCH_VERSION);
+            }
         }
     }
 
@@ -20,40 +20,111 @@ import com.github.housepower.misc.Validate;
 import com.github.housepower.serde.BinaryDeserializer;
 import com.github.housepower.serde.BinarySerializer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Block {
 
+    private static final byte OBJECT_VALUE = 0;
+    private static final byte LONG_VALUE = 1;
+    private static final byte DOUBLE_VALUE = 2;
+
     public static Block readFrom(BinaryDeserializer deserializer,
                                  NativeContext.ServerContext serverContext) throws IOException, SQLException {
+        return readFrom(deserializer, serverContext, null);
+    }
+
+    /**
+     * Read a block of the query whose first block is {@code header}, the data types of the header are reused
+     * for the columns of the same type, so that the types are only resolved once per query.
+     */
+    public static Block readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext serverContext,
+                                 @Nullable Block header) throws IOException, SQLException {
+        return readFrom(deserializer, serverContext, header, null);
+    }
+
+    /**
+     * Read a block of the query whose first block is {@code header}. If {@code recycler} holds a block released
+     * by the consumer, the block and its columns are reused, the values are decoded into their storage.
+     */
+    public static Block readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext serverContext,
+                                 @Nullable Block header, @Nullable BlockRecycler recycler)
+            throws IOException, SQLException {
         BlockSettings info = BlockSettings.readFrom(deserializer);
 
         int columnCnt = (int) deserializer.readVarInt();
         int rowCnt = (int) deserializer.readVarInt();
 
-        IColumn[] columns = new IColumn[columnCnt];
+        Block recycled = recycler != null && rowCnt > 0 ? recycler.poll(columnCnt) : null;
+        IColumn[] columns = recycled != null ? recycled.columns : new IColumn[columnCnt];
+        String[] typeNames = recycled != null ? recycled.typeNames : new String[columnCnt];
+        // bytes of the lazy columns, shared by the columns of the block
+        ColumnBytes retained = null;
 
         for (int i = 0; i < columnCnt; i++) {
             String name = deserializer.readUTF8StringBinary();
             String type = deserializer.readUTF8StringBinary();
 
-            IDataType dataType = DataTypeFactory.get(type, serverContext);
-            Object[] arr = dataType.deserializeBinaryBulk(rowCnt, deserializer);
-            columns[i] = ColumnFactory.createColumn(name, dataType, arr);
+            typeNames[i] = type;
+            IDataType dataType = header != null && header.typeNames != null && i < header.typeNames.length
+                    && type.equals(header.typeNames[i])
+                    ? header.columns[i].type() : DataTypeFactory.get(type, serverContext);
+            // zero rows are always serialized as zero bytes, including the prefix
+            if (rowCnt > 0) {
+                dataType.deserializeBinaryPrefix(deserializer);
+            }
+            if (rowCnt > 0 && serverContext.getConfigure().lazyDecode() && LazyColumn.supports(dataType)) {
+                if (retained == null) {
+                    retained = new ColumnBytes();
+                }
+                columns[i] = LazyColumn.readFrom(name, dataType, rowCnt, deserializer, retained);
+                continue;
+            }
+            IColumn previous = columns[i];
+            if (previous instanceof RecyclableColumn && ((RecyclableColumn) previous).canRefill()
+                    && previous.type() == dataType && name.equals(previous.name())) {
+                ((RecyclableColumn) previous).refill(rowCnt, deserializer);
+                continue;
+            }
+            columns[i] = ColumnFactory.readColumn(name, dataType, rowCnt, deserializer);
         }
 
-        return new Block(rowCnt, columns, info);
+        if (recycled != null && recycled.hasColumnNames(columns)) {
+            recycled.rowCnt = rowCnt;
+            recycled.settings = info;
+            return recycled;
+        }
+        // the following blocks of a query share the name index of the header
+        Block block = header != null && header.columns.length == columnCnt && header.hasColumnNames(columns)
+                ? new Block(rowCnt, columns, info, header.nameAndPositions)
+                : new Block(rowCnt, columns, info);
+        block.typeNames = typeNames;
+        return block;
     }
 
     private final IColumn[] columns;
-    private final BlockSettings settings;
+    private BlockSettings settings;
     // position start with 1
     private final Map<String, Integer> nameAndPositions;
     private final Object[] rowData;
+    // staged by a columnar insert, written by #appendColumnChunks
+    private final ColumnChunk[] chunks;
+    // the kind of the row values, primitive values staged by #setLong and #setDouble are appended without boxing,
+    // allocated by #initWriteBuffer
+    private byte[] rowKinds;
+    private long[] rowLongs;
+    private double[] rowDoubles;
+    // bytes of a staged primitive value of the column, 0 if the column can't take it
+    private int[] longWidths;
+    private int[] doubleWidths;
     private final int[] placeholderIndexes;
+    // type names as they were received, only for blocks read from the wire
+    @Nullable
+    private String[] typeNames;
     private int rowCnt;
 
     public Block() {
@@ -70,6 +141,7 @@ public class Block {
         this.settings = settings;
 
         this.rowData = new Object[columns.length];
+        this.chunks = new ColumnChunk[columns.length];
         this.nameAndPositions = new HashMap<>();
         this.placeholderIndexes = new int[columns.length];
         for (int i = 0; i < columns.length; i++) {
@@ -78,6 +150,32 @@ public class Block {
         }
     }
 
+    private Block(int rowCnt, IColumn[] columns, BlockSettings settings, Map<String, Integer> nameAndPositions) {
+        this.rowCnt = rowCnt;
+        this.columns = columns;
+        this.settings = settings;
+        this.nameAndPositions = nameAndPositions;
+        this.rowData = new Object[columns.length];
+        this.chunks = new ColumnChunk[columns.length];
+        this.placeholderIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            placeholderIndexes[i] = i;
+        }
+    }
+
+    private boolean hasColumnNames(IColumn[] other) {
+        if (nameAndPositions.size() != other.length) {
+            return false;
+        }
+        for (int i = 0; i < other.length; i++) {
+            Integer position = nameAndPositions.get(other[i].name());
+            if (position == null || position != i + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public int rowCnt() {
         return rowCnt;
     }
@@ -90,16 +188,154 @@ public class Block {
         int i = 0;
         try {
             for (; i < columns.length; i++) {
-                columns[i].write(rowData[i]);
+                writeRowValue(i);
             }
             rowCnt++;
         } catch (IOException | ClassCastException e) {
-            throw new SQLException("Exception processing value " + rowData[i] + " for column: " + columns[i].name(), e);
+            throw new SQLException("Exception processing value " + rowValue(i) + " for column: " + columns[i].name(), e);
+        }
+    }
+
+    private void writeRowValue(int columnIdx) throws IOException, SQLException {
+        IColumn column = columns[columnIdx];
+        switch (rowKinds[columnIdx]) {
+            case LONG_VALUE:
+                if (column instanceof ColumnNullable) {
+                    ((ColumnNullable) column).appendNullMap(null, 1);
+                }
+                ColumnChunk.writeInteger(rowLongs[columnIdx], longWidths[columnIdx], column.getColumnWriterBuffer().column);
+                break;
+            case DOUBLE_VALUE:
+                if (column instanceof ColumnNullable) {
+                    ((ColumnNullable) column).appendNullMap(null, 1);
+                }
+                BinarySerializer serializer = column.getColumnWriterBuffer().column;
+                if (doubleWidths[columnIdx] == 8) {
+                    serializer.writeDouble(rowDoubles[columnIdx]);
+                } else {
+                    serializer.writeFloat((float) rowDoubles[columnIdx]);
+                }
+                break;
+            default:
+                column.write(rowData[columnIdx]);
+        }
+    }
+
+    private Object rowValue(int columnIdx) {
+        if (rowKinds == null) {
+            return rowData[columnIdx];
+        }
+        switch (rowKinds[columnIdx]) {
+            case LONG_VALUE:
+                return rowLongs[columnIdx];
+            case DOUBLE_VALUE:
+                return rowDoubles[columnIdx];
+            default:
+                return rowData[columnIdx];
+        }
+    }
+
+    public void setColumnChunk(int columnIdx, ColumnChunk chunk) {
+        chunks[columnIdx] = chunk;
+    }
+
+    public boolean hasColumnChunks() {
+        for (ColumnChunk chunk : chunks) {
+            if (chunk != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Append the staged column chunks as rows, the columns without a chunk repeat their current value,
+     * e.g. the constants of the VALUES clause.
+     */
+    public void appendColumnChunks() throws SQLException {
+        int i = 0;
+        try {
+            int rows = -1;
+            for (; i < columns.length; i++) {
+                if (chunks[i] == null) {
+                    continue;
+                }
+                Validate.isTrue(rows < 0 || rows == chunks[i].length(), "Column chunks have different lengths: "
+                        + rows + " and " + chunks[i].length() + " of column " + columns[i].name());
+                rows = chunks[i].length();
+                chunks[i].checkType(columns[i]);
+            }
+            Validate.isTrue(rows >= 0, "No column chunk is set");
+            for (i = 0; i < columns.length; i++) {
+                if (chunks[i] != null) {
+                    chunks[i].writeTo(columns[i]);
+                    continue;
+                }
+                for (int row = 0; row < rows; row++) {
+                    writeRowValue(i);
+                }
+            }
+            rowCnt += rows;
+        } catch (IOException | ClassCastException e) {
+            throw new SQLException("Exception processing column chunk for column: " + columns[i].name(), e);
+        } finally {
+            // the chunks are consumed, either appended or rejected
+            Arrays.fill(chunks, null);
+        }
+    }
+
+    /**
+     * Bytes of the rows written to the columns, see {@link IColumn#writtenBytes()}. The values kept out of the
+     * buffers until the block is sent, e.g. the null map of a nullable column or the dictionary of a low
+     * cardinality column, are not counted.
+     */
+    public long writtenBytes() {
+        long bytes = 0;
+        for (IColumn column : columns) {
+            bytes += column.writtenBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Start over with empty columns of the same names and types once the written rows are sent, the staged
+     * values of the row are kept, so that a streaming insert goes on with the rest of the batch.
+     */
+    public void clearWrittenRows() {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnFactory.createColumn(columns[i].name(), columns[i].type(), null);
+            columns[i].setColumnWriterBuffer(new ColumnWriterBuffer());
         }
+        rowCnt = 0;
     }
 
     public void setObject(int columnIdx, Object object) {
         rowData[columnIdx] = object;
+        if (rowKinds != null) {
+            rowKinds[columnIdx] = OBJECT_VALUE;
+        }
+    }
+
+    /**
+     * Stage a value of the integer like column as it is stored by the column, i.e. the epoch value of a temporal
+     * column or the unscaled value of a Decimal32/64 column, see {@link ColumnChunk}. The value is appended by
+     * {@link #appendRow()} without boxing.
+     */
+    public void setLong(int columnIdx, long value) throws SQLException {
+        Validate.isTrue(longWidths[columnIdx] > 0, "Column " + columns[columnIdx].name() + " of type "
+                + columns[columnIdx].type().name() + " can not be set from long");
+        rowKinds[columnIdx] = LONG_VALUE;
+        rowLongs[columnIdx] = value;
+    }
+
+    /**
+     * Stage a value of the Float32/64 column, appended by {@link #appendRow()} without boxing.
+     */
+    public void setDouble(int columnIdx, double value) throws SQLException {
+        Validate.isTrue(doubleWidths[columnIdx] > 0, "Column " + columns[columnIdx].name() + " of type "
+                + columns[columnIdx].type().name() + " can not be set from double");
+        rowKinds[columnIdx] = DOUBLE_VALUE;
+        rowDoubles[columnIdx] = value;
     }
 
     public int paramIdx2ColumnIdx(int paramIdx) {
@@ -119,16 +355,26 @@ public class Block {
         serializer.writeVarInt(rowCnt);
 
         for (IColumn column : columns) {
+            if (rowCnt == 0) {
+                // zero rows are always serialized as zero bytes, including the prefix
+                serializer.writeUTF8StringBinary(column.name());
+                serializer.writeUTF8StringBinary(column.type().name());
+                continue;
+            }
             column.flushToSerializer(serializer, true);
         }
     }
 
-    // idx start with 0
+    // idx start with 0, a lazy column is decoded on first access
     public IColumn getColumn(int columnIdx) throws SQLException {
         Validate.isTrue(columnIdx < columns.length,
                 "Position " + columnIdx +
                         " is out of bound in Block.getByPosition, max position = " + (columns.length - 1));
-        return columns[columnIdx];
+        IColumn column = columns[columnIdx];
+        if (column instanceof LazyColumn) {
+            column = columns[columnIdx] = ((LazyColumn) column).decode();
+        }
+        return column;
     }
 
     // position start with 1
@@ -145,8 +391,19 @@ public class Block {
     }
 
     public void initWriteBuffer() {
-        for (IColumn column : columns) {
+        rowKinds = new byte[columns.length];
+        rowLongs = new long[columns.length];
+        rowDoubles = new double[columns.length];
+        longWidths = new int[columns.length];
+        doubleWidths = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            IColumn column = columns[i];
             column.setColumnWriterBuffer(new ColumnWriterBuffer());
+            if (column instanceof Column || column instanceof ColumnNullable) {
+                IDataType<?, ?> nested = ColumnChunk.nestedType(column.type());
+                longWidths[i] = Math.max(ColumnChunk.integerWidth(nested), 0);
+                doubleWidths[i] = ColumnChunk.floatWidth(nested);
+            }
         }
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Query scoped pool of the blocks which the consumer has advanced past, the following blocks of the query
+ * are decoded into the columns of a released block instead of allocating new ones.
+ * <p>
+ * Once a block is released, the values taken from it without copying, e.g. {@link ColumnString#slice(int)}
+ * or {@link ColumnLong#data()}, may be overwritten by the next block. The receiving thread and the consumer
+ * may differ when the result is prefetched, so the slots are exchanged atomically.
+ */
+public class BlockRecycler {
+
+    // one block being consumed and one being decoded is the steady state, a spare slot absorbs a skipped block
+    private static final int SLOTS = 2;
+
+    private final AtomicReferenceArray<Block> released = new AtomicReferenceArray<>(SLOTS);
+
+    public void release(Block block) {
+        if (block.columnCnt() == 0) {
+            return;
+        }
+        for (int i = 0; i < SLOTS; i++) {
+            if (released.compareAndSet(i, null, block)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Take a released block of {@code columnCnt} columns, or null if there is none.
+     */
+    @Nullable
+    Block poll(int columnCnt) {
+        for (int i = 0; i < SLOTS; i++) {
+            Block block = released.get(i);
+            if (block != null && block.columnCnt() == columnCnt && released.compareAndSet(i, block, null)) {
+                return block;
+            }
+        }
+        return null;
+    }
+}
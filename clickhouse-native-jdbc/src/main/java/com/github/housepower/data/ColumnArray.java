@@ -20,18 +20,16 @@ import com.github.housepower.serde.BinarySerializer;
 
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 
 public class ColumnArray extends AbstractColumn {
 
-    private final List<Long> offsets;
+    private final ColumnOffsets offsets;
     // data represents nested column in ColumnArray
     private final IColumn data;
 
     public ColumnArray(String name, DataTypeArray type, Object[] values) {
         super(name, type, values);
-        offsets = new ArrayList<>();
+        offsets = new ColumnOffsets();
         data = ColumnFactory.createColumn(null, type.getElemDataType(), null);
     }
 
@@ -39,7 +37,7 @@ public class ColumnArray extends AbstractColumn {
     public void write(Object object) throws IOException, SQLException {
         Object[] arr = ((ClickHouseArray) object).getArray();
 
-        offsets.add(offsets.isEmpty() ? arr.length : offsets.get((offsets.size() - 1)) + arr.length);
+        offsets.append(arr.length);
         for (Object field : arr) {
             data.write(field);
         }
@@ -50,6 +48,7 @@ public class ColumnArray extends AbstractColumn {
         if (isExported()) {
             serializer.writeUTF8StringBinary(name);
             serializer.writeUTF8StringBinary(type.name());
+            type.serializeBinaryPrefix(serializer);
         }
 
         flushOffsets(serializer);
@@ -61,9 +60,7 @@ public class ColumnArray extends AbstractColumn {
     }
 
     public void flushOffsets(BinarySerializer serializer) throws IOException {
-        for (long offsetList : offsets) {
-            serializer.writeLong(offsetList);
-        }
+        offsets.writeTo(serializer);
     }
 
     @Override
@@ -72,6 +69,12 @@ public class ColumnArray extends AbstractColumn {
         data.setColumnWriterBuffer(buffer);
     }
 
+    @Override
+    public long writtenBytes() {
+        // the elements share the buffer of the array, unless they keep buffers of their own
+        return offsets.bytes() + data.writtenBytes();
+    }
+
     @Override
     public void clear() {
         offsets.clear();
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The retained bytes of the lazy columns of a block, each column records its range.
+ */
+final class ColumnBytes {
+
+    private byte[] bytes = new byte[4096];
+    private int size;
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void copyFrom(BinaryDeserializer deserializer, long length) throws IOException {
+        ensureCapacity(length);
+        deserializer.readBytes(bytes, size, (int) length);
+        size += (int) length;
+    }
+
+    /**
+     * Copy a VarUInt as is and return its value.
+     */
+    long copyVarInt(BinaryDeserializer deserializer) throws IOException {
+        long value = deserializer.readVarInt();
+        ensureCapacity(10);
+        for (long v = value; ; v >>>= 7) {
+            if ((v & ~0x7FL) == 0) {
+                bytes[size++] = (byte) v;
+                return value;
+            }
+            bytes[size++] = (byte) ((v & 0x7F) | 0x80);
+        }
+    }
+
+    /**
+     * Copy the UInt64 offsets of {@code rows} arrays and return the last one, which is the count of elements.
+     */
+    int copyOffsets(BinaryDeserializer deserializer, int rows) throws IOException {
+        if (rows == 0) {
+            return 0;
+        }
+        copyFrom(deserializer, (long) rows * Long.BYTES);
+        long last = 0;
+        for (int i = 1; i <= Long.BYTES; i++) {
+            last = (last << 8) | (bytes[size - i] & 0xFF);
+        }
+        return (int) last;
+    }
+
+    private void ensureCapacity(long length) {
+        long required = size + length;
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Block is too large to be retained: " + required + " bytes");
+        }
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.min(Math.max(required, (long) bytes.length * 2), Integer.MAX_VALUE - 8));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.*;
+import com.github.housepower.data.type.complex.*;
+import com.github.housepower.misc.Validate;
+import com.github.housepower.serde.BinarySerializer;
+import io.netty.util.AsciiString;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+/**
+ * A range of column values staged for a columnar insert, see {@link Block#setColumnChunk(int, ColumnChunk)}.
+ * <p>
+ * Primitive arrays are serialized in bulk into the column buffer. {@code long[]} and {@code int[]} are accepted
+ * by the integer, Decimal32/64 (unscaled values) and temporal columns, which take epoch days for Date, epoch
+ * seconds for DateTime and ticks of 10^-scale second for DateTime64; values are truncated to the width of the
+ * column. {@code double[]} is accepted by Float32/64. {@code byte[][]} and {@code CharSequence[]} are accepted by
+ * the string columns. Bit {@code i} of {@code nulls} marks the value at {@code offset + i} as null.
+ */
+public final class ColumnChunk {
+
+    public static ColumnChunk of(long[] values, int offset, int length, @Nullable BitSet nulls) {
+        return new ColumnChunk(values, values.length, offset, length, nulls);
+    }
+
+    public static ColumnChunk of(int[] values, int offset, int length, @Nullable BitSet nulls) {
+        return new ColumnChunk(values, values.length, offset, length, nulls);
+    }
+
+    public static ColumnChunk of(double[] values, int offset, int length, @Nullable BitSet nulls) {
+        return new ColumnChunk(values, values.length, offset, length, nulls);
+    }
+
+    public static ColumnChunk of(byte[][] values, int offset, int length, @Nullable BitSet nulls) {
+        return new ColumnChunk(values, values.length, offset, length, nulls);
+    }
+
+    public static ColumnChunk of(CharSequence[] values, int offset, int length, @Nullable BitSet nulls) {
+        return new ColumnChunk(values, values.length, offset, length, nulls);
+    }
+
+    private final Object values;
+    private final int offset;
+    private final int length;
+    @Nullable
+    private final BitSet nulls;
+
+    private ColumnChunk(Object values, int capacity, int offset, int length, @Nullable BitSet nulls) {
+        Validate.ensure(offset >= 0 && length >= 0 && offset + length <= capacity,
+                "Range [" + offset + ", " + (offset + length) + ") is out of the array of length " + capacity);
+        this.values = values;
+        this.offset = offset;
+        this.length = length;
+        this.nulls = nulls;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    void checkType(IColumn column) throws SQLException {
+        IDataType<?, ?> type = column.type();
+        boolean hasNulls = nulls != null && nulls.nextSetBit(0) >= 0 && nulls.nextSetBit(0) < length;
+        Validate.isTrue(!hasNulls || type.nullable(), "Column " + column.name() + " of type " + type.name()
+                + " doesn't support null value");
+        if (values instanceof CharSequence[] || values instanceof byte[][]) {
+            Validate.isTrue(isStringType(type), unsupported(column));
+            Object[] objects = (Object[]) values;
+            for (int i = 0; i < length && !type.nullable(); i++) {
+                Validate.isTrue(objects[offset + i] != null, "Column " + column.name() + " of type " + type.name()
+                        + " doesn't support null value");
+            }
+            return;
+        }
+        IDataType<?, ?> nested = nestedType(type);
+        Validate.isTrue(column instanceof Column || column instanceof ColumnNullable, unsupported(column));
+        if (values instanceof double[]) {
+            Validate.isTrue(nested instanceof DataTypeFloat64 || nested instanceof DataTypeFloat32, unsupported(column));
+        } else {
+            Validate.isTrue(integerWidth(nested) > 0, unsupported(column));
+        }
+    }
+
+    void writeTo(IColumn column) throws IOException, SQLException {
+        if (values instanceof CharSequence[] || values instanceof byte[][]) {
+            writeStrings(column);
+            return;
+        }
+        IDataType<?, ?> nested = nestedType(column.type());
+        if (column instanceof ColumnNullable) {
+            ((ColumnNullable) column).appendNullMap(nulls, length);
+        }
+        BinarySerializer serializer = column.getColumnWriterBuffer().column;
+        if (values instanceof long[]) {
+            writeLongs((long[]) values, integerWidth(nested), serializer);
+        } else if (values instanceof int[]) {
+            writeInts((int[]) values, integerWidth(nested), serializer);
+        } else if (nested instanceof DataTypeFloat64) {
+            serializer.writeDoubles((double[]) values, offset, length);
+        } else {
+            double[] doubles = (double[]) values;
+            for (int i = offset; i < offset + length; i++) {
+                serializer.writeFloat((float) doubles[i]);
+            }
+        }
+    }
+
+    private void writeLongs(long[] longs, int width, BinarySerializer serializer) throws IOException {
+        if (width == 8) {
+            serializer.writeLongs(longs, offset, length);
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            writeInteger(longs[i], width, serializer);
+        }
+    }
+
+    private void writeInts(int[] ints, int width, BinarySerializer serializer) throws IOException {
+        if (width == 4) {
+            serializer.writeInts(ints, offset, length);
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            writeInteger(ints[i], width, serializer);
+        }
+    }
+
+    static void writeInteger(long value, int width, BinarySerializer serializer) throws IOException {
+        switch (width) {
+            case 8:
+                serializer.writeLong(value);
+                break;
+            case 4:
+                serializer.writeInt((int) value);
+                break;
+            case 2:
+                serializer.writeShort((short) value);
+                break;
+            default:
+                serializer.writeByte((byte) value);
+        }
+    }
+
+    private void writeStrings(IColumn column) throws IOException, SQLException {
+        boolean plainString = nestedType(column.type()) instanceof DataTypeString
+                && (column instanceof Column || column instanceof ColumnNullable);
+        if (plainString && values instanceof byte[][]) {
+            // raw bytes go to the column buffer as is, the null rows are written as empty strings
+            if (column instanceof ColumnNullable) {
+                ((ColumnNullable) column).appendNullMap(nulls, length);
+            }
+            BinarySerializer serializer = column.getColumnWriterBuffer().column;
+            byte[][] bytes = (byte[][]) values;
+            for (int i = 0; i < length; i++) {
+                byte[] value = bytes[offset + i];
+                if (value == null || isNull(i)) {
+                    serializer.writeVarInt(0);
+                } else {
+                    serializer.writeBytesBinary(value);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            Object value = ((Object[]) values)[offset + i];
+            if (value == null || isNull(i)) {
+                column.write(null);
+            } else {
+                column.write(value instanceof byte[] ? new AsciiString((byte[]) value, false) : value);
+            }
+        }
+    }
+
+    private boolean isNull(int i) {
+        return nulls != null && nulls.get(i);
+    }
+
+    private String unsupported(IColumn column) {
+        return "Column " + column.name() + " of type " + column.type().name() + " can not be set from "
+                + values.getClass().getSimpleName();
+    }
+
+    private static boolean isStringType(IDataType<?, ?> type) {
+        if (type instanceof DataTypeNullable) {
+            return isStringType(((DataTypeNullable) type).getNestedDataType());
+        }
+        if (type instanceof DataTypeLowCardinality) {
+            return isStringType(((DataTypeLowCardinality) type).getNestedDataType());
+        }
+        return type instanceof DataTypeString || type instanceof DataTypeFixedString;
+    }
+
+    static IDataType<?, ?> nestedType(IDataType<?, ?> type) {
+        return type instanceof DataTypeNullable ? ((DataTypeNullable) type).getNestedDataType() : type;
+    }
+
+    // bytes of a value of the integer like type, -1 if the type is not integer like
+    static int integerWidth(IDataType<?, ?> type) {
+        if (type instanceof DataTypeInt64 || type instanceof DataTypeUInt64 || type instanceof DataTypeDateTime64) {
+            return 8;
+        }
+        if (type instanceof DataTypeInt32 || type instanceof DataTypeUInt32 || type instanceof DataTypeIPv4
+                || type instanceof DataTypeDateTime) {
+            return 4;
+        }
+        if (type instanceof DataTypeInt16 || type instanceof DataTypeUInt16 || type instanceof DataTypeDate) {
+            return 2;
+        }
+        if (type instanceof DataTypeInt8 || type instanceof DataTypeUInt8) {
+            return 1;
+        }
+        if (type instanceof DataTypeDecimal && ((DataTypeDecimal) type).bits() <= 64) {
+            return ((DataTypeDecimal) type).bits() / 8;
+        }
+        return -1;
+    }
+
+    // bytes of a value of the floating point type, 0 if the type is not floating point
+    static int floatWidth(IDataType<?, ?> type) {
+        if (type instanceof DataTypeFloat64) {
+            return 8;
+        }
+        return type instanceof DataTypeFloat32 ? 4 : 0;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Column of Date backed by the UInt16 epoch days read from the wire, {@link #longValue(int)} is the epoch
+ * millisecond of the day start in UTC.
+ */
+public class ColumnDate extends Column implements RecyclableColumn {
+
+    private static final long MILLIS_IN_DAY = 86_400_000L;
+
+    private short[] data;
+
+    public ColumnDate(String name, IDataType<?, ?> type, short[] data) {
+        super(name, type, null);
+        this.data = data;
+    }
+
+    public short[] data() {
+        return data;
+    }
+
+    public int epochDay(int idx) {
+        return data[idx] & 0xFFFF;
+    }
+
+    public LocalDate localDate(int idx) {
+        return LocalDate.ofEpochDay(epochDay(idx));
+    }
+
+    public Date date(int idx) {
+        return Date.valueOf(localDate(idx));
+    }
+
+    @Override
+    public Object value(int idx) {
+        return localDate(idx);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return epochDay(idx) * MILLIS_IN_DAY;
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (data.length < rows) {
+            data = new short[rows];
+        }
+        deserializer.readShorts(data, rows);
+    }
+}
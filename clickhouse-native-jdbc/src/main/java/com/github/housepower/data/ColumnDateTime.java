@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.complex.DataTypeDateTime;
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Column of DateTime backed by the UInt32 epoch seconds read from the wire.
+ */
+public class ColumnDateTime extends ColumnTemporal implements RecyclableColumn {
+
+    private int[] data;
+
+    public ColumnDateTime(String name, DataTypeDateTime type, int[] data) {
+        super(name, type, type.getTimeZone());
+        this.data = data;
+    }
+
+    public int[] data() {
+        return data;
+    }
+
+    @Override
+    public long epochSecond(int idx) {
+        return Integer.toUnsignedLong(data[idx]);
+    }
+
+    @Override
+    public int nano(int idx) {
+        return 0;
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return epochSecond(idx) * 1000;
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (data.length < rows) {
+            data = new int[rows];
+        }
+        deserializer.readInts(data, rows);
+    }
+}
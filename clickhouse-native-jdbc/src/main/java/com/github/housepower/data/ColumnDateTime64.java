@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.complex.DataTypeDateTime64;
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Column of DateTime64 backed by the ticks read from the wire, a tick is 10^-scale second.
+ */
+public class ColumnDateTime64 extends ColumnTemporal implements RecyclableColumn {
+
+    private long[] data;
+    private final long ticksPerSecond;
+    private final int nanosPerTick;
+
+    public ColumnDateTime64(String name, DataTypeDateTime64 type, long[] data) {
+        super(name, type, type.getTimeZone());
+        this.data = data;
+        this.ticksPerSecond = DataTypeDateTime64.POW_10[type.getScale()];
+        this.nanosPerTick = DataTypeDateTime64.POW_10[DataTypeDateTime64.MAX_SCALA - type.getScale()];
+    }
+
+    public long[] data() {
+        return data;
+    }
+
+    @Override
+    public long epochSecond(int idx) {
+        return Math.floorDiv(data[idx], ticksPerSecond);
+    }
+
+    @Override
+    public int nano(int idx) {
+        return (int) Math.floorMod(data[idx], ticksPerSecond) * nanosPerTick;
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (data.length < rows) {
+            data = new long[rows];
+        }
+        deserializer.readLongs(data, rows);
+    }
+}
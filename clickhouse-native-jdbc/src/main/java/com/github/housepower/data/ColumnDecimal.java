@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.complex.DataTypeDecimal;
+import com.github.housepower.serde.BinaryDeserializer;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Column of Decimal32 and Decimal64 backed by the unscaled values read from the wire,
+ * BigDecimal is materialized on access only.
+ */
+public class ColumnDecimal extends Column implements RecyclableColumn {
+
+    private final DataTypeDecimal decimalType;
+    // exactly one of them is present, by the size of the decimal
+    @Nullable
+    private int[] ints;
+    @Nullable
+    private long[] longs;
+
+    public ColumnDecimal(String name, DataTypeDecimal type, int[] unscaled) {
+        this(name, type, unscaled, null);
+    }
+
+    public ColumnDecimal(String name, DataTypeDecimal type, long[] unscaled) {
+        this(name, type, null, unscaled);
+    }
+
+    private ColumnDecimal(String name, DataTypeDecimal type, @Nullable int[] ints, @Nullable long[] longs) {
+        super(name, type, null);
+        this.decimalType = type;
+        this.ints = ints;
+        this.longs = longs;
+    }
+
+    /**
+     * The unscaled value of row {@code idx}, the decimal is {@code unscaledValue(idx) * 10^-scale}.
+     */
+    public long unscaledValue(int idx) {
+        return ints != null ? ints[idx] : longs[idx];
+    }
+
+    @Override
+    public Object value(int idx) {
+        return decimalType.fromUnscaled(unscaledValue(idx));
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return (int) decimalType.integralPart(unscaledValue(idx));
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return decimalType.integralPart(unscaledValue(idx));
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return (float) decimalType.toDouble(unscaledValue(idx));
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return decimalType.toDouble(unscaledValue(idx));
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (ints != null) {
+            if (ints.length < rows) {
+                ints = new int[rows];
+            }
+            deserializer.readInts(ints, rows);
+        } else {
+            if (longs.length < rows) {
+                longs = new long[rows];
+            }
+            deserializer.readLongs(longs, rows);
+        }
+    }
+}
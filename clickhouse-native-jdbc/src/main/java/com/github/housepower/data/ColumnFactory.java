@@ -14,9 +14,20 @@
 
 package com.github.housepower.data;
 
+import com.github.housepower.data.type.*;
 import com.github.housepower.data.type.complex.DataTypeArray;
+import com.github.housepower.data.type.complex.DataTypeDateTime;
+import com.github.housepower.data.type.complex.DataTypeDateTime64;
+import com.github.housepower.data.type.complex.DataTypeDecimal;
+import com.github.housepower.data.type.complex.DataTypeLowCardinality;
+import com.github.housepower.data.type.complex.DataTypeMap;
 import com.github.housepower.data.type.complex.DataTypeNullable;
+import com.github.housepower.data.type.complex.DataTypeString;
 import com.github.housepower.data.type.complex.DataTypeTuple;
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+import java.sql.SQLException;
 
 public class ColumnFactory {
 
@@ -30,6 +41,120 @@ public class ColumnFactory {
         if (type instanceof DataTypeTuple)
             return new ColumnTuple(name, (DataTypeTuple) type, values);
 
+        if (type instanceof DataTypeLowCardinality)
+            return new ColumnLowCardinality(name, (DataTypeLowCardinality) type);
+
+        if (type instanceof DataTypeMap)
+            return new ColumnMap(name, (DataTypeMap) type, values);
+
         return new Column(name, type, values);
     }
+
+    /**
+     * Read {@code rows} values of the column from the wire. Fixed-width numeric columns, including the unscaled
+     * values of Decimal32 and Decimal64 and the epoch values of Date and DateTime, are kept in primitive arrays
+     * and String columns in a byte arena, also for their nullable variants, the others are deserialized into
+     * boxed values.
+     */
+    public static IColumn readColumn(String name, IDataType<?, ?> type, int rows, BinaryDeserializer deserializer)
+            throws IOException, SQLException {
+        if (type instanceof DataTypeNullable && hasRawStorage(((DataTypeNullable) type).getNestedDataType())) {
+            byte[] nullMap = deserializer.readBytes(rows);
+            IColumn data = readColumn(null, ((DataTypeNullable) type).getNestedDataType(), rows, deserializer);
+            return new ColumnNullable(name, (DataTypeNullable) type, nullMap, data);
+        }
+
+        if (type instanceof DataTypeLowCardinality) {
+            return ColumnLowCardinality.readFrom(name, (DataTypeLowCardinality) type, rows, deserializer);
+        }
+
+        if (type instanceof DataTypeMap) {
+            return ColumnMap.readFrom(name, (DataTypeMap) type, rows, deserializer);
+        }
+
+        if (type instanceof DataTypeInt64 || type instanceof DataTypeUInt64) {
+            long[] data = new long[rows];
+            deserializer.readLongs(data, rows);
+            return new ColumnLong(name, type, data);
+        }
+
+        if (type instanceof DataTypeInt32 || type instanceof DataTypeUInt32 || type instanceof DataTypeIPv4) {
+            int[] data = new int[rows];
+            deserializer.readInts(data, rows);
+            return new ColumnInt(name, type, data);
+        }
+
+        if (type instanceof DataTypeFloat64) {
+            double[] data = new double[rows];
+            deserializer.readDoubles(data, rows);
+            return new ColumnDouble(name, type, data);
+        }
+
+        if (type instanceof DataTypeFloat32) {
+            float[] data = new float[rows];
+            deserializer.readFloats(data, rows);
+            return new ColumnFloat(name, type, data);
+        }
+
+        if (type instanceof DataTypeInt16 || type instanceof DataTypeUInt16) {
+            short[] data = new short[rows];
+            deserializer.readShorts(data, rows);
+            return new ColumnShort(name, type, data);
+        }
+
+        if (type instanceof DataTypeInt8 || type instanceof DataTypeUInt8) {
+            return new ColumnByte(name, type, deserializer.readBytes(rows));
+        }
+
+        if (type instanceof DataTypeDateTime) {
+            int[] data = new int[rows];
+            deserializer.readInts(data, rows);
+            return new ColumnDateTime(name, (DataTypeDateTime) type, data);
+        }
+
+        if (type instanceof DataTypeDateTime64) {
+            long[] data = new long[rows];
+            deserializer.readLongs(data, rows);
+            return new ColumnDateTime64(name, (DataTypeDateTime64) type, data);
+        }
+
+        if (type instanceof DataTypeDate) {
+            short[] data = new short[rows];
+            deserializer.readShorts(data, rows);
+            return new ColumnDate(name, type, data);
+        }
+
+        if (isSmallDecimal(type)) {
+            DataTypeDecimal decimalType = (DataTypeDecimal) type;
+            if (decimalType.bits() == 32) {
+                int[] data = new int[rows];
+                deserializer.readInts(data, rows);
+                return new ColumnDecimal(name, decimalType, data);
+            }
+            long[] data = new long[rows];
+            deserializer.readLongs(data, rows);
+            return new ColumnDecimal(name, decimalType, data);
+        }
+
+        if (type instanceof DataTypeString) {
+            return ColumnString.readFrom(name, (DataTypeString) type, rows, deserializer);
+        }
+
+        return createColumn(name, type, type.deserializeBinaryBulk(rows, deserializer));
+    }
+
+    private static boolean hasRawStorage(IDataType<?, ?> type) {
+        return type instanceof DataTypeInt64 || type instanceof DataTypeUInt64
+                || type instanceof DataTypeInt32 || type instanceof DataTypeUInt32 || type instanceof DataTypeIPv4
+                || type instanceof DataTypeFloat64 || type instanceof DataTypeFloat32
+                || type instanceof DataTypeInt16 || type instanceof DataTypeUInt16
+                || type instanceof DataTypeInt8 || type instanceof DataTypeUInt8
+                || type instanceof DataTypeString || isSmallDecimal(type)
+                || type instanceof DataTypeDateTime || type instanceof DataTypeDateTime64
+                || type instanceof DataTypeDate;
+    }
+
+    private static boolean isSmallDecimal(IDataType<?, ?> type) {
+        return type instanceof DataTypeDecimal && ((DataTypeDecimal) type).bits() <= 64;
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Column of Float32 backed by the values read from the wire.
+ */
+public class ColumnFloat extends Column implements RecyclableColumn {
+
+    private float[] data;
+
+    public ColumnFloat(String name, IDataType<?, ?> type, float[] data) {
+        super(name, type, null);
+        this.data = data;
+    }
+
+    public float[] data() {
+        return data;
+    }
+
+    @Override
+    public Object value(int idx) {
+        return Float.valueOf(data[idx]);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return (int) data[idx];
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return (long) data[idx];
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (data.length < rows) {
+            data = new float[rows];
+        }
+        deserializer.readFloats(data, rows);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Column of Int32, UInt32 and IPv4 backed by the values read from the wire, unsigned values are widened on access.
+ */
+public class ColumnInt extends Column implements RecyclableColumn {
+
+    private int[] data;
+    private final boolean unsigned;
+
+    public ColumnInt(String name, IDataType<?, ?> type, int[] data) {
+        super(name, type, null);
+        this.data = data;
+        this.unsigned = !type.isSigned();
+    }
+
+    public int[] data() {
+        return data;
+    }
+
+    @Override
+    public Object value(int idx) {
+        if (unsigned) {
+            return Long.valueOf(data[idx] & 0xFFFFFFFFL);
+        }
+        return Integer.valueOf(data[idx]);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return unsigned ? data[idx] & 0xFFFFFFFFL : data[idx];
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return longValue(idx);
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return longValue(idx);
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (data.length < rows) {
+            data = new int[rows];
+        }
+        deserializer.readInts(data, rows);
+    }
+}
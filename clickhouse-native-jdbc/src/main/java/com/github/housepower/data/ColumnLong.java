@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Column of Int64 and UInt64 backed by the values read from the wire, UInt64 is boxed as BigInteger on access only.
+ */
+public class ColumnLong extends Column implements RecyclableColumn {
+
+    private static final BigInteger UNSIGNED_LONG_MODULUS = BigInteger.ONE.shiftLeft(64);
+
+    private long[] data;
+    private final boolean unsigned;
+
+    public ColumnLong(String name, IDataType<?, ?> type, long[] data) {
+        super(name, type, null);
+        this.data = data;
+        this.unsigned = !type.isSigned();
+    }
+
+    public long[] data() {
+        return data;
+    }
+
+    @Override
+    public Object value(int idx) {
+        if (unsigned) {
+            return toUnsignedBigInteger(data[idx]);
+        }
+        return Long.valueOf(data[idx]);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return (int) data[idx];
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return unsigned && data[idx] < 0 ? toUnsignedBigInteger(data[idx]).floatValue() : data[idx];
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return unsigned && data[idx] < 0 ? toUnsignedBigInteger(data[idx]).doubleValue() : data[idx];
+    }
+
+    private static BigInteger toUnsignedBigInteger(long value) {
+        BigInteger b = BigInteger.valueOf(value);
+        return value < 0 ? b.add(UNSIGNED_LONG_MODULUS) : b;
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (data.length < rows) {
+            data = new long[rows];
+        }
+        deserializer.readLongs(data, rows);
+    }
+}
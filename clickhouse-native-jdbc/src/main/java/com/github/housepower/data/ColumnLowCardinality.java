@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.complex.DataTypeLowCardinality;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import io.netty.util.AsciiString;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LowCardinality column, keeps the dictionary and the index of each row, so that repeated values are
+ * one shared object. On insert, the dictionary is built on client side and sent along with the indexes.
+ */
+public class ColumnLowCardinality extends AbstractColumn {
+
+    public static ColumnLowCardinality readFrom(String name, DataTypeLowCardinality type, int rows,
+                                                BinaryDeserializer deserializer) throws IOException, SQLException {
+        // zero rows are always serialized as zero bytes
+        if (rows == 0) {
+            return new ColumnLowCardinality(name, type);
+        }
+        int indexType = DataTypeLowCardinality.readIndexType(deserializer);
+        int keys = (int) deserializer.readLong();
+        IColumn dictionary = ColumnFactory.readColumn(null, type.getKeysDataType(), keys, deserializer);
+        int[] indexes = DataTypeLowCardinality.readIndexes(indexType, rows, deserializer);
+        return new ColumnLowCardinality(name, type, dictionary, indexes);
+    }
+
+    private final boolean nullable;
+    // read side
+    @Nullable
+    private final IColumn dictionary;
+    private int[] indexes;
+    // write side, keys in the order of their positions, and the reverse lookup
+    private final List<Object> keys = new ArrayList<>();
+    private final Map<Object, Integer> positions = new HashMap<>();
+    private int rows;
+
+    public ColumnLowCardinality(String name, DataTypeLowCardinality type) {
+        this(name, type, null, new int[16]);
+        if (nullable) {
+            // placeholder of NULL, serialized as the default value
+            keys.add(type.getKeysDataType().defaultValue());
+        }
+        Object defaultValue = type.getKeysDataType().defaultValue();
+        positions.put(defaultValue, keys.size());
+        keys.add(defaultValue);
+    }
+
+    public ColumnLowCardinality(String name, DataTypeLowCardinality type, @Nullable IColumn dictionary, int[] indexes) {
+        super(name, type, null);
+        this.nullable = type.nullable();
+        this.dictionary = dictionary;
+        this.indexes = indexes;
+        this.rows = dictionary == null ? 0 : indexes.length;
+    }
+
+    @Nullable
+    public IColumn dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Position of the value of row {@code idx} in {@link #dictionary()}.
+     */
+    public int keyIndex(int idx) {
+        return indexes[idx];
+    }
+
+    @Override
+    public Object value(int idx) {
+        return isNull(idx) ? null : dictionary.value(indexes[idx]);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return nullable && indexes[idx] == 0;
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return dictionary.intValue(indexes[idx]);
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return dictionary.longValue(indexes[idx]);
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return dictionary.floatValue(indexes[idx]);
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return dictionary.doubleValue(indexes[idx]);
+    }
+
+    @Override
+    public void write(@Nullable Object object) throws IOException, SQLException {
+        int position;
+        if (object == null) {
+            position = 0;
+        } else {
+            // values of String column may be any CharSequence, which are not comparable with each other,
+            // AsciiString holds raw bytes and is kept as is
+            Object key = object instanceof CharSequence && !(object instanceof AsciiString) ? object.toString() : object;
+            Integer existing = positions.get(key);
+            if (existing == null) {
+                existing = keys.size();
+                positions.put(key, existing);
+                keys.add(key);
+            }
+            position = existing;
+        }
+        if (rows == indexes.length) {
+            indexes = Arrays.copyOf(indexes, rows * 2);
+        }
+        indexes[rows++] = position;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void flushToSerializer(BinarySerializer serializer, boolean now) throws IOException, SQLException {
+        if (isExported()) {
+            serializer.writeUTF8StringBinary(name);
+            serializer.writeUTF8StringBinary(type.name());
+            type.serializeBinaryPrefix(serializer);
+        }
+        // zero rows are always serialized as zero bytes
+        if (rows == 0) {
+            return;
+        }
+        IDataType<Object, ?> keysType = ((DataTypeLowCardinality) type).getKeysDataType();
+        int indexType = DataTypeLowCardinality.writeIndexType(keys.size(), serializer);
+        serializer.writeLong(keys.size());
+        for (Object key : keys) {
+            keysType.serializeBinary(key, serializer);
+        }
+        DataTypeLowCardinality.writeIndexes(indexType, indexes, rows, serializer);
+    }
+}
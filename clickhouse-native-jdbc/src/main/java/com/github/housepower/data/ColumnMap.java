@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.complex.DataTypeArray;
+import com.github.housepower.data.type.complex.DataTypeMap;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Map column, keeps the offsets of the rows and the flat key and value columns as they are on the wire.
+ * Values of rows are read-only {@link Map} views over the flat columns, keys are looked up by linear scan
+ * because maps in ClickHouse are usually small.
+ */
+public class ColumnMap extends AbstractColumn {
+
+    public static ColumnMap readFrom(String name, DataTypeMap type, int rows, BinaryDeserializer deserializer)
+            throws IOException, SQLException {
+        int[] offsets = DataTypeArray.readOffsets(rows, deserializer);
+        int entries = rows == 0 ? 0 : offsets[rows - 1];
+        IColumn keys = ColumnFactory.readColumn(null, type.getKeyDataType(), entries, deserializer);
+        IColumn values = ColumnFactory.readColumn(null, type.getValueDataType(), entries, deserializer);
+        return new ColumnMap(name, type, offsets, keys, values);
+    }
+
+    // read side
+    private final int[] offsets;
+    // write side
+    private final ColumnOffsets writeOffsets;
+    private final IColumn keys;
+    private final IColumn values;
+
+    public ColumnMap(String name, DataTypeMap type, Object[] values) {
+        super(name, type, values);
+        this.offsets = null;
+        this.writeOffsets = new ColumnOffsets();
+        this.keys = ColumnFactory.createColumn(null, type.getKeyDataType(), null);
+        this.values = ColumnFactory.createColumn(null, type.getValueDataType(), null);
+    }
+
+    private ColumnMap(String name, DataTypeMap type, int[] offsets, IColumn keys, IColumn values) {
+        super(name, type, null);
+        this.offsets = offsets;
+        this.writeOffsets = null;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @Override
+    public Object value(int idx) {
+        int start = idx == 0 ? 0 : offsets[idx - 1];
+        return new RowView(keys, values, start, offsets[idx]);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public void write(Object object) throws IOException, SQLException {
+        Map<?, ?> map = (Map<?, ?>) object;
+        writeOffsets.append(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            keys.write(entry.getKey());
+            values.write(entry.getValue());
+        }
+    }
+
+    @Override
+    public void flushToSerializer(BinarySerializer serializer, boolean now) throws SQLException, IOException {
+        if (isExported()) {
+            serializer.writeUTF8StringBinary(name);
+            serializer.writeUTF8StringBinary(type.name());
+            type.serializeBinaryPrefix(serializer);
+        }
+
+        writeOffsets.writeTo(serializer);
+        // keys and values are using separate buffers, see ColumnTuple
+        keys.flushToSerializer(serializer, true);
+        values.flushToSerializer(serializer, true);
+
+        if (now) {
+            buffer.writeTo(serializer);
+        }
+    }
+
+    @Override
+    public void setColumnWriterBuffer(ColumnWriterBuffer buffer) {
+        super.setColumnWriterBuffer(buffer);
+        keys.setColumnWriterBuffer(new ColumnWriterBuffer());
+        values.setColumnWriterBuffer(new ColumnWriterBuffer());
+    }
+
+    @Override
+    public long writtenBytes() {
+        return buffer.size() + writeOffsets.bytes() + keys.writtenBytes() + values.writtenBytes();
+    }
+
+    @Override
+    public void clear() {
+        if (writeOffsets != null) {
+            writeOffsets.clear();
+        }
+        keys.clear();
+        values.clear();
+    }
+
+    private static final class RowView extends AbstractMap<Object, Object> {
+
+        private final IColumn keys;
+        private final IColumn values;
+        private final int start;
+        private final int end;
+
+        RowView(IColumn keys, IColumn values, int start, int end) {
+            this.keys = keys;
+            this.values = values;
+            this.start = start;
+            this.end = end;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = start; i < end; i++) {
+                if (Objects.equals(key, keys.value(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public Object get(Object key) {
+            int i = indexOf(key);
+            return i < 0 ? null : values.value(i);
+        }
+
+        @Override
+        public Set<Entry<Object, Object>> entrySet() {
+            return new AbstractSet<Entry<Object, Object>>() {
+                @Override
+                public int size() {
+                    return end - start;
+                }
+
+                @Override
+                public Iterator<Entry<Object, Object>> iterator() {
+                    return new Iterator<Entry<Object, Object>>() {
+                        private int next = start;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < end;
+                        }
+
+                        @Override
+                        public Entry<Object, Object> next() {
+                            if (next >= end) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = next++;
+                            return new SimpleImmutableEntry<>(keys.value(i), values.value(i));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -15,24 +15,99 @@
 package com.github.housepower.data;
 
 import com.github.housepower.data.type.complex.DataTypeNullable;
+import com.github.housepower.misc.Validate;
+import com.github.housepower.serde.BinaryDeserializer;
 import com.github.housepower.serde.BinarySerializer;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
-public class ColumnNullable extends AbstractColumn {
+public class ColumnNullable extends AbstractColumn implements RecyclableColumn {
 
     private final List<Byte> nullableSign;
     // data represents nested column in ColumnArray
     private final IColumn data;
+    // null map read from the wire, along with nested data column, used instead of values
+    @Nullable
+    private byte[] nullMap;
 
     public ColumnNullable(String name, DataTypeNullable type, Object[] values) {
         super(name, type, values);
         nullableSign = new ArrayList<>();
         data = ColumnFactory.createColumn(null, type.getNestedDataType(), null);
+        nullMap = null;
+    }
+
+    public ColumnNullable(String name, DataTypeNullable type, byte[] nullMap, IColumn data) {
+        super(name, type, null);
+        this.nullableSign = new ArrayList<>();
+        this.data = data;
+        this.nullMap = nullMap;
+    }
+
+    public IColumn nestedColumn() {
+        return data;
+    }
+
+    /**
+     * The null map read from the wire, one byte per row and non-zero for null, absent if the values are boxed.
+     */
+    @Nullable
+    public byte[] nullMap() {
+        return nullMap;
+    }
+
+    @Override
+    public boolean canRefill() {
+        return nullMap != null && data instanceof RecyclableColumn && ((RecyclableColumn) data).canRefill();
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        Validate.ensure(nullMap != null && data instanceof RecyclableColumn,
+                "Only the nullable column read from the wire can be refilled.");
+        if (nullMap.length < rows) {
+            nullMap = new byte[rows];
+        }
+        deserializer.readBytes(nullMap, 0, rows);
+        ((RecyclableColumn) data).refill(rows, deserializer);
+    }
+
+    @Override
+    public Object value(int idx) {
+        if (nullMap == null) {
+            return values[idx];
+        }
+        return nullMap[idx] != 0 ? null : data.value(idx);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return nullMap == null ? values[idx] == null : nullMap[idx] != 0;
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return nullMap == null ? super.intValue(idx) : data.intValue(idx);
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return nullMap == null ? super.longValue(idx) : data.longValue(idx);
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return nullMap == null ? super.floatValue(idx) : data.floatValue(idx);
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return nullMap == null ? super.doubleValue(idx) : data.doubleValue(idx);
     }
 
     @Override
@@ -46,6 +121,16 @@ public class ColumnNullable extends AbstractColumn {
         }
     }
 
+    /**
+     * Append the null signs of {@code rows} values whose nested values are written to the buffer directly,
+     * bit {@code i} of {@code nulls} marks row {@code i} as null.
+     */
+    void appendNullMap(@Nullable BitSet nulls, int rows) {
+        for (int i = 0; i < rows; i++) {
+            nullableSign.add(nulls != null && nulls.get(i) ? (byte) 1 : (byte) 0);
+        }
+    }
+
     @Override
     public void flushToSerializer(BinarySerializer serializer, boolean immediate) throws IOException {
         if (isExported()) {
@@ -66,4 +151,9 @@ public class ColumnNullable extends AbstractColumn {
         super.setColumnWriterBuffer(buffer);
         data.setColumnWriterBuffer(buffer);
     }
+
+    @Override
+    public long writtenBytes() {
+        return data.writtenBytes();
+    }
 }
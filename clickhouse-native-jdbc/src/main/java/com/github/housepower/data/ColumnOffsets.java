@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Offsets of the nested values of Array and Map columns on insert, the accumulated value count of each row.
+ */
+final class ColumnOffsets {
+
+    private long[] offsets = new long[16];
+    private int rows;
+
+    void append(int length) {
+        if (rows == offsets.length) {
+            offsets = Arrays.copyOf(offsets, rows * 2);
+        }
+        offsets[rows] = rows == 0 ? length : offsets[rows - 1] + length;
+        rows++;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long bytes() {
+        return (long) rows * Long.BYTES;
+    }
+
+    void writeTo(BinarySerializer serializer) throws IOException {
+        serializer.writeLongs(offsets, 0, rows);
+    }
+
+    void clear() {
+        rows = 0;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Column of Int16 and UInt16 backed by the values read from the wire, UInt16 is widened on access.
+ */
+public class ColumnShort extends Column implements RecyclableColumn {
+
+    private short[] data;
+    private final boolean unsigned;
+
+    public ColumnShort(String name, IDataType<?, ?> type, short[] data) {
+        super(name, type, null);
+        this.data = data;
+        this.unsigned = !type.isSigned();
+    }
+
+    public short[] data() {
+        return data;
+    }
+
+    @Override
+    public Object value(int idx) {
+        if (unsigned) {
+            return Integer.valueOf(data[idx] & 0xFFFF);
+        }
+        return Short.valueOf(data[idx]);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return unsigned ? data[idx] & 0xFFFF : data[idx];
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return intValue(idx);
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return intValue(idx);
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return intValue(idx);
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (data.length < rows) {
+            data = new short[rows];
+        }
+        deserializer.readShorts(data, rows);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.complex.DataTypeString;
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * String column read from the wire, modeled on ColumnString of ClickHouse: values are kept as raw bytes
+ * in one arena, row {@code i} spans {@code [offsets[i], offsets[i + 1])}. Strings are decoded on first
+ * access and cached, the bytes can be read or compared without decoding.
+ */
+public class ColumnString extends Column implements RecyclableColumn {
+
+    private static final int INITIAL_BYTES_PER_ROW = 16;
+
+    public static ColumnString readFrom(String name, DataTypeString type, int rows,
+                                        BinaryDeserializer deserializer) throws IOException {
+        ColumnString column = new ColumnString(name, type, new byte[rows * INITIAL_BYTES_PER_ROW], new int[rows + 1]);
+        column.readValues(rows, deserializer);
+        return column;
+    }
+
+    private final Charset charset;
+    private byte[] arena;
+    private int[] offsets;
+    private String[] decoded;
+
+    public ColumnString(String name, DataTypeString type, byte[] arena, int[] offsets) {
+        super(name, type, null);
+        this.charset = type.charset();
+        this.arena = arena;
+        this.offsets = offsets;
+    }
+
+    @Override
+    public void refill(int rows, BinaryDeserializer deserializer) throws IOException {
+        if (offsets.length < rows + 1) {
+            offsets = new int[rows + 1];
+        }
+        if (decoded != null) {
+            Arrays.fill(decoded, 0, Math.min(rows, decoded.length), null);
+        }
+        readValues(rows, deserializer);
+    }
+
+    private void readValues(int rows, BinaryDeserializer deserializer) throws IOException {
+        int end = 0;
+        for (int row = 0; row < rows; row++) {
+            int length = (int) deserializer.readVarInt();
+            if (arena.length - end < length) {
+                arena = Arrays.copyOf(arena, Math.max(end + length, arena.length + (arena.length >> 1)));
+            }
+            deserializer.readBytes(arena, end, length);
+            end += length;
+            offsets[row + 1] = end;
+        }
+    }
+
+    @Override
+    public Object value(int idx) {
+        if (decoded == null || decoded.length <= idx) {
+            decoded = new String[offsets.length - 1];
+        }
+        String str = decoded[idx];
+        if (str == null) {
+            str = new String(arena, offsets[idx], byteLength(idx), charset);
+            decoded[idx] = str;
+        }
+        return str;
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    /**
+     * The arena shared by the values, row {@code idx} spans {@code [offsets()[idx], offsets()[idx + 1])}.
+     */
+    public byte[] arena() {
+        return arena;
+    }
+
+    public int[] offsets() {
+        return offsets;
+    }
+
+    public int byteLength(int idx) {
+        return offsets[idx + 1] - offsets[idx];
+    }
+
+    /**
+     * Copy of the raw bytes of the value.
+     */
+    public byte[] bytes(int idx) {
+        return Arrays.copyOfRange(arena, offsets[idx], offsets[idx + 1]);
+    }
+
+    /**
+     * Read-only view of the raw bytes of the value, shares the arena of the column.
+     */
+    public ByteBuffer slice(int idx) {
+        return ByteBuffer.wrap(arena, offsets[idx], byteLength(idx)).slice().asReadOnlyBuffer();
+    }
+
+    public boolean equalsBytes(int idx, byte[] bytes) {
+        return byteLength(idx) == bytes.length && regionMatches(offsets[idx], bytes);
+    }
+
+    public boolean startsWith(int idx, byte[] prefix) {
+        return byteLength(idx) >= prefix.length && regionMatches(offsets[idx], prefix);
+    }
+
+    private boolean regionMatches(int start, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (arena[start + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
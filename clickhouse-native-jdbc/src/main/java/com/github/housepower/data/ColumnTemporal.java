@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Column of DateTime and DateTime64 backed by the epoch values read from the wire, the java.time objects
+ * are created on access only, {@link #longValue(int)} is the epoch millisecond.
+ */
+public abstract class ColumnTemporal extends Column {
+
+    private final ZoneId tz;
+
+    protected ColumnTemporal(String name, IDataType<?, ?> type, ZoneId tz) {
+        super(name, type, null);
+        this.tz = tz;
+    }
+
+    public abstract long epochSecond(int idx);
+
+    public abstract int nano(int idx);
+
+    public Instant instant(int idx) {
+        return Instant.ofEpochSecond(epochSecond(idx), nano(idx));
+    }
+
+    public Timestamp timestamp(int idx) {
+        // no time zone rules are involved, Timestamp is an instant
+        Timestamp timestamp = new Timestamp(epochSecond(idx) * 1000);
+        timestamp.setNanos(nano(idx));
+        return timestamp;
+    }
+
+    public ZonedDateTime zonedDateTime(int idx) {
+        return ZonedDateTime.ofInstant(instant(idx), tz);
+    }
+
+    public LocalDateTime localDateTime(int idx) {
+        return LocalDateTime.ofInstant(instant(idx), tz);
+    }
+
+    @Override
+    public Object value(int idx) {
+        return zonedDateTime(idx);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return epochSecond(idx) * 1000 + nano(idx) / 1_000_000;
+    }
+}
@@ -49,6 +49,7 @@ public class ColumnTuple extends AbstractColumn {
         if (isExported()) {
             serializer.writeUTF8StringBinary(name);
             serializer.writeUTF8StringBinary(type.name());
+            type.serializeBinaryPrefix(serializer);
         }
 
         // we should to flush all the nested data to serializer
@@ -71,6 +72,15 @@ public class ColumnTuple extends AbstractColumn {
         }
     }
 
+    @Override
+    public long writtenBytes() {
+        long bytes = buffer.size();
+        for (IColumn data : columnDataArray) {
+            bytes += data.writtenBytes();
+        }
+        return bytes;
+    }
+
     @Override
     public void clear() {
     }
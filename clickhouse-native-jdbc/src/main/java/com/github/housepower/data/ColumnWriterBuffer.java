@@ -15,6 +15,7 @@
 package com.github.housepower.data;
 
 import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.buffer.ByteBufferPool;
 import com.github.housepower.serde.BinarySerializer;
 import com.github.housepower.settings.ClickHouseDefines;
 
@@ -29,19 +30,24 @@ public class ColumnWriterBuffer {
     public BinarySerializer column;
 
     public ColumnWriterBuffer() {
-        this.columnWriter = new ByteArrayWriter(ClickHouseDefines.COLUMN_BUFFER_BYTES);
+        this.columnWriter = new ByteArrayWriter(ClickHouseDefines.COLUMN_BUFFER_BYTES, ByteBufferPool.global());
         this.column = new BinarySerializer(columnWriter, false);
     }
 
+    public long size() {
+        return columnWriter.size();
+    }
+
     @SuppressWarnings("RedundantCast")
     public void writeTo(BinarySerializer serializer) throws IOException {
         for (ByteBuffer buffer : columnWriter.getBufferList()) {
             // upcast is necessary, see detail at:
             // https://bitbucket.org/ijabz/jaudiotagger/issues/313/java-8-javalangnosuchmethoderror
             ((Buffer) buffer).flip();
-            while (buffer.hasRemaining()) {
-                serializer.writeByte(buffer.get());
-            }
+            // hand the whole segment over, so that the compressed writer can take it as a frame without copying
+            serializer.writeBytes(buffer);
         }
+        // the content has been consumed by serializer, segments go back to the pool
+        columnWriter.release();
     }
 }
@@ -14,10 +14,13 @@
 
 package com.github.housepower.data;
 
+import java.nio.charset.Charset;
 import java.sql.SQLException;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 
 import com.github.housepower.client.NativeContext;
 import com.github.housepower.data.type.*;
@@ -29,22 +32,28 @@ import com.github.housepower.data.type.complex.DataTypeDecimal;
 import com.github.housepower.data.type.complex.DataTypeEnum16;
 import com.github.housepower.data.type.complex.DataTypeEnum8;
 import com.github.housepower.data.type.complex.DataTypeFixedString;
+import com.github.housepower.data.type.complex.DataTypeLowCardinality;
+import com.github.housepower.data.type.complex.DataTypeMap;
 import com.github.housepower.data.type.complex.DataTypeNothing;
 import com.github.housepower.data.type.complex.DataTypeNullable;
 import com.github.housepower.data.type.complex.DataTypeString;
 import com.github.housepower.data.type.complex.DataTypeTuple;
+import com.github.housepower.misc.DateTimeUtil;
 import com.github.housepower.misc.LRUCache;
 import com.github.housepower.misc.SQLLexer;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.settings.ClickHouseDefines;
 
+import javax.annotation.Nullable;
+
 public class DataTypeFactory {
-    private static final LRUCache<String, IDataType<?, ?>> DATA_TYPE_CACHE = new LRUCache<>(ClickHouseDefines.DATA_TYPE_CACHE_SIZE);
+    private static final LRUCache<CacheKey, IDataType<?, ?>> DATA_TYPE_CACHE = new LRUCache<>(ClickHouseDefines.DATA_TYPE_CACHE_SIZE);
 
     public static IDataType<?, ?> get(String type, NativeContext.ServerContext serverContext) throws SQLException {
-        IDataType<?, ?> dataType = DATA_TYPE_CACHE.get(type);
+        // the same type string is resolved differently by the time zone and the charset of the connection
+        CacheKey key = new CacheKey(type, serverContext);
+        IDataType<?, ?> dataType = DATA_TYPE_CACHE.get(key);
         if (dataType != null) {
-            DATA_TYPE_CACHE.put(type, dataType);
             return dataType;
         }
 
@@ -52,7 +61,7 @@ public class DataTypeFactory {
         dataType = get(lexer, serverContext);
         Validate.isTrue(lexer.eof());
 
-        DATA_TYPE_CACHE.put(type, dataType);
+        DATA_TYPE_CACHE.put(key, dataType);
         return dataType;
     }
 
@@ -65,6 +74,8 @@ public class DataTypeFactory {
             return DataTypeTuple.creator.createDataType(lexer, serverContext);
         } else if (dataTypeName.equalsIgnoreCase("Array")) {
             return DataTypeArray.creator.createDataType(lexer, serverContext);
+        } else if (dataTypeName.equalsIgnoreCase("Map")) {
+            return DataTypeMap.creator.createDataType(lexer, serverContext);
         } else if (dataTypeName.equalsIgnoreCase("Enum8")) {
             return DataTypeEnum8.creator.createDataType(lexer, serverContext);
         } else if (dataTypeName.equalsIgnoreCase("Enum16")) {
@@ -75,6 +86,8 @@ public class DataTypeFactory {
             return DataTypeDateTime64.creator.createDataType(lexer, serverContext);
         } else if (dataTypeName.equalsIgnoreCase("Nullable")) {
             return DataTypeNullable.creator.createDataType(lexer, serverContext);
+        } else if (dataTypeName.equalsIgnoreCase("LowCardinality")) {
+            return DataTypeLowCardinality.creator.createDataType(lexer, serverContext);
         } else if (dataTypeName.equalsIgnoreCase("FixedString") || dataTypeName.equals("Binary")) {
             return DataTypeFixedString.creator.createDataType(lexer, serverContext);
         } else if (dataTypeName.equalsIgnoreCase("Decimal")) {
@@ -135,4 +148,34 @@ public class DataTypeFactory {
             creators.put(typeName.toLowerCase(Locale.ROOT), creator);
         }
     }
+
+    private static final class CacheKey {
+        private final String type;
+        @Nullable
+        private final ZoneId timeZone;
+        @Nullable
+        private final Charset charset;
+
+        CacheKey(String type, @Nullable NativeContext.ServerContext serverContext) {
+            this.type = type;
+            this.timeZone = serverContext == null ? null : DateTimeUtil.chooseTimeZone(serverContext);
+            this.charset = serverContext == null ? null : serverContext.getConfigure().charset();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CacheKey))
+                return false;
+            CacheKey that = (CacheKey) o;
+            return type.equals(that.type) && Objects.equals(timeZone, that.timeZone)
+                    && Objects.equals(charset, that.charset);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, timeZone, charset);
+        }
+    }
 }
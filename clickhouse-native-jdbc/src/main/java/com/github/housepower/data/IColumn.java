@@ -29,6 +29,28 @@ public interface IColumn {
 
     Object value(int idx);
 
+    default boolean isNull(int idx) {
+        return value(idx) == null;
+    }
+
+    // typed accessors of non-null numeric values, primitive backed columns override them to avoid boxing
+
+    default int intValue(int idx) {
+        return ((Number) value(idx)).intValue();
+    }
+
+    default long longValue(int idx) {
+        return ((Number) value(idx)).longValue();
+    }
+
+    default float floatValue(int idx) {
+        return ((Number) value(idx)).floatValue();
+    }
+
+    default double doubleValue(int idx) {
+        return ((Number) value(idx)).doubleValue();
+    }
+
     void write(Object object) throws IOException, SQLException;
 
     /**
@@ -44,6 +66,12 @@ public interface IColumn {
     void setColumnWriterBuffer(ColumnWriterBuffer buffer);
 
     ColumnWriterBuffer getColumnWriterBuffer();
-}
-
 
+    /**
+     * Bytes of the values written so far, including the buffers and offsets of nested columns which don't share
+     * the buffer of the column, e.g. the keys and values of a map or the elements of a tuple.
+     */
+    default long writtenBytes() {
+        return getColumnWriterBuffer().size();
+    }
+}
@@ -73,6 +73,16 @@ public interface IDataType<CK, JDBC> {
 
     CK deserializeText(SQLLexer lexer) throws SQLException;
 
+    /**
+     * State written once per column of a block before its data, only if the block is not empty,
+     * e.g. the key version of LowCardinality. Composite types write the prefixes of their nested types.
+     */
+    default void serializeBinaryPrefix(BinarySerializer serializer) throws IOException {
+    }
+
+    default void deserializeBinaryPrefix(BinaryDeserializer deserializer) throws SQLException, IOException {
+    }
+
     CK deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException;
 
     // fuck type erasure
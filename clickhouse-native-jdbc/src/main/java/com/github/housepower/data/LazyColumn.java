@@ -0,0 +1,231 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayReader;
+import com.github.housepower.data.type.*;
+import com.github.housepower.data.type.complex.*;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Column of a block read in lazy mode, only the bytes of the column are retained when the block is read,
+ * they are decoded by {@link ColumnFactory#readColumn} on first access. {@link Block#getColumn(int)} replaces
+ * it with the decoded column.
+ * <p>
+ * The range of fixed-width columns is computed from the row count, variable-width columns are scanned
+ * through their lengths and offsets. Types with state, i.e. LowCardinality, are always decoded eagerly.
+ */
+public class LazyColumn implements IColumn {
+
+    /**
+     * Whether the byte range of the type can be found without decoding it.
+     */
+    public static boolean supports(IDataType<?, ?> type) {
+        if (fixedWidth(type) >= 0 || type instanceof DataTypeString) {
+            return true;
+        }
+        if (type instanceof DataTypeNullable) {
+            return supports(((DataTypeNullable) type).getNestedDataType());
+        }
+        if (type instanceof DataTypeArray) {
+            return supports(((DataTypeArray) type).getElemDataType());
+        }
+        if (type instanceof DataTypeMap) {
+            return supports(((DataTypeMap) type).getKeyDataType()) && supports(((DataTypeMap) type).getValueDataType());
+        }
+        if (type instanceof DataTypeTuple) {
+            for (IDataType<?, ?> nested : ((DataTypeTuple) type).getNestedTypes()) {
+                if (!supports(nested)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static LazyColumn readFrom(String name, IDataType<?, ?> type, int rows, BinaryDeserializer deserializer,
+                               ColumnBytes retained) throws IOException {
+        int start = retained.size();
+        copy(type, rows, deserializer, retained);
+        return new LazyColumn(name, type, rows, retained, start, retained.size() - start);
+    }
+
+    private static void copy(IDataType<?, ?> type, int rows, BinaryDeserializer deserializer, ColumnBytes retained)
+            throws IOException {
+        int width = fixedWidth(type);
+        if (width >= 0) {
+            retained.copyFrom(deserializer, (long) rows * width);
+        } else if (type instanceof DataTypeString) {
+            for (int row = 0; row < rows; row++) {
+                retained.copyFrom(deserializer, retained.copyVarInt(deserializer));
+            }
+        } else if (type instanceof DataTypeNullable) {
+            retained.copyFrom(deserializer, rows);
+            copy(((DataTypeNullable) type).getNestedDataType(), rows, deserializer, retained);
+        } else if (type instanceof DataTypeArray) {
+            int elements = retained.copyOffsets(deserializer, rows);
+            copy(((DataTypeArray) type).getElemDataType(), elements, deserializer, retained);
+        } else if (type instanceof DataTypeMap) {
+            int entries = retained.copyOffsets(deserializer, rows);
+            copy(((DataTypeMap) type).getKeyDataType(), entries, deserializer, retained);
+            copy(((DataTypeMap) type).getValueDataType(), entries, deserializer, retained);
+        } else if (type instanceof DataTypeTuple) {
+            for (IDataType<?, ?> nested : ((DataTypeTuple) type).getNestedTypes()) {
+                copy(nested, rows, deserializer, retained);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported lazy column type: " + type.name());
+        }
+    }
+
+    private static int fixedWidth(IDataType<?, ?> type) {
+        // @formatter:off
+        if (type instanceof DataTypeInt8 || type instanceof DataTypeUInt8 || type instanceof DataTypeEnum8)
+            return 1;
+        if (type instanceof DataTypeInt16 || type instanceof DataTypeUInt16 || type instanceof DataTypeEnum16
+         || type instanceof DataTypeDate)
+            return 2;
+        if (type instanceof DataTypeInt32 || type instanceof DataTypeUInt32 || type instanceof DataTypeIPv4
+         || type instanceof DataTypeFloat32 || type instanceof DataTypeDateTime)
+            return 4;
+        if (type instanceof DataTypeInt64 || type instanceof DataTypeUInt64 || type instanceof DataTypeFloat64
+         || type instanceof DataTypeDateTime64)
+            return 8;
+        if (type instanceof DataTypeUUID)
+            return 16;
+        if (type instanceof DataTypeDecimal)
+            return ((DataTypeDecimal) type).bits() / 8;
+        if (type instanceof DataTypeFixedString)
+            return type.getPrecision();
+        // @formatter:on
+        return -1;
+    }
+
+    private final String name;
+    private final IDataType<?, ?> type;
+    private final int rows;
+    private final ColumnBytes retained;
+    private final int offset;
+    private final int length;
+    private IColumn decoded;
+
+    private LazyColumn(String name, IDataType<?, ?> type, int rows, ColumnBytes retained, int offset, int length) {
+        this.name = name;
+        this.type = type;
+        this.rows = rows;
+        this.retained = retained;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    public IColumn decode() throws SQLException {
+        if (decoded == null) {
+            try {
+                BinaryDeserializer deserializer = new BinaryDeserializer(
+                        new ByteArrayReader(retained.bytes(), offset, length), false);
+                decoded = ColumnFactory.readColumn(name, type, rows, deserializer);
+            } catch (IOException ex) {
+                throw new SQLException("Failed to decode column " + name, ex);
+            }
+        }
+        return decoded;
+    }
+
+    private IColumn decoded() {
+        try {
+            return decode();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public boolean isExported() {
+        return name != null;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public IDataType<?, ?> type() {
+        return type;
+    }
+
+    @Override
+    public Object value(int idx) {
+        return decoded().value(idx);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return decoded().isNull(idx);
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return decoded().intValue(idx);
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return decoded().longValue(idx);
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return decoded().floatValue(idx);
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return decoded().doubleValue(idx);
+    }
+
+    @Override
+    public void write(Object object) {
+        throw new UnsupportedOperationException("LazyColumn is read only");
+    }
+
+    @Override
+    public void flushToSerializer(BinarySerializer serializer, boolean now) {
+        throw new UnsupportedOperationException("LazyColumn is read only");
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void setColumnWriterBuffer(ColumnWriterBuffer buffer) {
+        throw new UnsupportedOperationException("LazyColumn is read only");
+    }
+
+    @Override
+    public ColumnWriterBuffer getColumnWriterBuffer() {
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Column read from the wire which can decode the next block of the same column into its own storage,
+ * see {@link BlockRecycler}. The storage only grows, rows beyond the row count of the block are stale.
+ */
+interface RecyclableColumn {
+
+    /**
+     * Overwrite the values of the column with {@code rows} values read from the deserializer.
+     */
+    void refill(int rows, BinaryDeserializer deserializer) throws IOException;
+
+    /**
+     * Whether the storage of the column can take the values of the next block, e.g. not for boxed values.
+     */
+    default boolean canRefill() {
+        return true;
+    }
+}
@@ -76,7 +76,8 @@ public class DataTypeDate implements IDataType<LocalDate, Date> {
 
     @Override
     public LocalDate deserializeBinary(BinaryDeserializer deserializer) throws IOException {
-        short epochDay = deserializer.readShort();
+        // UInt16 on the wire
+        int epochDay = deserializer.readShort() & 0xFFFF;
         return LocalDate.ofEpochDay(epochDay);
     }
 
@@ -60,11 +60,31 @@ public class DataTypeFloat32 implements IDataType<Float, Float> {
         serializer.writeFloat(data);
     }
 
+    @Override
+    public void serializeBinaryBulk(Float[] data, BinarySerializer serializer) throws SQLException, IOException {
+        float[] values = new float[data.length];
+        for (int i = 0; i < data.length; i++) {
+            values[i] = data[i];
+        }
+        serializer.writeFloats(values);
+    }
+
     @Override
     public Float deserializeBinary(BinaryDeserializer deserializer) throws IOException {
         return deserializer.readFloat();
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        float[] floats = new float[rows];
+        deserializer.readFloats(floats, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = floats[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"FLOAT"};
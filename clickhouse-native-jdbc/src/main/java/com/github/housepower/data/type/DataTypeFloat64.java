@@ -60,11 +60,31 @@ public class DataTypeFloat64 implements IDataType<Double, Double> {
         serializer.writeDouble(data);
     }
 
+    @Override
+    public void serializeBinaryBulk(Double[] data, BinarySerializer serializer) throws SQLException, IOException {
+        double[] values = new double[data.length];
+        for (int i = 0; i < data.length; i++) {
+            values[i] = data[i];
+        }
+        serializer.writeDoubles(values);
+    }
+
     @Override
     public Double deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
         return deserializer.readDouble();
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        double[] doubles = new double[rows];
+        deserializer.readDoubles(doubles, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = doubles[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"DOUBLE"};
@@ -65,6 +65,17 @@ public class DataTypeIPv4 implements IDataType<Long, Long> {
         return deserializer.readInt() & 0xffffffffL;
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        int[] ints = new int[rows];
+        deserializer.readInts(ints, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = ints[row] & 0xffffffffL;
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[0];
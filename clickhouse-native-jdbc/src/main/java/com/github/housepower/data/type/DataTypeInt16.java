@@ -49,11 +49,31 @@ public class DataTypeInt16 implements BaseDataTypeInt16<Short, Short> {
         serializer.writeShort(data);
     }
 
+    @Override
+    public void serializeBinaryBulk(Short[] data, BinarySerializer serializer) throws SQLException, IOException {
+        short[] values = new short[data.length];
+        for (int i = 0; i < data.length; i++) {
+            values[i] = data[i];
+        }
+        serializer.writeShorts(values);
+    }
+
     @Override
     public Short deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
         return deserializer.readShort();
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        short[] shorts = new short[rows];
+        deserializer.readShorts(shorts, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = shorts[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"SMALLINT"};
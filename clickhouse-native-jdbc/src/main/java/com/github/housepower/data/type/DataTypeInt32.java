@@ -48,11 +48,31 @@ public class DataTypeInt32 implements BaseDataTypeInt32<Integer, Integer> {
         serializer.writeInt(data);
     }
 
+    @Override
+    public void serializeBinaryBulk(Integer[] data, BinarySerializer serializer) throws SQLException, IOException {
+        int[] values = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            values[i] = data[i];
+        }
+        serializer.writeInts(values);
+    }
+
     @Override
     public Integer deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
         return deserializer.readInt();
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        int[] ints = new int[rows];
+        deserializer.readInts(ints, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = ints[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"INT", "INTEGER"};
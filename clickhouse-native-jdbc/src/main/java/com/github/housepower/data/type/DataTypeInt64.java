@@ -48,11 +48,31 @@ public class DataTypeInt64 implements BaseDataTypeInt64<Long, Long> {
         serializer.writeLong(data);
     }
 
+    @Override
+    public void serializeBinaryBulk(Long[] data, BinarySerializer serializer) throws SQLException, IOException {
+        long[] values = new long[data.length];
+        for (int i = 0; i < data.length; i++) {
+            values[i] = data[i];
+        }
+        serializer.writeLongs(values);
+    }
+
     @Override
     public Long deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
         return deserializer.readLong();
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        long[] longs = new long[rows];
+        deserializer.readLongs(longs, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = longs[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"BIGINT"};
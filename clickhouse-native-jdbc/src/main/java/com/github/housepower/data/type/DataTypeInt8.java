@@ -53,6 +53,16 @@ public class DataTypeInt8 implements BaseDataTypeInt8<Byte, Byte> {
         return deserializer.readByte();
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        byte[] bytes = deserializer.readBytes(rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = bytes[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"TINYINT"};
@@ -54,6 +54,17 @@ public class DataTypeUInt16 implements BaseDataTypeInt16<Integer, Integer> {
         return s & 0xffff;
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        short[] shorts = new short[rows];
+        deserializer.readShorts(shorts, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = shorts[row] & 0xffff;
+        }
+        return data;
+    }
+
     @Override
     public Integer deserializeText(SQLLexer lexer) throws SQLException {
         return lexer.numberLiteral().intValue();
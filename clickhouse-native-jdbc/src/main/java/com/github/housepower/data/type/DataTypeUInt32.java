@@ -54,6 +54,17 @@ public class DataTypeUInt32 implements BaseDataTypeInt32<Long, Long> {
         return 0xffffffffL & res;
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        int[] ints = new int[rows];
+        deserializer.readInts(ints, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = 0xffffffffL & ints[row];
+        }
+        return data;
+    }
+
     @Override
     public Long deserializeText(SQLLexer lexer) throws SQLException {
         return lexer.numberLiteral().longValue();
@@ -59,6 +59,17 @@ public class DataTypeUInt64 implements BaseDataTypeInt64<BigInteger, BigInteger>
         return new BigInteger(1, getBytes(l));
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        long[] longs = new long[rows];
+        deserializer.readLongs(longs, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = new BigInteger(1, getBytes(longs[row]));
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[0];
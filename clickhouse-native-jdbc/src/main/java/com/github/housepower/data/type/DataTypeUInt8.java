@@ -54,6 +54,16 @@ public class DataTypeUInt8 implements BaseDataTypeInt8<Short, Short> {
         return (short) (b & 0xff);
     }
 
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        byte[] bytes = deserializer.readBytes(rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = (short) (bytes[row] & 0xff);
+        }
+        return data;
+    }
+
     @Override
     public Short deserializeText(SQLLexer lexer) throws SQLException {
         return lexer.numberLiteral().shortValue();
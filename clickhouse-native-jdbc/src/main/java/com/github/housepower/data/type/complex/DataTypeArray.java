@@ -28,7 +28,6 @@ import java.sql.Array;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 // TODO avoid using ClickHouseArray because it's a subclass of java.sql.Array
@@ -130,6 +129,16 @@ public class DataTypeArray implements IDataType<ClickHouseArray, Array> {
         return new ClickHouseArray(elemDataType, data);
     }
 
+    @Override
+    public void serializeBinaryPrefix(BinarySerializer serializer) throws IOException {
+        getElemDataType().serializeBinaryPrefix(serializer);
+    }
+
+    @Override
+    public void deserializeBinaryPrefix(BinaryDeserializer deserializer) throws SQLException, IOException {
+        getElemDataType().deserializeBinaryPrefix(deserializer);
+    }
+
     @Override
     public ClickHouseArray[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws IOException, SQLException {
         ClickHouseArray[] arrays = new ClickHouseArray[rows];
@@ -137,7 +146,7 @@ public class DataTypeArray implements IDataType<ClickHouseArray, Array> {
             return arrays;
         }
 
-        int[] offsets = Arrays.stream(offsetIDataType.deserializeBinaryBulk(rows, deserializer)).mapToInt(value -> ((Long) value).intValue()).toArray();
+        int[] offsets = readOffsets(rows, deserializer);
         ClickHouseArray res = new ClickHouseArray(elemDataType,
                 elemDataType.deserializeBinaryBulk(offsets[rows - 1], deserializer));
 
@@ -149,6 +158,20 @@ public class DataTypeArray implements IDataType<ClickHouseArray, Array> {
         return arrays;
     }
 
+    /**
+     * Read the offsets of {@code rows} arrays, which are the accumulated element counts serialized as UInt64,
+     * the last one is the count of all elements.
+     */
+    public static int[] readOffsets(int rows, BinaryDeserializer deserializer) throws IOException {
+        long[] raw = new long[rows];
+        deserializer.readLongs(raw, rows);
+        int[] offsets = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            offsets[row] = (int) raw[row];
+        }
+        return offsets;
+    }
+
     public IDataType getElemDataType() {
         return elemDataType;
     }
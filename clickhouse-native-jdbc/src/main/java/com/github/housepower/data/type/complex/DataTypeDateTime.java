@@ -76,6 +76,10 @@ public class DataTypeDateTime implements IDataType<ZonedDateTime, Timestamp> {
         return Timestamp.class;
     }
 
+    public ZoneId getTimeZone() {
+        return tz;
+    }
+
     @Override
     public int getPrecision() {
         return 0;
@@ -112,7 +116,8 @@ public class DataTypeDateTime implements IDataType<ZonedDateTime, Timestamp> {
 
     @Override
     public ZonedDateTime deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
-        int epochSeconds = deserializer.readInt();
+        // UInt32 on the wire
+        long epochSeconds = Integer.toUnsignedLong(deserializer.readInt());
         return DateTimeUtil.toZonedDateTime(epochSeconds, 0, tz);
     }
 
@@ -99,6 +99,10 @@ public class DataTypeDateTime64 implements IDataType<ZonedDateTime, Timestamp> {
         return Timestamp.class;
     }
 
+    public ZoneId getTimeZone() {
+        return tz;
+    }
+
     @Override
     public int getPrecision() {
         return 20;
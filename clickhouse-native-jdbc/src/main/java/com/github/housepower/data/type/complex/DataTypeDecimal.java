@@ -15,7 +15,6 @@
 package com.github.housepower.data.type.complex;
 
 import com.github.housepower.data.IDataType;
-import com.github.housepower.misc.BytesHelper;
 import com.github.housepower.misc.SQLLexer;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.serde.BinaryDeserializer;
@@ -27,9 +26,19 @@ import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Locale;
 
-public class DataTypeDecimal implements IDataType<BigDecimal, BigDecimal>, BytesHelper {
+public class DataTypeDecimal implements IDataType<BigDecimal, BigDecimal> {
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
 
     public static DataTypeCreator<BigDecimal, BigDecimal> creator = (lexer, serverContext) -> {
         Validate.isTrue(lexer.character() == '(');
@@ -44,7 +53,6 @@ public class DataTypeDecimal implements IDataType<BigDecimal, BigDecimal>, Bytes
     private final String name;
     private final int precision;
     private final int scale;
-    private final BigDecimal scaleFactor;
     private final int nobits;
 
     // see https://clickhouse.tech/docs/en/sql-reference/data-types/decimal/
@@ -52,7 +60,6 @@ public class DataTypeDecimal implements IDataType<BigDecimal, BigDecimal>, Bytes
         this.name = name;
         this.precision = precision;
         this.scale = scale;
-        this.scaleFactor = BigDecimal.valueOf(Math.pow(10, scale));
         if (this.precision <= 9) {
             this.nobits = 32;
         } else if (this.precision <= 18) {
@@ -113,28 +120,19 @@ public class DataTypeDecimal implements IDataType<BigDecimal, BigDecimal>, Bytes
 
     @Override
     public void serializeBinary(BigDecimal data, BinarySerializer serializer) throws IOException {
-        BigDecimal targetValue = data.multiply(scaleFactor);
+        BigInteger unscaled = data.setScale(scale, RoundingMode.HALF_UP).unscaledValue();
         switch (this.nobits) {
             case 32: {
-                serializer.writeInt(targetValue.intValue());
+                serializer.writeInt(unscaled.intValue());
                 break;
             }
             case 64: {
-                serializer.writeLong(targetValue.longValue());
-                break;
-            }
-            case 128: {
-                BigInteger res = targetValue.toBigInteger();
-                serializer.writeLong(res.longValue());
-                serializer.writeLong(res.shiftRight(64).longValue());
+                serializer.writeLong(unscaled.longValue());
                 break;
             }
+            case 128:
             case 256: {
-                BigInteger res = targetValue.toBigInteger();
-                serializer.writeLong(targetValue.longValue());
-                serializer.writeLong(res.shiftRight(64).longValue());
-                serializer.writeLong(res.shiftRight(64 * 2).longValue());
-                serializer.writeLong(res.shiftRight(64 * 3).longValue());
+                writeWords(unscaled, nobits / 64, serializer);
                 break;
             }
             default: {
@@ -146,49 +144,100 @@ public class DataTypeDecimal implements IDataType<BigDecimal, BigDecimal>, Bytes
 
     @Override
     public BigDecimal deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
-        BigDecimal value;
         switch (this.nobits) {
             case 32: {
-                int v = deserializer.readInt();
-                value = BigDecimal.valueOf(v);
-                value = value.divide(scaleFactor, scale, RoundingMode.HALF_UP);
-                break;
+                return BigDecimal.valueOf(deserializer.readInt(), scale);
             }
             case 64: {
-                long v = deserializer.readLong();
-                value = BigDecimal.valueOf(v);
-                value = value.divide(scaleFactor, scale, RoundingMode.HALF_UP);
-                break;
+                return BigDecimal.valueOf(deserializer.readLong(), scale);
             }
-
-            case 128: {
-                long []array = new long[2];
-                array[1] = deserializer.readLong();
-                array[0] = deserializer.readLong();
-
-                value = new BigDecimal(new BigInteger(getBytes(array)));
-                value = value.divide(scaleFactor, scale, RoundingMode.HALF_UP);
-                break;
-            }
-
+            case 128:
             case 256: {
-                long []array = new long[4];
-                array[3] = deserializer.readLong();
-                array[2] = deserializer.readLong();
-                array[1] = deserializer.readLong();
-                array[0] = deserializer.readLong();
-
-                value = new BigDecimal(new BigInteger(getBytes(array)));
-                value = value.divide(scaleFactor, scale, RoundingMode.HALF_UP);
-                break;
+                return readWords(nobits / 64, deserializer);
             }
-
             default: {
                 throw new RuntimeException(String.format(Locale.ENGLISH,
                         "Unknown precision[%d] & scale[%d]", precision, scale));
             }
         }
-        return value;
+    }
+
+    /**
+     * Size of the unscaled value in bits, 32 and 64 bits decimals are kept as int and long.
+     */
+    public int bits() {
+        return nobits;
+    }
+
+    /**
+     * The decimal of the unscaled value, only for 32 and 64 bits decimals.
+     */
+    public BigDecimal fromUnscaled(long unscaled) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * The integral part of the unscaled value, truncated as {@link BigDecimal#longValue()}.
+     */
+    public long integralPart(long unscaled) {
+        return unscaled / POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * The nearest double of the unscaled value, same as {@link BigDecimal#doubleValue()}.
+     */
+    public double toDouble(long unscaled) {
+        // both are exact doubles, so that the division is correctly rounded
+        if (Math.abs(unscaled) < (1L << 53)) {
+            return unscaled / (double) POWERS_OF_TEN[scale];
+        }
+        return fromUnscaled(unscaled).doubleValue();
+    }
+
+    // words are little endian two's complement, the value of most decimals fits in the lowest word
+    private BigDecimal readWords(int words, BinaryDeserializer deserializer) throws IOException {
+        long low = deserializer.readLong();
+        boolean fitsInLong = true;
+        long[] highs = null;
+        for (int i = 1; i < words; i++) {
+            long word = deserializer.readLong();
+            if (fitsInLong && word == low >> 63) {
+                continue;
+            }
+            if (highs == null) {
+                highs = new long[words];
+                Arrays.fill(highs, 1, i, low >> 63);
+            }
+            fitsInLong = false;
+            highs[i] = word;
+        }
+        if (fitsInLong) {
+            return BigDecimal.valueOf(low, scale);
+        }
+        byte[] bytes = new byte[words * 8];
+        for (int i = 0; i < words; i++) {
+            long word = i == 0 ? low : highs[i];
+            int pos = (words - 1 - i) * 8;
+            for (int b = 7; b >= 0; b--) {
+                bytes[pos + b] = (byte) word;
+                word >>>= 8;
+            }
+        }
+        return new BigDecimal(new BigInteger(bytes), scale);
+    }
+
+    private void writeWords(BigInteger unscaled, int words, BinarySerializer serializer) throws IOException {
+        if (unscaled.bitLength() < 64) {
+            long low = unscaled.longValue();
+            serializer.writeLong(low);
+            for (int i = 1; i < words; i++) {
+                serializer.writeLong(low >> 63);
+            }
+            return;
+        }
+        for (int i = 0; i < words; i++) {
+            serializer.writeLong(unscaled.shiftRight(64 * i).longValue());
+        }
     }
 
     @Override
@@ -0,0 +1,260 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.type.complex;
+
+import com.github.housepower.data.DataTypeFactory;
+import com.github.housepower.data.IDataType;
+import com.github.housepower.misc.SQLLexer;
+import com.github.housepower.misc.Validate;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * LowCardinality(T) in native format, each block carries its own dictionary. The key version, always
+ * SharedDictionariesWithAdditionalKeys, is written in the prefix of the column, before e.g. the offsets
+ * of enclosing Array, then the data is serialized as:
+ * <pre>
+ *   UInt64 index type, the width of index and flags
+ *   UInt64 number of keys, then keys serialized as T without Nullable
+ *   UInt64 number of rows, then the index of each row into the keys
+ * </pre>
+ * The leading keys are reserved: for nullable T, key 0 stands for NULL and key 1 for the default value,
+ * otherwise key 0 is the default value.
+ */
+public class DataTypeLowCardinality implements IDataType {
+
+    public static DataTypeCreator creator = (lexer, serverContext) -> {
+        Validate.isTrue(lexer.character() == '(');
+        IDataType nestedType = DataTypeFactory.get(lexer, serverContext);
+        Validate.isTrue(lexer.character() == ')');
+        return new DataTypeLowCardinality("LowCardinality(" + nestedType.name() + ")", nestedType);
+    };
+
+    public static final long SHARED_DICTIONARIES_WITH_ADDITIONAL_KEYS = 1;
+
+    public static final int INDEX_TYPE_MASK = 0xFF;
+    public static final int NEED_GLOBAL_DICTIONARY_BIT = 1 << 8;
+    public static final int HAS_ADDITIONAL_KEYS_BIT = 1 << 9;
+    public static final int NEED_UPDATE_DICTIONARY_BIT = 1 << 10;
+
+    public static final int INDEX_UINT8 = 0;
+    public static final int INDEX_UINT16 = 1;
+    public static final int INDEX_UINT32 = 2;
+    public static final int INDEX_UINT64 = 3;
+
+    private final String name;
+    private final IDataType nestedDataType;
+    // type of dictionary keys, nested type without Nullable
+    private final IDataType keysDataType;
+
+    public DataTypeLowCardinality(String name, IDataType nestedDataType) {
+        this.name = name;
+        this.nestedDataType = nestedDataType;
+        this.keysDataType = nestedDataType instanceof DataTypeNullable
+                ? ((DataTypeNullable) nestedDataType).getNestedDataType() : nestedDataType;
+    }
+
+    public IDataType getNestedDataType() {
+        return nestedDataType;
+    }
+
+    public IDataType getKeysDataType() {
+        return keysDataType;
+    }
+
+    /**
+     * Number of leading keys reserved for NULL and the default value.
+     */
+    public int reservedKeys() {
+        return nullable() ? 2 : 1;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int sqlTypeId() {
+        return nestedDataType.sqlTypeId();
+    }
+
+    @Override
+    public Object defaultValue() {
+        return nestedDataType.defaultValue();
+    }
+
+    @Override
+    public Class javaType() {
+        return nestedDataType.javaType();
+    }
+
+    @Override
+    public Class jdbcJavaType() {
+        return nestedDataType.jdbcJavaType();
+    }
+
+    @Override
+    public boolean nullable() {
+        return nestedDataType.nullable();
+    }
+
+    @Override
+    public boolean isSigned() {
+        return nestedDataType.isSigned();
+    }
+
+    @Override
+    public int getPrecision() {
+        return nestedDataType.getPrecision();
+    }
+
+    @Override
+    public int getScale() {
+        return nestedDataType.getScale();
+    }
+
+    @Override
+    public Object deserializeText(SQLLexer lexer) throws SQLException {
+        return nestedDataType.deserializeText(lexer);
+    }
+
+    @Override
+    public void serializeBinary(Object data, BinarySerializer serializer) throws SQLException, IOException {
+        nestedDataType.serializeBinary(data, serializer);
+    }
+
+    @Override
+    public Object deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
+        return nestedDataType.deserializeBinary(deserializer);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        // zero rows are always serialized as zero bytes
+        if (rows == 0) {
+            return new Object[0];
+        }
+        int indexType = readIndexType(deserializer);
+        Object[] keys = keysDataType.deserializeBinaryBulk((int) deserializer.readLong(), deserializer);
+        int[] indexes = readIndexes(indexType, rows, deserializer);
+
+        Object[] data = new Object[rows];
+        boolean nullable = nullable();
+        for (int row = 0; row < rows; row++) {
+            data[row] = nullable && indexes[row] == 0 ? null : keys[indexes[row]];
+        }
+        return data;
+    }
+
+    @Override
+    public void serializeBinaryPrefix(BinarySerializer serializer) throws IOException {
+        serializer.writeLong(SHARED_DICTIONARIES_WITH_ADDITIONAL_KEYS);
+    }
+
+    @Override
+    public void deserializeBinaryPrefix(BinaryDeserializer deserializer) throws SQLException, IOException {
+        long version = deserializer.readLong();
+        Validate.isTrue(version == SHARED_DICTIONARIES_WITH_ADDITIONAL_KEYS,
+                "Unsupported LowCardinality key version: " + version);
+    }
+
+    /**
+     * Read the index type, returns the width of index, the number of keys follows.
+     */
+    public static int readIndexType(BinaryDeserializer deserializer) throws SQLException, IOException {
+        long indexType = deserializer.readLong();
+        Validate.isTrue((indexType & NEED_GLOBAL_DICTIONARY_BIT) == 0,
+                "LowCardinality with global dictionary is not supported");
+        Validate.isTrue((indexType & HAS_ADDITIONAL_KEYS_BIT) != 0,
+                "LowCardinality without additional keys is not supported");
+        return (int) (indexType & INDEX_TYPE_MASK);
+    }
+
+    public static int[] readIndexes(int indexType, int rows, BinaryDeserializer deserializer)
+            throws SQLException, IOException {
+        long numRows = deserializer.readLong();
+        Validate.isTrue(numRows == rows, "Expect " + rows + " rows of LowCardinality, got " + numRows);
+        int[] indexes = new int[rows];
+        switch (indexType) {
+            case INDEX_UINT8:
+                byte[] bytes = deserializer.readBytes(rows);
+                for (int i = 0; i < rows; i++) {
+                    indexes[i] = bytes[i] & 0xFF;
+                }
+                break;
+            case INDEX_UINT16:
+                short[] shorts = new short[rows];
+                deserializer.readShorts(shorts, rows);
+                for (int i = 0; i < rows; i++) {
+                    indexes[i] = shorts[i] & 0xFFFF;
+                }
+                break;
+            case INDEX_UINT32:
+                deserializer.readInts(indexes, rows);
+                break;
+            case INDEX_UINT64:
+                long[] longs = new long[rows];
+                deserializer.readLongs(longs, rows);
+                for (int i = 0; i < rows; i++) {
+                    indexes[i] = (int) longs[i];
+                }
+                break;
+            default:
+                throw new SQLException("Unknown LowCardinality index type: " + indexType);
+        }
+        return indexes;
+    }
+
+    /**
+     * Write the index type for a dictionary of {@code keys} keys, returns the width of index.
+     */
+    public static int writeIndexType(int keys, BinarySerializer serializer) throws IOException {
+        int indexType = keys <= 0xFF ? INDEX_UINT8 : keys <= 0xFFFF ? INDEX_UINT16 : INDEX_UINT32;
+        serializer.writeLong(indexType | HAS_ADDITIONAL_KEYS_BIT | NEED_UPDATE_DICTIONARY_BIT);
+        return indexType;
+    }
+
+    public static void writeIndexes(int indexType, int[] indexes, int rows, BinarySerializer serializer)
+            throws IOException {
+        serializer.writeLong(rows);
+        switch (indexType) {
+            case INDEX_UINT8:
+                byte[] bytes = new byte[rows];
+                for (int i = 0; i < rows; i++) {
+                    bytes[i] = (byte) indexes[i];
+                }
+                serializer.writeBytes(bytes);
+                break;
+            case INDEX_UINT16:
+                short[] shorts = new short[rows];
+                for (int i = 0; i < rows; i++) {
+                    shorts[i] = (short) indexes[i];
+                }
+                serializer.writeShorts(shorts);
+                break;
+            default:
+                serializer.writeInts(indexes, 0, rows);
+        }
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[0];
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.type.complex;
+
+import com.github.housepower.data.ColumnMap;
+import com.github.housepower.data.DataTypeFactory;
+import com.github.housepower.data.IDataType;
+import com.github.housepower.misc.SQLLexer;
+import com.github.housepower.misc.Validate;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Map(K, V), serialized as Array(Tuple(K, V)) without the tuple wrapping: the offsets of the rows,
+ * then all the keys, then all the values.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class DataTypeMap implements IDataType<Map, Map> {
+
+    public static DataTypeCreator<Map, Map> creator = (lexer, serverContext) -> {
+        Validate.isTrue(lexer.character() == '(');
+        IDataType<?, ?> keyDataType = DataTypeFactory.get(lexer, serverContext);
+        Validate.isTrue(lexer.character() == ',');
+        IDataType<?, ?> valueDataType = DataTypeFactory.get(lexer, serverContext);
+        Validate.isTrue(lexer.character() == ')');
+        return new DataTypeMap("Map(" + keyDataType.name() + ", " + valueDataType.name() + ")",
+                keyDataType, valueDataType);
+    };
+
+    private final String name;
+    private final IDataType keyDataType;
+    private final IDataType valueDataType;
+
+    public DataTypeMap(String name, IDataType<?, ?> keyDataType, IDataType<?, ?> valueDataType) {
+        this.name = name;
+        this.keyDataType = keyDataType;
+        this.valueDataType = valueDataType;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int sqlTypeId() {
+        return Types.OTHER;
+    }
+
+    @Override
+    public Map defaultValue() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Class<Map> javaType() {
+        return Map.class;
+    }
+
+    @Override
+    public int getPrecision() {
+        return 0;
+    }
+
+    @Override
+    public int getScale() {
+        return 0;
+    }
+
+    @Override
+    public Map deserializeText(SQLLexer lexer) throws SQLException {
+        Validate.isTrue(lexer.character() == '{');
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (; ; ) {
+            if (lexer.isCharacter('}')) {
+                lexer.character();
+                break;
+            }
+            if (lexer.isCharacter(',')) {
+                lexer.character();
+            }
+            Object key = keyDataType.deserializeText(lexer);
+            // String literals are views of the query, which are not comparable with each other
+            if (key instanceof CharSequence) {
+                key = key.toString();
+            }
+            Validate.isTrue(lexer.character() == ':');
+            map.put(key, valueDataType.deserializeText(lexer));
+        }
+        return map;
+    }
+
+    @Override
+    public void serializeBinary(Map data, BinarySerializer serializer) throws SQLException, IOException {
+        for (Object key : data.keySet()) {
+            keyDataType.serializeBinary(key, serializer);
+        }
+        for (Object value : data.values()) {
+            valueDataType.serializeBinary(value, serializer);
+        }
+    }
+
+    @Override
+    public Map deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
+        return (Map) ColumnMap.readFrom(null, this, 1, deserializer).value(0);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        ColumnMap column = ColumnMap.readFrom(null, this, rows, deserializer);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = column.value(row);
+        }
+        return data;
+    }
+
+    @Override
+    public void serializeBinaryPrefix(BinarySerializer serializer) throws IOException {
+        keyDataType.serializeBinaryPrefix(serializer);
+        valueDataType.serializeBinaryPrefix(serializer);
+    }
+
+    @Override
+    public void deserializeBinaryPrefix(BinaryDeserializer deserializer) throws SQLException, IOException {
+        keyDataType.deserializeBinaryPrefix(deserializer);
+        valueDataType.deserializeBinaryPrefix(deserializer);
+    }
+
+    public IDataType getKeyDataType() {
+        return keyDataType;
+    }
+
+    public IDataType getValueDataType() {
+        return valueDataType;
+    }
+}
@@ -128,6 +128,16 @@ public class DataTypeNullable implements IDataType {
         return this.nestedDataType.deserializeBinary(deserializer);
     }
 
+    @Override
+    public void serializeBinaryPrefix(BinarySerializer serializer) throws IOException {
+        nestedDataType.serializeBinaryPrefix(serializer);
+    }
+
+    @Override
+    public void deserializeBinaryPrefix(BinaryDeserializer deserializer) throws SQLException, IOException {
+        nestedDataType.deserializeBinaryPrefix(deserializer);
+    }
+
     @Override
     public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
         Object[] nullMap = nullMapDataType.deserializeBinaryBulk(rows, deserializer);
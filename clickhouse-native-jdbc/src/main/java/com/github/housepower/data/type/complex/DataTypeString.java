@@ -35,6 +35,10 @@ public class DataTypeString implements IDataType<CharSequence, String> {
         this.charset = charset;
     }
 
+    public Charset charset() {
+        return charset;
+    }
+
     @Override
     public String name() {
         return "String";
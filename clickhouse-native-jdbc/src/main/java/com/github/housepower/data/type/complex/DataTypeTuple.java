@@ -125,6 +125,20 @@ public class DataTypeTuple implements IDataType<ClickHouseStruct, Struct> {
         return new ClickHouseStruct("Tuple", attrs);
     }
 
+    @Override
+    public void serializeBinaryPrefix(BinarySerializer serializer) throws IOException {
+        for (IDataType<?, ?> type : getNestedTypes()) {
+            type.serializeBinaryPrefix(serializer);
+        }
+    }
+
+    @Override
+    public void deserializeBinaryPrefix(BinaryDeserializer deserializer) throws SQLException, IOException {
+        for (IDataType<?, ?> type : getNestedTypes()) {
+            type.deserializeBinaryPrefix(deserializer);
+        }
+    }
+
     @Override
     public ClickHouseStruct[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
         Object[][] rowsWithElems = getRowsWithElems(rows, deserializer);
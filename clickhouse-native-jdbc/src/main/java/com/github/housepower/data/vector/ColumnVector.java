@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.vector;
+
+import com.github.housepower.data.ColumnNullable;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.misc.Validate;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+
+/**
+ * Typed view of a column of one block, the values are accessed as a primitive array instead of per cell.
+ * <p>
+ * The arrays are shared with the block whenever the storage matches, they may be longer than {@link #rowCount()}
+ * and are only valid until the block is released, see {@link com.github.housepower.stream.BlockStream}.
+ */
+public abstract class ColumnVector {
+
+    private final String name;
+    private final int rowCount;
+    @Nullable
+    private final byte[] nullMap;
+
+    ColumnVector(String name, int rowCount, @Nullable byte[] nullMap) {
+        this.name = name;
+        this.rowCount = rowCount;
+        this.nullMap = nullMap;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * The null map of a Nullable column, one byte per row and non-zero for null, absent if the column is not
+     * Nullable. The values of null rows are the default value of the type.
+     */
+    @Nullable
+    public byte[] nullMap() {
+        return nullMap;
+    }
+
+    public boolean isNull(int row) {
+        return nullMap != null && nullMap[row] != 0;
+    }
+
+    @Nullable
+    static byte[] nullMapOf(IColumn column) {
+        return column instanceof ColumnNullable ? ((ColumnNullable) column).nullMap() : null;
+    }
+
+    static IColumn valuesOf(IColumn column, String vector) throws SQLException {
+        if (!(column instanceof ColumnNullable)) {
+            return column;
+        }
+        ColumnNullable nullable = (ColumnNullable) column;
+        Validate.isTrue(nullable.nullMap() != null, unsupported(column, vector));
+        return nullable.nestedColumn();
+    }
+
+    static String unsupported(IColumn column, String vector) {
+        return "Column " + column.name() + " of type " + column.type().name() + " can not be read as " + vector;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.vector;
+
+import com.github.housepower.data.*;
+import com.github.housepower.misc.Validate;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+
+/**
+ * Floating point, decimal and integer columns as {@code double} values. Float64 is shared with the block,
+ * the others are converted.
+ */
+public final class DoubleVector extends ColumnVector {
+
+    static DoubleVector of(IColumn column, int rows) throws SQLException {
+        IColumn data = valuesOf(column, "DoubleVector");
+        if (data instanceof ColumnDouble) {
+            return new DoubleVector(column.name(), rows, nullMapOf(column), ((ColumnDouble) data).data());
+        }
+        Validate.isTrue(data instanceof ColumnFloat || data instanceof ColumnDecimal || data instanceof ColumnLong
+                || data instanceof ColumnInt || data instanceof ColumnShort || data instanceof ColumnByte,
+                unsupported(column, "DoubleVector"));
+        double[] values = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            values[row] = data.doubleValue(row);
+        }
+        return new DoubleVector(column.name(), rows, nullMapOf(column), values);
+    }
+
+    private final double[] values;
+
+    private DoubleVector(String name, int rowCount, @Nullable byte[] nullMap, double[] values) {
+        super(name, rowCount, nullMap);
+        this.values = values;
+    }
+
+    public double[] values() {
+        return values;
+    }
+
+    public double get(int row) {
+        return values[row];
+    }
+}
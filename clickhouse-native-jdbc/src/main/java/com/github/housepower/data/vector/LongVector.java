@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.vector;
+
+import com.github.housepower.data.*;
+import com.github.housepower.misc.Validate;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+
+/**
+ * Integer and temporal columns as {@code long} values. Int64 is shared with the block, narrower integers are
+ * widened, UInt64 keeps the raw bits. Date, DateTime and DateTime64 are epoch milliseconds.
+ */
+public final class LongVector extends ColumnVector {
+
+    static LongVector of(IColumn column, int rows) throws SQLException {
+        IColumn data = valuesOf(column, "LongVector");
+        if (data instanceof ColumnLong) {
+            return new LongVector(column.name(), rows, nullMapOf(column), ((ColumnLong) data).data());
+        }
+        Validate.isTrue(data instanceof ColumnInt || data instanceof ColumnShort || data instanceof ColumnByte
+                || data instanceof ColumnTemporal || data instanceof ColumnDate, unsupported(column, "LongVector"));
+        long[] values = new long[rows];
+        for (int row = 0; row < rows; row++) {
+            values[row] = data.longValue(row);
+        }
+        return new LongVector(column.name(), rows, nullMapOf(column), values);
+    }
+
+    private final long[] values;
+
+    private LongVector(String name, int rowCount, @Nullable byte[] nullMap, long[] values) {
+        super(name, rowCount, nullMap);
+        this.values = values;
+    }
+
+    public long[] values() {
+        return values;
+    }
+
+    public long get(int row) {
+        return values[row];
+    }
+}
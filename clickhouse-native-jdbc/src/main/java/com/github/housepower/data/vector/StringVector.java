@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.vector;
+
+import com.github.housepower.data.ColumnString;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.misc.Validate;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+
+/**
+ * String columns as the raw bytes shared with the block, row {@code i} spans {@code [offsets()[i], offsets()[i + 1])}
+ * of {@link #bytes()}. Strings are decoded by {@link #get(int)} only.
+ */
+public final class StringVector extends ColumnVector {
+
+    static StringVector of(IColumn column, int rows) throws SQLException {
+        IColumn data = valuesOf(column, "StringVector");
+        Validate.isTrue(data instanceof ColumnString, unsupported(column, "StringVector"));
+        return new StringVector(column.name(), rows, nullMapOf(column), (ColumnString) data);
+    }
+
+    private final ColumnString column;
+
+    private StringVector(String name, int rowCount, @Nullable byte[] nullMap, ColumnString column) {
+        super(name, rowCount, nullMap);
+        this.column = column;
+    }
+
+    public byte[] bytes() {
+        return column.arena();
+    }
+
+    public int[] offsets() {
+        return column.offsets();
+    }
+
+    public int byteLength(int row) {
+        return column.byteLength(row);
+    }
+
+    @Nullable
+    public String get(int row) {
+        return isNull(row) ? null : (String) column.value(row);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.vector;
+
+import com.github.housepower.data.Block;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.data.IDataType;
+
+import java.sql.SQLException;
+
+/**
+ * Columnar view of a block read from the wire, columns are indexed from 0.
+ */
+public final class VectorBlock {
+
+    private final Block block;
+
+    public VectorBlock(Block block) {
+        this.block = block;
+    }
+
+    public int rowCount() {
+        return block.rowCnt();
+    }
+
+    public int columnCount() {
+        return block.columnCnt();
+    }
+
+    public int position(String name) throws SQLException {
+        return block.getPositionByName(name) - 1;
+    }
+
+    public String name(int idx) throws SQLException {
+        return block.getColumn(idx).name();
+    }
+
+    public IDataType<?, ?> type(int idx) throws SQLException {
+        return block.getColumn(idx).type();
+    }
+
+    public IColumn column(int idx) throws SQLException {
+        return block.getColumn(idx);
+    }
+
+    public LongVector longVector(int idx) throws SQLException {
+        return LongVector.of(block.getColumn(idx), block.rowCnt());
+    }
+
+    public DoubleVector doubleVector(int idx) throws SQLException {
+        return DoubleVector.of(block.getColumn(idx), block.rowCnt());
+    }
+
+    public StringVector stringVector(int idx) throws SQLException {
+        return StringVector.of(block.getColumn(idx), block.rowCnt());
+    }
+
+    public Block block() {
+        return block;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc;
+
+import com.github.housepower.log.Logger;
+import com.github.housepower.log.LoggerFactory;
+import com.github.housepower.misc.Validate;
+import com.github.housepower.settings.ClickHouseConfig;
+import com.github.housepower.settings.ClickHouseDefines;
+
+import javax.annotation.Nullable;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffer the rows inserted by many threads and send them in large blocks, so that a flood of tiny inserts turns
+ * into a few large ones, each paying the sample block round trip once and creating one part on the server.
+ * <p>
+ * Rows are staged per table and column list, see {@link #target(String, String...)}, in stripes picked by the
+ * inserting thread. A background thread sends the staged rows of a target on a dedicated connection once they
+ * reach {@code maxRows}, the others every {@code flushInterval}, and all of them when the buffer is closed.
+ * A row whose values don't fit the columns is dropped on its own, the rows of an insert failed by the server are
+ * dropped together, their acknowledgements complete exceptionally. A target stages at most {@code maxPendingRows},
+ * rows added beyond that are rejected until the flusher catches up.
+ */
+public class AsyncInsertBuffer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncInsertBuffer.class);
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final ClickHouseConfig cfg;
+    private final int maxRows;
+    private final int maxPendingRows;
+    private final long flushIntervalNanos;
+    private final int stripes;
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private final Thread flusher;
+
+    // guarded by this
+    private boolean flushRequested;
+    private volatile boolean closed;
+    // only accessed by the flusher thread
+    @Nullable
+    private ClickHouseConnection connection;
+
+    private AsyncInsertBuffer(ClickHouseConfig cfg, int maxRows, int maxPendingRows, Duration flushInterval,
+                              int stripes) {
+        // a flush is sent as one block, so that the rows written before a bad row can be taken back
+        this.cfg = cfg.withInsertFlush(0, 0);
+        this.maxRows = maxRows;
+        this.maxPendingRows = maxPendingRows;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.stripes = stripes;
+        this.flusher = new Thread(this::run, "clickhouse-async-insert-" + THREAD_ID.incrementAndGet());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * The staging area of the rows inserted into the columns of the table, the same target is returned for the
+     * same table and columns.
+     */
+    public Target target(String table, String... columns) {
+        Validate.ensure(columns.length > 0, "Require the columns to insert into " + table);
+        StringJoiner names = new StringJoiner(", ", "INSERT INTO " + table + " (", ")");
+        StringJoiner params = new StringJoiner(", ", " VALUES (", ")");
+        for (String column : columns) {
+            names.add(column);
+            params.add("?");
+        }
+        String insertQuery = names + params.toString();
+        Target target = targets.computeIfAbsent(insertQuery, query -> new Target(query, columns.length, stripes));
+        if (closed) {
+            // the target may be created after the buffer is closed
+            target.close();
+        }
+        return target;
+    }
+
+    /**
+     * Send the staged rows and close the dedicated connection, rows can't be added any more.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closeTargets();
+        wakeUp();
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while flushing the async insert buffer", ex);
+        }
+    }
+
+    private void closeTargets() {
+        closed = true;
+        for (Target target : targets.values()) {
+            target.close();
+        }
+    }
+
+    private synchronized void wakeUp() {
+        flushRequested = true;
+        notifyAll();
+    }
+
+    private void run() {
+        long nextTimedFlush = System.nanoTime() + flushIntervalNanos;
+        while (!closed) {
+            synchronized (this) {
+                long waitNanos = nextTimedFlush - System.nanoTime();
+                while (!flushRequested && waitNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                    } catch (InterruptedException ex) {
+                        LOG.warn("async insert flusher is interrupted, flush the staged rows and stop");
+                        closeTargets();
+                        break;
+                    }
+                    waitNanos = nextTimedFlush - System.nanoTime();
+                }
+                flushRequested = false;
+            }
+            boolean timed = System.nanoTime() - nextTimedFlush >= 0;
+            if (timed) {
+                nextTimedFlush = System.nanoTime() + flushIntervalNanos;
+            }
+            for (Target target : targets.values()) {
+                if (timed || target.pendingRows.get() >= maxRows) {
+                    flush(target);
+                }
+            }
+        }
+        // the targets are closed, the staged rows are final
+        for (Target target : targets.values()) {
+            flush(target);
+        }
+        closeConnection();
+    }
+
+    private void flush(Target target) {
+        List<Object[]> rows = new ArrayList<>();
+        List<CompletableFuture<Void>> acks = new ArrayList<>();
+        target.drainTo(rows, acks);
+        if (rows.isEmpty()) {
+            return;
+        }
+        // the rows before start are inserted or dropped
+        int start = 0;
+        try {
+            if (connection == null) {
+                connection = ClickHouseConnection.createClickHouseConnection(cfg);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(target.insertQuery)) {
+                for (int row = 0; row < rows.size(); row++) {
+                    try {
+                        setParameters(statement, rows.get(row));
+                    } catch (SQLException | RuntimeException ex) {
+                        // the values are only staged, the rows added are intact
+                        drop(target, rows, acks, row, ex);
+                        continue;
+                    }
+                    try {
+                        statement.addBatch();
+                    } catch (SQLException | RuntimeException ex) {
+                        // the row may be written in part, add the rows before it again and insert them on their
+                        // own, so that each row is added twice at most however many rows are bad
+                        drop(target, rows, acks, row, ex);
+                        statement.clearBatch();
+                        for (int i = start; i < row; i++) {
+                            if (rows.get(i) != null) {
+                                setParameters(statement, rows.get(i));
+                                statement.addBatch();
+                            }
+                        }
+                        statement.executeBatch();
+                        complete(acks, start, row);
+                        start = row + 1;
+                    }
+                }
+                if (start < rows.size()) {
+                    statement.executeBatch();
+                    complete(acks, start, rows.size());
+                }
+            }
+        } catch (SQLException | RuntimeException ex) {
+            LOG.warn("drop {} rows of failed async insert [{}]: {}", rows.size() - start, target.insertQuery,
+                    ex.getMessage());
+            for (int i = start; i < acks.size(); i++) {
+                if (acks.get(i) != null) {
+                    acks.get(i).completeExceptionally(ex);
+                }
+            }
+            // the connection may be in the middle of the insert, start over with a new one
+            closeConnection();
+        }
+    }
+
+    private static void setParameters(PreparedStatement statement, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            statement.setObject(i + 1, row[i]);
+        }
+    }
+
+    private static void drop(Target target, List<Object[]> rows, List<CompletableFuture<Void>> acks, int row,
+                             Exception ex) {
+        rows.set(row, null);
+        CompletableFuture<Void> ack = acks.get(row);
+        if (ack != null) {
+            ack.completeExceptionally(ex);
+        } else {
+            LOG.warn("drop row of async insert [{}]: {}", target.insertQuery, ex.getMessage());
+        }
+    }
+
+    private static void complete(List<CompletableFuture<Void>> acks, int from, int to) {
+        for (int i = from; i < to; i++) {
+            // the acknowledgements of dropped rows are completed already
+            if (acks.get(i) != null) {
+                acks.get(i).complete(null);
+            }
+        }
+    }
+
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            LOG.debug("failed to close async insert connection: {}", ex.getMessage());
+        }
+        connection = null;
+    }
+
+    /**
+     * Rows staged for the columns of a table, rows can be added by any thread.
+     */
+    public final class Target {
+
+        private final String insertQuery;
+        private final int columnCnt;
+        private final Stripe[] stripes;
+        private final AtomicInteger pendingRows = new AtomicInteger();
+
+        private Target(String insertQuery, int columnCnt, int stripeCnt) {
+            this.insertQuery = insertQuery;
+            this.columnCnt = columnCnt;
+            this.stripes = new Stripe[stripeCnt];
+            for (int i = 0; i < stripeCnt; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        /**
+         * Stage the values of a row, in the order of the columns of the target. The array is kept until the row
+         * is sent, don't modify it.
+         *
+         * @throws com.github.housepower.exception.InvalidValueException if the buffer is closed or the target
+         *         already stages {@code maxPendingRows}
+         */
+        public void add(Object... values) {
+            offer(values, null);
+        }
+
+        /**
+         * Stage the values of a row like {@link #add(Object...)}, the returned future completes once the block of
+         * the row is inserted.
+         */
+        public CompletableFuture<Void> addWithAck(Object... values) {
+            CompletableFuture<Void> ack = new CompletableFuture<>();
+            offer(values, ack);
+            return ack;
+        }
+
+        private void offer(Object[] values, @Nullable CompletableFuture<Void> ack) {
+            Validate.ensure(values.length == columnCnt,
+                    "Require " + columnCnt + " values for [" + insertQuery + "], but found " + values.length);
+            Stripe stripe = stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+            // reserve the row first, so that concurrent adds can't overshoot the limit
+            int pending = pendingRows.incrementAndGet();
+            try {
+                Validate.ensure(pending <= maxPendingRows,
+                        "Too many rows staged for [" + insertQuery + "], the limit is " + maxPendingRows);
+                synchronized (stripe) {
+                    Validate.ensure(!stripe.closed, "AsyncInsertBuffer is closed");
+                    stripe.rows.add(values);
+                    stripe.acks.add(ack);
+                }
+            } catch (RuntimeException ex) {
+                pendingRows.decrementAndGet();
+                throw ex;
+            }
+            if (pending == maxRows) {
+                wakeUp();
+            }
+        }
+
+        private void drainTo(List<Object[]> rows, List<CompletableFuture<Void>> acks) {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    rows.addAll(stripe.rows);
+                    acks.addAll(stripe.acks);
+                    stripe.rows.clear();
+                    stripe.acks.clear();
+                }
+            }
+            pendingRows.addAndGet(-rows.size());
+        }
+
+        private void close() {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.closed = true;
+                }
+            }
+        }
+    }
+
+    private static final class Stripe {
+        // guarded by this, the acknowledgement of each row, null if the row is added without
+        private final List<Object[]> rows = new ArrayList<>();
+        private final List<CompletableFuture<Void>> acks = new ArrayList<>();
+        private boolean closed;
+    }
+
+    public static final class Builder {
+        private final ClickHouseConfig cfg;
+        private int maxRows = (int) ClickHouseDefines.DEFAULT_INSERT_FLUSH_ROWS;
+        // 4 times maxRows unless set
+        private int maxPendingRows = -1;
+        private Duration flushInterval = Duration.ofSeconds(1);
+        private int stripes = Runtime.getRuntime().availableProcessors();
+
+        private Builder(ClickHouseConfig cfg) {
+            this.cfg = cfg;
+        }
+
+        /**
+         * The dedicated connection is opened with {@code cfg}.
+         */
+        public static Builder builder(ClickHouseConfig cfg) {
+            return new Builder(cfg);
+        }
+
+        public Builder maxRows(int maxRows) {
+            this.maxRows = maxRows;
+            return this;
+        }
+
+        /**
+         * The rows a target stages at most, must be at least {@code maxRows}, 4 times {@code maxRows} by default.
+         */
+        public Builder maxPendingRows(int maxPendingRows) {
+            this.maxPendingRows = maxPendingRows;
+            return this;
+        }
+
+        public Builder flushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        public Builder stripes(int stripes) {
+            this.stripes = stripes;
+            return this;
+        }
+
+        public AsyncInsertBuffer build() {
+            Validate.ensure(maxRows > 0, "maxRows must be positive");
+            Validate.ensure(!flushInterval.isNegative() && !flushInterval.isZero(), "flushInterval must be positive");
+            Validate.ensure(stripes > 0, "stripes must be positive");
+            int pendingLimit = maxPendingRows < 0 ? (int) Math.min(Integer.MAX_VALUE, 4L * maxRows) : maxPendingRows;
+            Validate.ensure(pendingLimit >= maxRows, "maxPendingRows must be at least maxRows");
+            return new AsyncInsertBuffer(cfg, maxRows, pendingLimit, flushInterval, stripes);
+        }
+    }
+}
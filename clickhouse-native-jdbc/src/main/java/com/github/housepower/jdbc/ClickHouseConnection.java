@@ -32,6 +32,7 @@ import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
 import java.net.InetSocketAddress;
 import java.sql.*;
 import java.time.Duration;
@@ -41,6 +42,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
@@ -56,11 +61,14 @@ public class ClickHouseConnection implements SQLConnection {
     // TODO move to NativeClient
     private final AtomicReference<SessionState> state = new AtomicReference<>(SessionState.IDLE);
     private volatile NativeContext nativeCtx;
+    @Nullable
+    private final ScheduledFuture<?> keepAliveTask;
 
     protected ClickHouseConnection(ClickHouseConfig cfg, NativeContext nativeCtx) {
         this.isClosed = new AtomicBoolean(false);
         this.cfg = new AtomicReference<>(cfg);
         this.nativeCtx = nativeCtx;
+        this.keepAliveTask = KeepAliveScheduler.schedule(this, cfg.keepAliveInterval());
     }
 
     public ClickHouseConfig cfg() {
@@ -136,6 +144,9 @@ public class ClickHouseConnection implements SQLConnection {
     @Override
     public void close() throws SQLException {
         if (!isClosed() && isClosed.compareAndSet(false, true)) {
+            if (keepAliveTask != null) {
+                keepAliveTask.cancel(false);
+            }
             NativeClient nativeClient = nativeCtx.nativeClient();
             nativeClient.disconnect();
         }
@@ -257,23 +268,41 @@ public class ClickHouseConnection implements SQLConnection {
     }
 
     public Block getSampleBlock(final String insertQuery) throws SQLException {
-        NativeClient nativeClient = getHealthyNativeClient();
-        nativeClient.sendQuery(insertQuery, nativeCtx.clientCtx(), cfg.get().settings());
+        NativeClient nativeClient = sendQueryOnHealthyNativeClient(insertQuery, cfg.get());
         Validate.isTrue(this.state.compareAndSet(SessionState.IDLE, SessionState.WAITING_INSERT),
                 "Connection is currently waiting for an insert operation, check your previous InsertStatement.");
         return nativeClient.receiveSampleBlock(cfg.get().queryTimeout(), nativeCtx.serverCtx());
     }
 
     public QueryResult sendQueryRequest(final String query, ClickHouseConfig cfg) throws SQLException {
+        return sendQueryRequest(query, cfg, 0);
+    }
+
+    // fetchSize only takes effect in result prefetch mode, where it's the max rows read ahead of consumer
+    public QueryResult sendQueryRequest(final String query, ClickHouseConfig cfg, int fetchSize) throws SQLException {
         Validate.isTrue(this.state.get() == SessionState.IDLE,
                 "Connection is currently waiting for an insert operation, check your previous InsertStatement.");
-        NativeClient nativeClient = getHealthyNativeClient();
-        nativeClient.sendQuery(query, nativeCtx.clientCtx(), cfg.settings());
+        NativeClient nativeClient = sendQueryOnHealthyNativeClient(query, cfg);
+        if (cfg.resultPrefetch()) {
+            int prefetchRows = fetchSize > 0 ? fetchSize : ClickHouseDefines.DEFAULT_PREFETCH_ROWS;
+            return nativeClient.receiveQuery(cfg.queryTimeout(), nativeCtx.serverCtx(), prefetchRows);
+        }
         return nativeClient.receiveQuery(cfg.queryTimeout(), nativeCtx.serverCtx());
     }
     // when sendInsertRequest we must ensure the connection is healthy
     // the #getSampleBlock() must be called before this method
 
+    /**
+     * Send the block as a part of the insert data, the insert goes on until {@link #sendInsertRequest(Block)}
+     * sends the last block and the end of data.
+     */
+    public int sendInsertData(Block block) throws SQLException {
+        Validate.isTrue(this.state.get() == SessionState.WAITING_INSERT, "Call getSampleBlock before insert.");
+
+        getNativeClient().sendData(block);
+        return block.rowCnt();
+    }
+
     public int sendInsertRequest(Block block) throws SQLException {
         Validate.isTrue(this.state.get() == SessionState.WAITING_INSERT, "Call getSampleBlock before insert.");
 
@@ -285,37 +314,116 @@ public class ClickHouseConnection implements SQLConnection {
         return block.rowCnt();
     }
 
+    /**
+     * Send the query on a healthy connection. If the connection turns out to be dead on the first write,
+     * nothing has reached the server yet, so we reconnect and send it again, only once.
+     */
+    synchronized private NativeClient sendQueryOnHealthyNativeClient(String query, ClickHouseConfig cfg) throws SQLException {
+        NativeClient nativeClient = getHealthyNativeClient();
+        try {
+            nativeClient.sendQuery(query, nativeCtx.clientCtx(), cfg.settings());
+            return nativeClient;
+        } catch (SQLException ex) {
+            if (!nativeClient.isBroken() || state.get() != SessionState.IDLE) {
+                throw ex;
+            }
+            LOG.warn("connection loss on sending query, reconnect and retry: {}", ex.getMessage());
+            nativeClient = reconnect();
+            nativeClient.sendQuery(query, nativeCtx.clientCtx(), cfg.settings());
+            return nativeClient;
+        }
+    }
+
+    // the connection is only validated when it's known broken or has been idle for a while,
+    // the steady state of issuing queries back to back costs no extra round trip
     synchronized private NativeClient getHealthyNativeClient() throws SQLException {
-        NativeContext oldCtx = nativeCtx;
-        if (!oldCtx.nativeClient().ping(cfg.get().queryTimeout(), nativeCtx.serverCtx())) {
+        NativeClient nativeClient = nativeCtx.nativeClient();
+        if (nativeClient.isBroken() || !validate(nativeClient)) {
             LOG.warn("connection loss with state[{}], create new connection and reset state", state);
-            nativeCtx = createNativeContext(cfg.get());
-            state.set(SessionState.IDLE);
-            oldCtx.nativeClient().silentDisconnect();
+            return reconnect();
+        }
+        return nativeClient;
+    }
+
+    private boolean validate(NativeClient nativeClient) {
+        if (state.get() != SessionState.IDLE) {
+            return true;
+        }
+        if (nativeClient.hasPendingResponses()) {
+            return nativeClient.drainPendingResponses(cfg.get().queryTimeout(), nativeCtx.serverCtx());
         }
+        if (nativeClient.idleTime().compareTo(cfg.get().validateAfterInactivity()) >= 0) {
+            return nativeClient.ping(cfg.get().queryTimeout(), nativeCtx.serverCtx());
+        }
+        return true;
+    }
 
+    synchronized private NativeClient reconnect() throws SQLException {
+        NativeContext oldCtx = nativeCtx;
+        nativeCtx = createNativeContext(cfg.get());
+        state.set(SessionState.IDLE);
+        oldCtx.nativeClient().silentDisconnect();
         return nativeCtx.nativeClient();
     }
 
+    // invoked by the KeepAliveScheduler, skip if the connection is in use or was active recently
+    synchronized private void keepAlive(Duration interval) {
+        if (isClosed.get() || state.get() != SessionState.IDLE)
+            return;
+        NativeClient nativeClient = nativeCtx.nativeClient();
+        if (nativeClient.isBroken() || nativeClient.hasPendingResponses())
+            return;
+        if (nativeClient.idleTime().compareTo(interval) < 0)
+            return;
+        if (!nativeClient.ping(interval, nativeCtx.serverCtx())) {
+            LOG.debug("keep alive ping failed, connection will be recreated on next use");
+        }
+    }
+
     private NativeClient getNativeClient() {
         return nativeCtx.nativeClient();
     }
 
+    private static final class KeepAliveScheduler {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "clickhouse-keep-alive");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        @Nullable
+        static ScheduledFuture<?> schedule(ClickHouseConnection connection, Duration interval) {
+            if (interval.isZero())
+                return null;
+            // hold the connection weakly, so that the abandoned but unclosed connection can still be collected
+            WeakReference<ClickHouseConnection> ref = new WeakReference<>(connection);
+            long millis = interval.toMillis();
+            return EXECUTOR.scheduleWithFixedDelay(() -> {
+                ClickHouseConnection conn = ref.get();
+                if (conn == null)
+                    throw new IllegalStateException("connection has been collected, cancel keep alive");
+                conn.keepAlive(interval);
+            }, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
     public static ClickHouseConnection createClickHouseConnection(ClickHouseConfig configure) throws SQLException {
         return new ClickHouseConnection(configure, createNativeContext(configure));
     }
 
     private static NativeContext createNativeContext(ClickHouseConfig configure) throws SQLException {
         NativeClient nativeClient = NativeClient.connect(configure);
-        return new NativeContext(clientContext(nativeClient, configure), serverContext(nativeClient, configure), nativeClient);
+        NativeContext.ServerContext serverContext = serverContext(nativeClient, configure);
+        return new NativeContext(clientContext(nativeClient, serverContext), serverContext, nativeClient);
     }
 
-    private static NativeContext.ClientContext clientContext(NativeClient nativeClient, ClickHouseConfig configure) throws SQLException {
+    private static NativeContext.ClientContext clientContext(NativeClient nativeClient, NativeContext.ServerContext serverContext) throws SQLException {
         Validate.isTrue(nativeClient.address() instanceof InetSocketAddress);
         InetSocketAddress address = (InetSocketAddress) nativeClient.address();
         String clientName = String.format(Locale.ROOT, "%s %s", ClickHouseDefines.NAME, "client");
         String initialAddress = "[::ffff:127.0.0.1]:0";
-        return new NativeContext.ClientContext(initialAddress, address.getHostName(), clientName);
+        return new NativeContext.ClientContext(initialAddress, address.getHostName(), clientName, serverContext.reversion());
     }
 
     private static NativeContext.ServerContext serverContext(NativeClient nativeClient, ClickHouseConfig configure) throws SQLException {
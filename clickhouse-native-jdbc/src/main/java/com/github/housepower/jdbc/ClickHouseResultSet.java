@@ -15,6 +15,11 @@
 package com.github.housepower.jdbc;
 
 import com.github.housepower.data.Block;
+import com.github.housepower.data.ColumnDate;
+import com.github.housepower.data.ColumnLowCardinality;
+import com.github.housepower.data.ColumnNullable;
+import com.github.housepower.data.ColumnString;
+import com.github.housepower.data.ColumnTemporal;
 import com.github.housepower.data.IColumn;
 import com.github.housepower.exception.ClickHouseSQLException;
 import com.github.housepower.jdbc.statement.ClickHouseStatement;
@@ -26,13 +31,19 @@ import com.github.housepower.misc.DateTimeUtil;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.protocol.DataResponse;
 import com.github.housepower.settings.ClickHouseConfig;
+import com.github.housepower.stream.BlockStream;
+import com.github.housepower.stream.QueryResult;
 import io.netty.util.AsciiString;
 
+import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
 import java.util.Calendar;
 
@@ -53,6 +64,9 @@ public class ClickHouseResultSet implements SQLResultSet {
     private final String table;
     private final Block header;
     private final CheckedIterator<DataResponse, SQLException> dataResponses;
+    // receives the blocks the consumer has advanced past, absent if the blocks are not read from a query result
+    @Nullable
+    private final QueryResult result;
 
     private boolean isFirst = false;
     private boolean isAfterLast = false;
@@ -64,12 +78,31 @@ public class ClickHouseResultSet implements SQLResultSet {
                                String table,
                                Block header,
                                CheckedIterator<DataResponse, SQLException> dataResponses) {
+        this(statement, cfg, db, table, header, dataResponses, null);
+    }
+
+    public ClickHouseResultSet(ClickHouseStatement statement,
+                               ClickHouseConfig cfg,
+                               String db,
+                               String table,
+                               QueryResult result) throws SQLException {
+        this(statement, cfg, db, table, result.header(), result.data(), result);
+    }
+
+    private ClickHouseResultSet(ClickHouseStatement statement,
+                                ClickHouseConfig cfg,
+                                String db,
+                                String table,
+                                Block header,
+                                CheckedIterator<DataResponse, SQLException> dataResponses,
+                                @Nullable QueryResult result) {
         this.statement = statement;
         this.cfg = cfg;
         this.db = db;
         this.table = table;
         this.header = header;
         this.dataResponses = dataResponses;
+        this.result = result;
     }
 
     @Override
@@ -154,75 +187,78 @@ public class ClickHouseResultSet implements SQLResultSet {
 
     @Override
     public boolean getBoolean(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return false;
         }
-        Number ndata = (Number) data;
-        return (ndata.shortValue() != 0);
+        return (short) column.intValue(currentRowNum) != 0;
     }
 
     @Override
     public byte getByte(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return 0;
         }
-        return ((Number) data).byteValue();
+        return (byte) column.intValue(currentRowNum);
     }
 
     @Override
     public short getShort(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return 0;
         }
-        return ((Number) data).shortValue();
+        return (short) column.intValue(currentRowNum);
     }
 
     @Override
     public int getInt(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return 0;
         }
-        return ((Number) data).intValue();
+        return column.intValue(currentRowNum);
     }
 
     @Override
     public long getLong(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return 0;
         }
-        return ((Number) data).longValue();
+        return column.longValue(currentRowNum);
     }
 
     @Override
     public float getFloat(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return 0;
         }
-        return ((Number) data).floatValue();
+        return column.floatValue(currentRowNum);
     }
 
     @Override
     public double getDouble(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return 0;
         }
-        return ((Number) data).doubleValue();
+        return column.doubleValue(currentRowNum);
     }
 
     @Override
     public Timestamp getTimestamp(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return null;
         }
-        ZonedDateTime zts = (ZonedDateTime) data;
+        IColumn nested = column instanceof ColumnNullable ? ((ColumnNullable) column).nestedColumn() : column;
+        if (nested instanceof ColumnTemporal) {
+            return ((ColumnTemporal) nested).timestamp(currentRowNum);
+        }
+        ZonedDateTime zts = (ZonedDateTime) column.value(currentRowNum);
         return DateTimeUtil.toTimestamp(zts, null);
     }
 
@@ -238,10 +274,15 @@ public class ClickHouseResultSet implements SQLResultSet {
 
     @Override
     public Date getDate(int position) throws SQLException {
-        LocalDate date = (LocalDate) getInternalObject(position);
-        if (date == null)
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return null;
-        return Date.valueOf(date);
+        }
+        IColumn nested = column instanceof ColumnNullable ? ((ColumnNullable) column).nestedColumn() : column;
+        if (nested instanceof ColumnDate) {
+            return ((ColumnDate) nested).date(currentRowNum);
+        }
+        return Date.valueOf((LocalDate) column.value(currentRowNum));
     }
 
     @Override
@@ -268,10 +309,20 @@ public class ClickHouseResultSet implements SQLResultSet {
 
     @Override
     public byte[] getBytes(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return null;
         }
+        IColumn nested = column instanceof ColumnNullable ? ((ColumnNullable) column).nestedColumn() : column;
+        if (nested instanceof ColumnString) {
+            return ((ColumnString) nested).bytes(currentRowNum);
+        }
+        if (column instanceof ColumnLowCardinality
+                && ((ColumnLowCardinality) column).dictionary() instanceof ColumnString) {
+            ColumnLowCardinality lowCardinality = (ColumnLowCardinality) column;
+            return ((ColumnString) lowCardinality.dictionary()).bytes(lowCardinality.keyIndex(currentRowNum));
+        }
+        Object data = column.value(currentRowNum);
         if (data instanceof AsciiString) {
             return ((AsciiString) data).toByteArray();
         }
@@ -302,10 +353,18 @@ public class ClickHouseResultSet implements SQLResultSet {
 
     @Override
     public Object getObject(int position) throws SQLException {
-        Object obj = getInternalObject(position);
-        if (obj == null) {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
             return null;
         }
+        IColumn nested = column instanceof ColumnNullable ? ((ColumnNullable) column).nestedColumn() : column;
+        if (nested instanceof ColumnTemporal) {
+            return ((ColumnTemporal) nested).timestamp(currentRowNum);
+        }
+        if (nested instanceof ColumnDate) {
+            return ((ColumnDate) nested).date(currentRowNum);
+        }
+        Object obj = column.value(currentRowNum);
         if (obj instanceof ZonedDateTime) {
             return DateTimeUtil.toTimestamp((ZonedDateTime) obj, null);
         }
@@ -318,13 +377,72 @@ public class ClickHouseResultSet implements SQLResultSet {
         return obj;
     }
 
+    @Override
+    public <T> T getObject(String name, Class<T> type) throws SQLException {
+        return this.getObject(this.findColumn(name), type);
+    }
+
+    /**
+     * Besides the types of {@link #getObject(int)}, DateTime columns can be read as {@link Instant},
+     * {@link LocalDateTime}, {@link ZonedDateTime} or {@link OffsetDateTime}, and Date columns as {@link LocalDate},
+     * the value is created from the epoch value directly.
+     */
+    @Override
+    public <T> T getObject(int position, Class<T> type) throws SQLException {
+        IColumn column = getInternalColumn(position);
+        if (column.isNull(currentRowNum)) {
+            return null;
+        }
+        IColumn nested = column instanceof ColumnNullable ? ((ColumnNullable) column).nestedColumn() : column;
+        if (nested instanceof ColumnTemporal) {
+            ColumnTemporal temporal = (ColumnTemporal) nested;
+            if (type == Timestamp.class)
+                return type.cast(temporal.timestamp(currentRowNum));
+            if (type == Instant.class)
+                return type.cast(temporal.instant(currentRowNum));
+            if (type == LocalDateTime.class)
+                return type.cast(temporal.localDateTime(currentRowNum));
+            if (type == ZonedDateTime.class)
+                return type.cast(temporal.zonedDateTime(currentRowNum));
+            if (type == OffsetDateTime.class)
+                return type.cast(temporal.zonedDateTime(currentRowNum).toOffsetDateTime());
+            if (type == Long.class)
+                return type.cast(temporal.longValue(currentRowNum));
+        }
+        if (nested instanceof ColumnDate && type == LocalDate.class) {
+            return type.cast(((ColumnDate) nested).localDate(currentRowNum));
+        }
+        Object obj = getObject(position);
+        if (type.isInstance(obj)) {
+            return type.cast(obj);
+        }
+        Object data = column.value(currentRowNum);
+        if (type.isInstance(data)) {
+            return type.cast(data);
+        }
+        if (data instanceof ZonedDateTime) {
+            ZonedDateTime zdt = (ZonedDateTime) data;
+            if (type == Instant.class)
+                return type.cast(zdt.toInstant());
+            if (type == LocalDateTime.class)
+                return type.cast(zdt.toLocalDateTime());
+            if (type == OffsetDateTime.class)
+                return type.cast(zdt.toOffsetDateTime());
+        }
+        throw new ClickHouseSQLException(-1, "Can not convert " + data.getClass() + " to " + type);
+    }
+
     private Object getInternalObject(int position) throws SQLException {
+        return getInternalColumn(position).value(currentRowNum);
+    }
+
+    private IColumn getInternalColumn(int position) throws SQLException {
         LOG.trace("get object at row: {}, column position: {} from block with column count: {}, row count: {}",
                 currentRowNum, position, currentBlock.columnCnt(), currentBlock.rowCnt());
         Validate.isTrue(currentRowNum >= 0 && currentRowNum < currentBlock.rowCnt(),
                 "No row information was obtained. You must call ResultSet.next() before that.");
-        IColumn column = (lastFetchBlock = currentBlock).getColumn((lastFetchColumnIdx = position - 1));
-        return column.value((lastFetchRowIdx = currentRowNum));
+        lastFetchRowIdx = currentRowNum;
+        return (lastFetchBlock = currentBlock).getColumn((lastFetchColumnIdx = position - 1));
     }
 
     @Override
@@ -385,7 +503,7 @@ public class ClickHouseResultSet implements SQLResultSet {
         Validate.isTrue(lastFetchBlock != null, "Please call Result.next()");
         Validate.isTrue(lastFetchColumnIdx >= 0, "Please call Result.getXXX()");
         Validate.isTrue(lastFetchRowIdx >= 0 && lastFetchRowIdx < lastFetchBlock.rowCnt(), "Please call Result.next()");
-        return lastFetchBlock.getColumn(lastFetchColumnIdx).value(lastFetchRowIdx) == null;
+        return lastFetchBlock.getColumn(lastFetchColumnIdx).isNull(lastFetchRowIdx);
     }
 
     @Override
@@ -418,12 +536,33 @@ public class ClickHouseResultSet implements SQLResultSet {
         return hasNext;
     }
 
+    /**
+     * Besides the result set itself, unwraps to {@link BlockStream}, which reads the rest of the result
+     * block by block.
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface == BlockStream.class) {
+            Validate.isTrue(isBeforeFirst(), "BlockStream must be unwrapped before ResultSet.next()");
+            return iface.cast(new BlockStream(dataResponses, result));
+        }
+        return SQLResultSet.super.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface == BlockStream.class || SQLResultSet.super.isWrapperFor(iface);
+    }
+
     @Override
     public void close() throws SQLException {
         // TODO check if query responses are completed
         //  1. if completed, just set isClosed = true
         //  2. if not, cancel query and consume the rest responses
         LOG.debug("close ResultSet");
+        if (result != null && !isClosed) {
+            result.cancel();
+        }
         this.isClosed = true;
     }
 
@@ -438,14 +577,23 @@ public class ClickHouseResultSet implements SQLResultSet {
     }
 
     private Block fetchBlock() throws SQLException {
+        // the consumer has advanced past the current block, its storage can be reused by the following blocks
+        recycle(currentBlock);
         while (dataResponses.hasNext()) {
             LOG.trace("fetch next DataResponse");
             DataResponse next = dataResponses.next();
             if (next.block().rowCnt() > 0) {
                 return next.block();
             }
+            recycle(next.block());
         }
         LOG.debug("no more DataResponse, return empty Block");
         return new Block();
     }
+
+    private void recycle(Block block) {
+        if (result != null) {
+            result.recycle(block);
+        }
+    }
 }
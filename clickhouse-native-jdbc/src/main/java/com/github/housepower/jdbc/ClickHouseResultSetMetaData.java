@@ -15,7 +15,6 @@
 package com.github.housepower.jdbc;
 
 import com.github.housepower.data.Block;
-import com.github.housepower.data.type.complex.DataTypeNullable;
 import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
 import com.github.housepower.jdbc.wrapper.SQLResultSetMetaData;
@@ -90,7 +89,7 @@ public class ClickHouseResultSetMetaData implements SQLResultSetMetaData {
 
     @Override
     public int isNullable(int index) throws SQLException {
-        return (header.getColumn(index - 1).type() instanceof DataTypeNullable) ?
+        return header.getColumn(index - 1).type().nullable() ?
             ResultSetMetaData.columnNullable : ResultSetMetaData.columnNoNulls;
     }
 
@@ -16,40 +16,32 @@ package com.github.housepower.jdbc.statement;
 
 import com.github.housepower.client.NativeContext;
 import com.github.housepower.data.Block;
-import com.github.housepower.data.IColumn;
+import com.github.housepower.data.ColumnChunk;
 import com.github.housepower.data.IDataType;
-import com.github.housepower.data.type.*;
-import com.github.housepower.data.type.complex.*;
-import com.github.housepower.exception.ClickHouseSQLException;
-import com.github.housepower.jdbc.ClickHouseArray;
 import com.github.housepower.jdbc.ClickHouseConnection;
-import com.github.housepower.jdbc.ClickHouseStruct;
 import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
-import com.github.housepower.misc.DateTimeUtil;
 import com.github.housepower.misc.ExceptionUtil;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.stream.ValuesWithParametersNativeInputFormat;
-import io.netty.util.AsciiString;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import javax.annotation.Nullable;
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZonedDateTime;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.BitSet;
+import java.util.Calendar;
 
-import static com.github.housepower.misc.ExceptionUtil.unchecked;
 
 public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement {
 
     private static final Logger LOG = LoggerFactory.getLogger(ClickHousePreparedInsertStatement.class);
 
+    // update counts reported one per row by executeBatch, 4 MiB, a larger streamed batch reports a single count
+    private static final int MAX_ROW_UPDATE_COUNTS = 1 << 20;
+
     private static int computeQuestionMarkSize(String query, int start) throws SQLException {
         int param = 0;
         boolean inQuotes = false, inBackQuotes = false;
@@ -73,6 +65,12 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
     private final String fullQuery;
     private final String insertQuery;
     private boolean blockInit;
+    private ValueConverter[] converters;
+    // thresholds of the rows and bytes sent as a block before the batch is executed, 0 to disable
+    private final long flushRows;
+    private final long flushBytes;
+    // rows of the batch already sent
+    private int sentRows;
 
     public ClickHousePreparedInsertStatement(int posOfData,
                                              String fullQuery,
@@ -83,6 +81,8 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
         this.posOfData = posOfData;
         this.fullQuery = fullQuery;
         this.insertQuery = fullQuery.substring(0, posOfData);
+        this.flushRows = conn.cfg().insertFlushRows();
+        this.flushBytes = conn.cfg().insertFlushBytes();
 
         initBlockIfPossible();
     }
@@ -92,8 +92,128 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
     public void setObject(int paramPosition, Object x) throws SQLException {
         initBlockIfPossible();
         int columnIdx = block.paramIdx2ColumnIdx(paramPosition - 1);
-        IColumn column = block.getColumn(columnIdx);
-        block.setObject(columnIdx, convertToCkDataType(column.type(), x));
+        block.setObject(columnIdx, converters[columnIdx].convert(x));
+    }
+
+    // the primitive setters stage the values of the numeric and temporal columns without boxing
+
+    @Override
+    public void setByte(int paramPosition, byte x) throws SQLException {
+        if (!stageLong(paramPosition, x, true)) {
+            super.setByte(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setShort(int paramPosition, short x) throws SQLException {
+        if (!stageLong(paramPosition, x, true)) {
+            super.setShort(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setInt(int paramPosition, int x) throws SQLException {
+        if (!stageLong(paramPosition, x, true)) {
+            super.setInt(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setLong(int paramPosition, long x) throws SQLException {
+        // a long may lose precision as double before it's narrowed to float
+        if (!stageLong(paramPosition, x, false)) {
+            super.setLong(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setFloat(int paramPosition, float x) throws SQLException {
+        if (!stageDouble(paramPosition, x)) {
+            super.setFloat(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setDouble(int paramPosition, double x) throws SQLException {
+        if (!stageDouble(paramPosition, x)) {
+            super.setDouble(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setTimestamp(int paramPosition, Timestamp x) throws SQLException {
+        if (x == null || !stageTimestamp(paramPosition, x)) {
+            super.setTimestamp(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setTimestamp(int paramPosition, Timestamp x, Calendar cal) throws SQLException {
+        // the epoch value doesn't depend on the time zone of the calendar
+        if (x == null || !stageTimestamp(paramPosition, x)) {
+            super.setTimestamp(paramPosition, x, cal);
+        }
+    }
+
+    @Override
+    public void setDate(int paramPosition, Date x) throws SQLException {
+        initBlockIfPossible();
+        int columnIdx = block.paramIdx2ColumnIdx(paramPosition - 1);
+        if (x != null && converters[columnIdx].staging() == ValueConverter.Staging.DATE) {
+            block.setLong(columnIdx, x.toLocalDate().toEpochDay());
+            return;
+        }
+        super.setDate(paramPosition, x);
+    }
+
+    /**
+     * Stage a chunk of values of the column at {@code paramPosition} for a columnar insert, the chunks of all
+     * parameters must have the same length and are appended as rows by {@link #addBatch()}. Values are taken
+     * as they are stored by the column, see {@link ColumnChunk}.
+     */
+    public void setColumn(int paramPosition, long[] values, int offset, int length) throws SQLException {
+        setColumn(paramPosition, values, offset, length, null);
+    }
+
+    public void setColumn(int paramPosition, long[] values, int offset, int length,
+                          @Nullable BitSet nulls) throws SQLException {
+        setColumnChunk(paramPosition, ColumnChunk.of(values, offset, length, nulls));
+    }
+
+    public void setColumn(int paramPosition, int[] values, int offset, int length) throws SQLException {
+        setColumn(paramPosition, values, offset, length, null);
+    }
+
+    public void setColumn(int paramPosition, int[] values, int offset, int length,
+                          @Nullable BitSet nulls) throws SQLException {
+        setColumnChunk(paramPosition, ColumnChunk.of(values, offset, length, nulls));
+    }
+
+    public void setColumn(int paramPosition, double[] values, int offset, int length) throws SQLException {
+        setColumn(paramPosition, values, offset, length, null);
+    }
+
+    public void setColumn(int paramPosition, double[] values, int offset, int length,
+                          @Nullable BitSet nulls) throws SQLException {
+        setColumnChunk(paramPosition, ColumnChunk.of(values, offset, length, nulls));
+    }
+
+    public void setColumn(int paramPosition, byte[][] values, int offset, int length) throws SQLException {
+        setColumn(paramPosition, values, offset, length, null);
+    }
+
+    public void setColumn(int paramPosition, byte[][] values, int offset, int length,
+                          @Nullable BitSet nulls) throws SQLException {
+        setColumnChunk(paramPosition, ColumnChunk.of(values, offset, length, nulls));
+    }
+
+    public void setColumn(int paramPosition, CharSequence[] values, int offset, int length) throws SQLException {
+        setColumn(paramPosition, values, offset, length, null);
+    }
+
+    public void setColumn(int paramPosition, CharSequence[] values, int offset, int length,
+                          @Nullable BitSet nulls) throws SQLException {
+        setColumnChunk(paramPosition, ColumnChunk.of(values, offset, length, nulls));
     }
 
     @Override
@@ -119,28 +239,46 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
     @Override
     public void addBatch() throws SQLException {
         addParameters();
+        flushIfNeeded();
     }
 
+    /**
+     * Drop the rows added but not sent yet, the blocks already streamed by the batch are kept and inserted by
+     * {@link #executeBatch()} or {@link #close()}.
+     */
     @Override
     public void clearBatch() throws SQLException {
+        if (blockInit) {
+            block.clearWrittenRows();
+        }
     }
 
+    /**
+     * Send the rest of the batch and finish the insert. The result holds an update count of 1 per row, unless
+     * more than 2^20 rows were streamed: then it's a single count of all rows, so
+     * that the result of a huge streamed batch doesn't outgrow the blocks it was sent in.
+     */
     @Override
     public int[] executeBatch() throws SQLException {
-        int rows = connection.sendInsertRequest(block);
-        int[] result = new int[rows];
-        Arrays.fill(result, 1);
-        clearBatch();
+        boolean streamed = sentRows > 0;
+        int rows = sentRows + connection.sendInsertRequest(block);
+        sentRows = 0;
         this.blockInit = false;
         this.block.initWriteBuffer();
+        if (streamed && rows > MAX_ROW_UPDATE_COUNTS) {
+            return new int[]{rows};
+        }
+        int[] result = new int[rows];
+        Arrays.fill(result, 1);
         return result;
     }
 
     @Override
     public void close() throws SQLException {
         if (blockInit) {
-            // Empty insert when close.
+            // Empty insert when close, the blocks already sent by a streaming insert are kept.
             this.connection.sendInsertRequest(new Block());
+            this.sentRows = 0;
             this.blockInit = false;
             this.block.initWriteBuffer();
         }
@@ -181,116 +319,85 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
         ExceptionUtil.rethrowSQLException(() -> {
             this.block = connection.getSampleBlock(insertQuery);
             this.block.initWriteBuffer();
+            compileConverters();
             this.blockInit = true;
             new ValuesWithParametersNativeInputFormat(posOfData, fullQuery).fill(block);
         });
     }
 
-    private void addParameters() throws SQLException {
-        block.appendRow();
+    // the sample block is fetched again after each batch, converters are kept while the column types are the same
+    private void compileConverters() throws SQLException {
+        int columnCnt = block.columnCnt();
+        ValueConverter[] compiled = new ValueConverter[columnCnt];
+        for (int i = 0; i < columnCnt; i++) {
+            IDataType<?, ?> type = block.getColumn(i).type();
+            boolean reusable = converters != null && converters.length == columnCnt && converters[i].type() == type;
+            compiled[i] = reusable ? converters[i] : ValueConverter.compile(type, tz);
+        }
+        converters = compiled;
     }
 
-    // TODO we actually need a type cast system rather than put all type cast stuffs here
-    private Object convertToCkDataType(IDataType<?, ?> type, Object obj) throws ClickHouseSQLException {
-        if (obj == null) {
-            if (type.nullable() || type instanceof DataTypeNothing)
-                return null;
-            throw new ClickHouseSQLException(-1, "type[" + type.name() + "] doesn't support null value");
-        }
-        // put the most common cast at first to avoid `instanceof` test overhead
-        if (type instanceof DataTypeString || type instanceof DataTypeFixedString) {
-            if (obj instanceof CharSequence)
-                return obj;
-            if (obj instanceof byte[])
-                return new AsciiString((byte[]) obj, false);
-            String objStr = obj.toString();
-            LOG.debug("set value[{}]: {} on String Column", obj.getClass(), obj);
-            return objStr;
-        }
-        if (type instanceof DataTypeDate) {
-            if (obj instanceof java.util.Date)
-                return ((Date) obj).toLocalDate();
-            if (obj instanceof LocalDate)
-                return obj;
-        }
-        // TODO support
-        //   1. other Java8 time, i.e. OffsetDateTime, Instant
-        //   2. unix timestamp, but in second or millisecond?
-        if (type instanceof DataTypeDateTime || type instanceof DataTypeDateTime64) {
-            if (obj instanceof Timestamp)
-                return DateTimeUtil.toZonedDateTime((Timestamp) obj, tz);
-            if (obj instanceof LocalDateTime)
-                return ((LocalDateTime) obj).atZone(tz);
-            if (obj instanceof ZonedDateTime)
-                return obj;
-        }
-        if (type instanceof DataTypeInt8) {
-            if (obj instanceof Number)
-                return ((Number) obj).byteValue();
-        }
-        if (type instanceof DataTypeUInt8 || type instanceof DataTypeInt16) {
-            if (obj instanceof Number)
-                return ((Number) obj).shortValue();
-        }
-        if (type instanceof DataTypeUInt16 || type instanceof DataTypeInt32) {
-            if (obj instanceof Number)
-                return ((Number) obj).intValue();
-        }
-        if (type instanceof DataTypeUInt32 || type instanceof DataTypeInt64) {
-            if (obj instanceof Number)
-                return ((Number) obj).longValue();
-        }
-        if (type instanceof DataTypeUInt64) {
-            if (obj instanceof BigInteger)
-                return obj;
-            if (obj instanceof BigDecimal)
-                return ((BigDecimal) obj).toBigInteger();
-            if (obj instanceof Number)
-                return BigInteger.valueOf(((Number) obj).longValue());
-        }
-        if (type instanceof DataTypeFloat32) {
-            if (obj instanceof Number)
-                return ((Number) obj).floatValue();
-        }
-        if (type instanceof DataTypeFloat64) {
-            if (obj instanceof Number)
-                return ((Number) obj).doubleValue();
+    /**
+     * Send the rows added so far as a data block of the insert once they reach the row or byte threshold, so that
+     * a large batch is streamed with at most one block in memory. The blocks sent can't be taken back by
+     * {@link #clearBatch()} or {@link #close()}.
+     */
+    private void flushIfNeeded() throws SQLException {
+        if ((flushRows > 0 && block.rowCnt() >= flushRows) || (flushBytes > 0 && block.writtenBytes() >= flushBytes)) {
+            sentRows += connection.sendInsertData(block);
+            block.clearWrittenRows();
         }
-        if (type instanceof DataTypeDecimal) {
-            if (obj instanceof BigDecimal)
-                return obj;
-            if (obj instanceof BigInteger)
-                return new BigDecimal((BigInteger) obj);
-            if (obj instanceof Number)
-                return ((Number) obj).doubleValue();
-        }
-        if (type instanceof DataTypeUUID) {
-            if (obj instanceof UUID)
-                return obj;
-            if (obj instanceof String) {
-                return UUID.fromString((String) obj);
-            }
-        }
-        if (type instanceof DataTypeNothing) {
-            return null;
+    }
+
+    private boolean stageLong(int paramPosition, long x, boolean exactAsDouble) throws SQLException {
+        initBlockIfPossible();
+        int columnIdx = block.paramIdx2ColumnIdx(paramPosition - 1);
+        switch (converters[columnIdx].staging()) {
+            case INTEGER:
+                block.setLong(columnIdx, x);
+                return true;
+            case FLOAT:
+                if (exactAsDouble) {
+                    block.setDouble(columnIdx, x);
+                    return true;
+                }
+                return false;
+            default:
+                return false;
         }
-        if (type instanceof DataTypeNullable) {
-            // handled null at first, so obj also not null here
-            return convertToCkDataType(((DataTypeNullable) type).getNestedDataType(), obj);
+    }
+
+    private boolean stageDouble(int paramPosition, double x) throws SQLException {
+        initBlockIfPossible();
+        int columnIdx = block.paramIdx2ColumnIdx(paramPosition - 1);
+        if (converters[columnIdx].staging() != ValueConverter.Staging.FLOAT) {
+            return false;
         }
-        if (type instanceof DataTypeArray) {
-            if (!(obj instanceof ClickHouseArray)) {
-                throw new ClickHouseSQLException(-1, "require ClickHouseArray for column: " + type.name() + ", but found " + obj.getClass());
-            }
-            return ((ClickHouseArray) obj).mapElements(unchecked(this::convertToCkDataType));
+        block.setDouble(columnIdx, x);
+        return true;
+    }
+
+    private boolean stageTimestamp(int paramPosition, Timestamp x) throws SQLException {
+        initBlockIfPossible();
+        int columnIdx = block.paramIdx2ColumnIdx(paramPosition - 1);
+        ValueConverter converter = converters[columnIdx];
+        if (converter.staging() != ValueConverter.Staging.DATE_TIME) {
+            return false;
         }
-        if (type instanceof DataTypeTuple) {
-            if (!(obj instanceof ClickHouseStruct)) {
-                throw new ClickHouseSQLException(-1, "require ClickHouseStruct for column: " + type.name() + ", but found " + obj.getClass());
-            }
-            return ((ClickHouseStruct) obj).mapAttributes(((DataTypeTuple) type).getNestedTypes(), unchecked(this::convertToCkDataType));
+        block.setLong(columnIdx, converter.epochValue(x));
+        return true;
+    }
+
+    private void setColumnChunk(int paramPosition, ColumnChunk chunk) throws SQLException {
+        initBlockIfPossible();
+        block.setColumnChunk(block.paramIdx2ColumnIdx(paramPosition - 1), chunk);
+    }
+
+    private void addParameters() throws SQLException {
+        if (block.hasColumnChunks()) {
+            block.appendColumnChunks();
+            return;
         }
-        LOG.debug("unhandled type: {}[{}]", type.name(), obj.getClass());
-        return obj;
+        block.appendRow();
     }
 }
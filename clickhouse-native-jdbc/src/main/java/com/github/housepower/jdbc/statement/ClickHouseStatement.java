@@ -51,6 +51,7 @@ public class ClickHouseStatement implements SQLStatement {
 
     private ClickHouseConfig cfg;
     private long maxRows;
+    private int fetchSize;
     private String db;
     private String table = "unknown";
 
@@ -89,8 +90,8 @@ public class ClickHouseStatement implements SQLStatement {
                 return updateCount;
             }
             updateCount = -1;
-            QueryResult result = connection.sendQueryRequest(query, cfg);
-            lastResultSet = new ClickHouseResultSet(this, cfg, db, table, result.header(), result.data());
+            QueryResult result = connection.sendQueryRequest(query, cfg, fetchSize);
+            lastResultSet = new ClickHouseResultSet(this, cfg, db, table, result);
             return 0;
         });
     }
@@ -172,11 +173,13 @@ public class ClickHouseStatement implements SQLStatement {
 
     @Override
     public void setFetchSize(int rows) throws SQLException {
+        Validate.isTrue(rows >= 0, "Illegal fetchSize value: " + rows);
+        fetchSize = rows;
     }
 
     @Override
     public int getFetchSize() throws SQLException {
-        return 0;
+        return fetchSize;
     }
 
     @Override
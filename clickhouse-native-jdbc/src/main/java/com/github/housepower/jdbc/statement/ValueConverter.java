@@ -0,0 +1,289 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc.statement;
+
+import com.github.housepower.data.IDataType;
+import com.github.housepower.data.type.*;
+import com.github.housepower.data.type.complex.*;
+import com.github.housepower.exception.ClickHouseSQLException;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.ClickHouseStruct;
+import com.github.housepower.log.Logger;
+import com.github.housepower.log.LoggerFactory;
+import com.github.housepower.misc.DateTimeUtil;
+import io.netty.util.AsciiString;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Converts the parameters of an insert into the values expected by the column, compiled once per column
+ * when the sample block arrives, so that the data type is dispatched only once. The conversion of a source
+ * class is resolved on its first value and reused as long as the following values are of the same class.
+ */
+final class ValueConverter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ValueConverter.class);
+
+    @FunctionalInterface
+    interface Conversion {
+        Object apply(Object value) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface Resolver {
+        Conversion resolve(Class<?> source);
+    }
+
+    private static final Conversion IDENTITY = value -> value;
+
+    /**
+     * How the primitive parameters of the column are staged in the block, see {@link
+     * com.github.housepower.data.Block#setLong(int, long)}.
+     */
+    enum Staging {
+        OBJECT, INTEGER, FLOAT, DATE, DATE_TIME
+    }
+
+    static ValueConverter compile(IDataType<?, ?> type, ZoneId tz) {
+        return new ValueConverter(type, resolver(type, tz));
+    }
+
+    private final IDataType<?, ?> type;
+    private final boolean nullable;
+    private final Resolver resolver;
+    private final Staging staging;
+    // scale of a DateTime64 column, -1 for the other columns
+    private final int scale;
+    private Class<?> cachedSource;
+    private Conversion cached;
+
+    private ValueConverter(IDataType<?, ?> type, Resolver resolver) {
+        this.type = type;
+        this.nullable = type.nullable() || type instanceof DataTypeNothing;
+        this.resolver = resolver;
+        IDataType<?, ?> nested = type instanceof DataTypeNullable ? ((DataTypeNullable) type).getNestedDataType() : type;
+        this.staging = staging(nested);
+        this.scale = nested instanceof DataTypeDateTime64 ? ((DataTypeDateTime64) nested).getScale() : -1;
+    }
+
+    IDataType<?, ?> type() {
+        return type;
+    }
+
+    Staging staging() {
+        return staging;
+    }
+
+    // the value of the timestamp as it is stored by the DateTime or DateTime64 column
+    long epochValue(Timestamp x) {
+        long seconds = x.getTime() / 1000;
+        if (scale < 0) {
+            return seconds;
+        }
+        return (seconds * DataTypeDateTime64.NANOS_IN_SECOND + x.getNanos())
+                / DataTypeDateTime64.POW_10[DataTypeDateTime64.MAX_SCALA - scale];
+    }
+
+    @Nullable
+    Object convert(@Nullable Object value) throws SQLException {
+        if (value == null) {
+            if (nullable)
+                return null;
+            throw new ClickHouseSQLException(-1, "type[" + type.name() + "] doesn't support null value");
+        }
+        Class<?> source = value.getClass();
+        if (source != cachedSource) {
+            cached = resolver.resolve(source);
+            cachedSource = source;
+        }
+        return cached.apply(value);
+    }
+
+    private static Resolver resolver(IDataType<?, ?> type, ZoneId tz) {
+        if (type instanceof DataTypeString || type instanceof DataTypeFixedString) {
+            return source -> {
+                if (CharSequence.class.isAssignableFrom(source))
+                    return IDENTITY;
+                if (source == byte[].class)
+                    return value -> new AsciiString((byte[]) value, false);
+                LOG.debug("set value of {} on String Column", source);
+                return Object::toString;
+            };
+        }
+        if (type instanceof DataTypeDate) {
+            return source -> Date.class.isAssignableFrom(source) ? value -> ((Date) value).toLocalDate() : IDENTITY;
+        }
+        // TODO support
+        //   1. other Java8 time, i.e. OffsetDateTime, Instant
+        //   2. unix timestamp, but in second or millisecond?
+        if (type instanceof DataTypeDateTime || type instanceof DataTypeDateTime64) {
+            return source -> {
+                if (Timestamp.class.isAssignableFrom(source))
+                    return value -> DateTimeUtil.toZonedDateTime((Timestamp) value, tz);
+                if (source == LocalDateTime.class)
+                    return value -> ((LocalDateTime) value).atZone(tz);
+                return IDENTITY;
+            };
+        }
+        if (type instanceof DataTypeInt8) {
+            return number(Byte.class, value -> ((Number) value).byteValue());
+        }
+        if (type instanceof DataTypeUInt8 || type instanceof DataTypeInt16) {
+            return number(Short.class, value -> ((Number) value).shortValue());
+        }
+        if (type instanceof DataTypeUInt16 || type instanceof DataTypeInt32) {
+            return number(Integer.class, value -> ((Number) value).intValue());
+        }
+        if (type instanceof DataTypeUInt32 || type instanceof DataTypeInt64) {
+            return number(Long.class, value -> ((Number) value).longValue());
+        }
+        if (type instanceof DataTypeUInt64) {
+            return source -> {
+                if (source == BigInteger.class)
+                    return IDENTITY;
+                if (source == BigDecimal.class)
+                    return value -> ((BigDecimal) value).toBigInteger();
+                return number(BigInteger.class, value -> BigInteger.valueOf(((Number) value).longValue()))
+                        .resolve(source);
+            };
+        }
+        if (type instanceof DataTypeFloat32) {
+            return number(Float.class, value -> ((Number) value).floatValue());
+        }
+        if (type instanceof DataTypeFloat64) {
+            return number(Double.class, value -> ((Number) value).doubleValue());
+        }
+        if (type instanceof DataTypeDecimal) {
+            return source -> {
+                if (BigDecimal.class.isAssignableFrom(source))
+                    return IDENTITY;
+                if (BigInteger.class.isAssignableFrom(source))
+                    return value -> new BigDecimal((BigInteger) value);
+                if (source == Long.class || source == Integer.class || source == Short.class || source == Byte.class)
+                    return value -> BigDecimal.valueOf(((Number) value).longValue());
+                return number(BigDecimal.class, value -> BigDecimal.valueOf(((Number) value).doubleValue()))
+                        .resolve(source);
+            };
+        }
+        if (type instanceof DataTypeUUID) {
+            return source -> source == String.class ? value -> UUID.fromString((String) value) : IDENTITY;
+        }
+        if (type instanceof DataTypeNothing) {
+            return source -> value -> null;
+        }
+        if (type instanceof DataTypeNullable) {
+            // null is handled before the conversion
+            return resolver(((DataTypeNullable) type).getNestedDataType(), tz);
+        }
+        if (type instanceof DataTypeLowCardinality) {
+            return resolver(((DataTypeLowCardinality) type).getNestedDataType(), tz);
+        }
+        if (type instanceof DataTypeArray) {
+            IDataType<?, ?> elementType = ((DataTypeArray) type).getElemDataType();
+            ValueConverter element = compile(elementType, tz);
+            return source -> {
+                if (source != ClickHouseArray.class)
+                    return required(type, ClickHouseArray.class);
+                return value -> {
+                    Object[] elements = ((ClickHouseArray) value).getArray();
+                    Object[] converted = new Object[elements.length];
+                    for (int i = 0; i < elements.length; i++) {
+                        converted[i] = element.convert(elements[i]);
+                    }
+                    return new ClickHouseArray(elementType, converted);
+                };
+            };
+        }
+        if (type instanceof DataTypeTuple) {
+            IDataType<?, ?>[] nestedTypes = ((DataTypeTuple) type).getNestedTypes();
+            ValueConverter[] attributes = new ValueConverter[nestedTypes.length];
+            for (int i = 0; i < nestedTypes.length; i++) {
+                attributes[i] = compile(nestedTypes[i], tz);
+            }
+            return source -> {
+                if (source != ClickHouseStruct.class)
+                    return required(type, ClickHouseStruct.class);
+                return value -> {
+                    ClickHouseStruct struct = (ClickHouseStruct) value;
+                    Object[] values = struct.getAttributes();
+                    Object[] converted = new Object[attributes.length];
+                    for (int i = 0; i < attributes.length; i++) {
+                        converted[i] = attributes[i].convert(values[i]);
+                    }
+                    return new ClickHouseStruct(struct.getSQLTypeName(), converted);
+                };
+            };
+        }
+        if (type instanceof DataTypeMap) {
+            ValueConverter keys = compile(((DataTypeMap) type).getKeyDataType(), tz);
+            ValueConverter values = compile(((DataTypeMap) type).getValueDataType(), tz);
+            return source -> {
+                if (!Map.class.isAssignableFrom(source))
+                    return required(type, Map.class);
+                return value -> {
+                    Map<Object, Object> converted = new LinkedHashMap<>();
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                        converted.put(keys.convert(entry.getKey()), values.convert(entry.getValue()));
+                    }
+                    return converted;
+                };
+            };
+        }
+        return source -> {
+            LOG.debug("unhandled type: {}[{}]", type.name(), source);
+            return IDENTITY;
+        };
+    }
+
+    private static Staging staging(IDataType<?, ?> type) {
+        if (type instanceof DataTypeInt8 || type instanceof DataTypeUInt8 || type instanceof DataTypeInt16
+                || type instanceof DataTypeUInt16 || type instanceof DataTypeInt32 || type instanceof DataTypeUInt32
+                || type instanceof DataTypeInt64 || type instanceof DataTypeUInt64) {
+            return Staging.INTEGER;
+        }
+        if (type instanceof DataTypeFloat32 || type instanceof DataTypeFloat64) {
+            return Staging.FLOAT;
+        }
+        if (type instanceof DataTypeDate) {
+            return Staging.DATE;
+        }
+        if (type instanceof DataTypeDateTime || type instanceof DataTypeDateTime64) {
+            return Staging.DATE_TIME;
+        }
+        return Staging.OBJECT;
+    }
+
+    // values of the target class are taken as is, other numbers are converted
+    private static Resolver number(Class<?> target, Conversion conversion) {
+        return source -> source != target && Number.class.isAssignableFrom(source) ? conversion : IDENTITY;
+    }
+
+    private static Conversion required(IDataType<?, ?> type, Class<?> expected) {
+        return value -> {
+            throw new ClickHouseSQLException(-1, "require " + expected.getSimpleName() + " for column: "
+                    + type.name() + ", but found " + value.getClass());
+        };
+    }
+}
@@ -14,45 +14,90 @@
 
 package com.github.housepower.misc;
 
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * LRUCache is a simple LRUCache implementation, based on <code>LinkedHashMap</code>.
+ * LRUCache is a concurrent cache with approximated LRU eviction, based on <code>ConcurrentHashMap</code>.
+ * <p>
+ * Reads never lock, a hit only marks the entry as recently used. When the cache is full, a put evicts
+ * with the CLOCK algorithm: entries marked since the last sweep get a second chance, the first one not
+ * marked is removed.
  */
 public class LRUCache<K, V> {
-    private static final float HASH_TABLE_LOAD_FACTOR = 0.75f;
 
     private final int cacheSize;
-    private final LinkedHashMap<K, V> map;
+    private final ConcurrentHashMap<K, Entry<V>> map;
+    // approximated size, ConcurrentHashMap#size sums up all the counter cells
+    private final AtomicInteger size = new AtomicInteger();
+    private Iterator<Map.Entry<K, Entry<V>>> hand;
 
     public LRUCache(int cacheSize) {
         this.cacheSize = cacheSize;
-        this.map = new LinkedHashMap<K, V>(cacheSize, HASH_TABLE_LOAD_FACTOR, true) {
-            public boolean removeEldestEntry(Map.Entry eldest) {
-                return size() > LRUCache.this.cacheSize;
-            }
-        };
+        this.map = new ConcurrentHashMap<>(cacheSize);
     }
 
-    public synchronized V get(K key) {
-        return map.get(key);
+    public V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        // avoid writing the shared cache line on every hit
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.value;
     }
 
-    public synchronized void put(K key, V value) {
-        map.remove(key);
-        map.put(key, value);
+    public void put(K key, V value) {
+        if (map.put(key, new Entry<>(value)) == null && size.incrementAndGet() > cacheSize) {
+            evict();
+        }
     }
 
-    public synchronized void putIfAbsent(K key, V value) {
-        map.putIfAbsent(key, value);
+    public void putIfAbsent(K key, V value) {
+        if (map.putIfAbsent(key, new Entry<>(value)) == null && size.incrementAndGet() > cacheSize) {
+            evict();
+        }
     }
 
     public synchronized void clear() {
         map.clear();
+        size.set(0);
+        hand = null;
     }
 
-    public synchronized int cacheSize() {
+    public int cacheSize() {
         return map.size();
     }
+
+    private synchronized void evict() {
+        // scan at most two rounds, the first round may only clear the marks
+        for (int scanned = 0; size.get() > cacheSize && scanned <= 2 * cacheSize; scanned++) {
+            if (hand == null || !hand.hasNext()) {
+                hand = map.entrySet().iterator();
+                if (!hand.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<K, Entry<V>> candidate = hand.next();
+            Entry<V> entry = candidate.getValue();
+            if (entry.referenced) {
+                entry.referenced = false;
+            } else if (map.remove(candidate.getKey(), entry)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile boolean referenced;
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
 }
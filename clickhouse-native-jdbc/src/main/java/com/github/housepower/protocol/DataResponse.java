@@ -16,8 +16,10 @@ package com.github.housepower.protocol;
 
 import com.github.housepower.client.NativeContext;
 import com.github.housepower.data.Block;
+import com.github.housepower.data.BlockRecycler;
 import com.github.housepower.serde.BinaryDeserializer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.sql.SQLException;
 
@@ -25,11 +27,22 @@ public class DataResponse implements Response {
 
     public static DataResponse readFrom(
             BinaryDeserializer deserializer, NativeContext.ServerContext info) throws IOException, SQLException {
+        return readFrom(deserializer, info, null);
+    }
+
+    public static DataResponse readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info,
+                                        @Nullable Block header) throws IOException, SQLException {
+        return readFrom(deserializer, info, header, null);
+    }
+
+    public static DataResponse readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info,
+                                        @Nullable Block header, @Nullable BlockRecycler recycler)
+            throws IOException, SQLException {
 
         String name = deserializer.readUTF8StringBinary();
 
         deserializer.maybeEnableCompressed();
-        Block block = Block.readFrom(deserializer, info);
+        Block block = Block.readFrom(deserializer, info, header, recycler);
         deserializer.maybeDisableCompressed();
 
         return new DataResponse(name, block);
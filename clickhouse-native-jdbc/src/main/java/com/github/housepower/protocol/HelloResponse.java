@@ -29,6 +29,7 @@ public class HelloResponse implements Response {
         long serverReversion = deserializer.readVarInt();
         String serverTimeZone = getTimeZone(deserializer, serverReversion);
         String serverDisplayName = getDisplayName(deserializer, serverReversion);
+        skipVersionPatch(deserializer, serverReversion);
 
         return new HelloResponse(name, majorVersion, minorVersion, serverReversion, serverTimeZone, serverDisplayName);
     }
@@ -43,6 +44,12 @@ public class HelloResponse implements Response {
                 deserializer.readUTF8StringBinary() : "localhost";
     }
 
+    private static void skipVersionPatch(BinaryDeserializer deserializer, long serverReversion) throws IOException {
+        if (serverReversion >= ClickHouseDefines.DBMS_MIN_REVISION_WITH_VERSION_PATCH) {
+            deserializer.readVarInt();
+        }
+    }
+
     private final long majorVersion;
     private final long minorVersion;
     private final long reversion;
@@ -15,9 +15,12 @@
 package com.github.housepower.protocol;
 
 import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.Block;
+import com.github.housepower.data.BlockRecycler;
 import com.github.housepower.exception.NotImplementedException;
 import com.github.housepower.serde.BinaryDeserializer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.sql.SQLException;
 
@@ -26,11 +29,26 @@ public interface Response {
     ProtoType type();
 
     static Response readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info) throws IOException, SQLException {
+        return readFrom(deserializer, info, null);
+    }
+
+    static Response readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info,
+                             @Nullable Block header) throws IOException, SQLException {
+        return readFrom(deserializer, info, header, null);
+    }
+
+    /**
+     * @param header the first data block of current query, if it has been received
+     * @param recycler the blocks released by the consumer of current query, if recycling is enabled
+     */
+    static Response readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info,
+                             @Nullable Block header, @Nullable BlockRecycler recycler)
+            throws IOException, SQLException {
         switch ((int) deserializer.readVarInt()) {
             case 0:
                 return HelloResponse.readFrom(deserializer);
             case 1:
-                return DataResponse.readFrom(deserializer, info);
+                return DataResponse.readFrom(deserializer, info, header, recycler);
             case 2:
                 throw ExceptionResponse.readExceptionFrom(deserializer);
             case 3:
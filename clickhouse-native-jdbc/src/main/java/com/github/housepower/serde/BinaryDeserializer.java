@@ -19,6 +19,8 @@ import com.github.housepower.buffer.CompressedBuffedReader;
 import com.github.housepower.misc.Switcher;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 
 public class BinaryDeserializer {
@@ -139,9 +141,88 @@ public class BinaryDeserializer {
         // @formatter:on
     }
 
+    public void readShorts(short[] dst, int n) throws IOException {
+        for (int offset = 0; offset < n; ) {
+            BuffedReader reader = switcher.get();
+            int cnt = Math.min(n - offset, reader.bufferedBytes() / Short.BYTES);
+            if (cnt > 0) {
+                ByteBuffer view = reader.readBuffered(cnt * Short.BYTES);
+                view.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(dst, offset, cnt);
+                offset += cnt;
+            } else {
+                // the value straddles the buffer boundary or the reader doesn't expose its buffer
+                dst[offset++] = readShort();
+            }
+        }
+    }
+
+    public void readInts(int[] dst, int n) throws IOException {
+        for (int offset = 0; offset < n; ) {
+            BuffedReader reader = switcher.get();
+            int cnt = Math.min(n - offset, reader.bufferedBytes() / Integer.BYTES);
+            if (cnt > 0) {
+                ByteBuffer view = reader.readBuffered(cnt * Integer.BYTES);
+                view.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(dst, offset, cnt);
+                offset += cnt;
+            } else {
+                // the value straddles the buffer boundary or the reader doesn't expose its buffer
+                dst[offset++] = readInt();
+            }
+        }
+    }
+
+    public void readLongs(long[] dst, int n) throws IOException {
+        for (int offset = 0; offset < n; ) {
+            BuffedReader reader = switcher.get();
+            int cnt = Math.min(n - offset, reader.bufferedBytes() / Long.BYTES);
+            if (cnt > 0) {
+                ByteBuffer view = reader.readBuffered(cnt * Long.BYTES);
+                view.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(dst, offset, cnt);
+                offset += cnt;
+            } else {
+                // the value straddles the buffer boundary or the reader doesn't expose its buffer
+                dst[offset++] = readLong();
+            }
+        }
+    }
+
+    public void readFloats(float[] dst, int n) throws IOException {
+        for (int offset = 0; offset < n; ) {
+            BuffedReader reader = switcher.get();
+            int cnt = Math.min(n - offset, reader.bufferedBytes() / Float.BYTES);
+            if (cnt > 0) {
+                ByteBuffer view = reader.readBuffered(cnt * Float.BYTES);
+                view.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(dst, offset, cnt);
+                offset += cnt;
+            } else {
+                // the value straddles the buffer boundary or the reader doesn't expose its buffer
+                dst[offset++] = readFloat();
+            }
+        }
+    }
+
+    public void readDoubles(double[] dst, int n) throws IOException {
+        for (int offset = 0; offset < n; ) {
+            BuffedReader reader = switcher.get();
+            int cnt = Math.min(n - offset, reader.bufferedBytes() / Double.BYTES);
+            if (cnt > 0) {
+                ByteBuffer view = reader.readBuffered(cnt * Double.BYTES);
+                view.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(dst, offset, cnt);
+                offset += cnt;
+            } else {
+                // the value straddles the buffer boundary or the reader doesn't expose its buffer
+                dst[offset++] = readDouble();
+            }
+        }
+    }
+
     public byte[] readBytes(int size) throws IOException {
         byte[] bytes = new byte[size];
         switcher.get().readBinary(bytes);
         return bytes;
     }
+
+    public void readBytes(byte[] dst, int offset, int length) throws IOException {
+        switcher.get().readBinary(dst, offset, length);
+    }
 }
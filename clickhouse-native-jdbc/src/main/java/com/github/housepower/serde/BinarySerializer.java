@@ -16,23 +16,36 @@ package com.github.housepower.serde;
 
 import com.github.housepower.buffer.BuffedWriter;
 import com.github.housepower.buffer.CompressedBuffedWriter;
+import com.github.housepower.buffer.CompressionMethod;
 import com.github.housepower.misc.Switcher;
 import com.github.housepower.settings.ClickHouseDefines;
 
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 public class BinarySerializer {
 
+    private static final int BULK_CHUNK_BYTES = 8192;
+
     private final Switcher<BuffedWriter> switcher;
     private final boolean enableCompress;
+    // staging area of bulk writes, fixed-width values are encoded through LE views and written in chunks
+    private final byte[] bulk = new byte[BULK_CHUNK_BYTES];
+    private final ByteBuffer bulkBuf = ByteBuffer.wrap(bulk).order(ByteOrder.LITTLE_ENDIAN);
 
     public BinarySerializer(BuffedWriter writer, boolean enableCompress) {
+        this(writer, enableCompress, CompressionMethod.LZ4);
+    }
+
+    public BinarySerializer(BuffedWriter writer, boolean enableCompress, CompressionMethod method) {
         this.enableCompress = enableCompress;
         BuffedWriter compressWriter = null;
         if (enableCompress) {
-            compressWriter = new CompressedBuffedWriter(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES, writer);
+            compressWriter = new CompressedBuffedWriter(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES, writer, method);
         }
         switcher = new Switcher<>(compressWriter, writer);
     }
@@ -62,36 +75,19 @@ public class BinarySerializer {
         writeVarInt((byte) (x ? 1 : 0));
     }
 
-    @SuppressWarnings("PointlessBitwiseExpression")
     public void writeShort(short i) throws IOException {
-        // @formatter:off
-        switcher.get().writeBinary((byte) ((i >> 0) & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 8) & 0xFF));
-        // @formatter:on
+        bulkBuf.putShort(0, i);
+        switcher.get().writeBinary(bulk, 0, Short.BYTES);
     }
 
-    @SuppressWarnings("PointlessBitwiseExpression")
     public void writeInt(int i) throws IOException {
-        // @formatter:off
-        switcher.get().writeBinary((byte) ((i >> 0)  & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 8)  & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 16) & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 24) & 0xFF));
-        // @formatter:on
+        bulkBuf.putInt(0, i);
+        switcher.get().writeBinary(bulk, 0, Integer.BYTES);
     }
 
-    @SuppressWarnings("PointlessBitwiseExpression")
     public void writeLong(long i) throws IOException {
-        // @formatter:off
-        switcher.get().writeBinary((byte) ((i >> 0)  & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 8)  & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 16) & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 24) & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 32) & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 40) & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 48) & 0xFF));
-        switcher.get().writeBinary((byte) ((i >> 56) & 0xFF));
-        // @formatter:on
+        bulkBuf.putLong(0, i);
+        switcher.get().writeBinary(bulk, 0, Long.BYTES);
     }
 
     public void writeUTF8StringBinary(String utf8) throws IOException {
@@ -130,22 +126,95 @@ public class BinarySerializer {
         writeInt(x);
     }
 
-    @SuppressWarnings("PointlessBitwiseExpression")
     public void writeDouble(double datum) throws IOException {
-        long x = Double.doubleToLongBits(datum);
-        // @formatter:off
-        switcher.get().writeBinary((byte) ((x >>> 0)  & 0xFF));
-        switcher.get().writeBinary((byte) ((x >>> 8)  & 0xFF));
-        switcher.get().writeBinary((byte) ((x >>> 16) & 0xFF));
-        switcher.get().writeBinary((byte) ((x >>> 24) & 0xFF));
-        switcher.get().writeBinary((byte) ((x >>> 32) & 0xFF));
-        switcher.get().writeBinary((byte) ((x >>> 40) & 0xFF));
-        switcher.get().writeBinary((byte) ((x >>> 48) & 0xFF));
-        switcher.get().writeBinary((byte) ((x >>> 56) & 0xFF));
-        // @formatter:on
+        bulkBuf.putDouble(0, datum);
+        switcher.get().writeBinary(bulk, 0, Double.BYTES);
     }
 
     public void writeBytes(byte[] bytes) throws IOException {
         switcher.get().writeBinary(bytes);
     }
+
+    public void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        switcher.get().writeBinary(bytes, offset, length);
+    }
+
+    public void writeBytes(ByteBuffer bytes) throws IOException {
+        switcher.get().writeBinary(bytes);
+    }
+
+    public void writeShorts(short[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int cnt = Math.min(length, BULK_CHUNK_BYTES / Short.BYTES);
+            clearBulk().asShortBuffer().put(src, offset, cnt);
+            switcher.get().writeBinary(bulk, 0, cnt * Short.BYTES);
+            offset += cnt;
+            length -= cnt;
+        }
+    }
+
+    public void writeInts(int[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int cnt = Math.min(length, BULK_CHUNK_BYTES / Integer.BYTES);
+            clearBulk().asIntBuffer().put(src, offset, cnt);
+            switcher.get().writeBinary(bulk, 0, cnt * Integer.BYTES);
+            offset += cnt;
+            length -= cnt;
+        }
+    }
+
+    public void writeLongs(long[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int cnt = Math.min(length, BULK_CHUNK_BYTES / Long.BYTES);
+            clearBulk().asLongBuffer().put(src, offset, cnt);
+            switcher.get().writeBinary(bulk, 0, cnt * Long.BYTES);
+            offset += cnt;
+            length -= cnt;
+        }
+    }
+
+    public void writeFloats(float[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int cnt = Math.min(length, BULK_CHUNK_BYTES / Float.BYTES);
+            clearBulk().asFloatBuffer().put(src, offset, cnt);
+            switcher.get().writeBinary(bulk, 0, cnt * Float.BYTES);
+            offset += cnt;
+            length -= cnt;
+        }
+    }
+
+    public void writeDoubles(double[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int cnt = Math.min(length, BULK_CHUNK_BYTES / Double.BYTES);
+            clearBulk().asDoubleBuffer().put(src, offset, cnt);
+            switcher.get().writeBinary(bulk, 0, cnt * Double.BYTES);
+            offset += cnt;
+            length -= cnt;
+        }
+    }
+
+    public void writeShorts(short[] src) throws IOException {
+        writeShorts(src, 0, src.length);
+    }
+
+    public void writeInts(int[] src) throws IOException {
+        writeInts(src, 0, src.length);
+    }
+
+    public void writeLongs(long[] src) throws IOException {
+        writeLongs(src, 0, src.length);
+    }
+
+    public void writeFloats(float[] src) throws IOException {
+        writeFloats(src, 0, src.length);
+    }
+
+    public void writeDoubles(double[] src) throws IOException {
+        writeDoubles(src, 0, src.length);
+    }
+
+    private ByteBuffer clearBulk() {
+        ((Buffer) bulkBuf).clear();
+        return bulkBuf;
+    }
 }
@@ -39,10 +39,21 @@ public class ClickHouseConfig implements Serializable {
     private final String charset; // use String because Charset is not serializable
     private final Map<SettingKey, Serializable> settings;
     private final boolean tcpKeepAlive;
+    private final Duration keepAliveInterval;
+    private final Duration validateAfterInactivity;
+    private final boolean useNio;
+    private final boolean resultPrefetch;
+    private final boolean lazyDecode;
+    private final boolean recycleBlocks;
+    private final long insertFlushRows;
+    private final long insertFlushBytes;
 
     private ClickHouseConfig(String host, int port, String database, String user, String password,
                              Duration queryTimeout, Duration connectTimeout, boolean tcpKeepAlive,
-                             String charset, Map<SettingKey, Serializable> settings) {
+                             Duration keepAliveInterval, Duration validateAfterInactivity, boolean useNio,
+                             boolean resultPrefetch, boolean lazyDecode, boolean recycleBlocks,
+                             long insertFlushRows, long insertFlushBytes, String charset,
+                             Map<SettingKey, Serializable> settings) {
         this.host = host;
         this.port = port;
         this.database = database;
@@ -51,6 +62,14 @@ public class ClickHouseConfig implements Serializable {
         this.queryTimeout = queryTimeout;
         this.connectTimeout = connectTimeout;
         this.tcpKeepAlive = tcpKeepAlive;
+        this.keepAliveInterval = keepAliveInterval;
+        this.validateAfterInactivity = validateAfterInactivity;
+        this.useNio = useNio;
+        this.resultPrefetch = resultPrefetch;
+        this.lazyDecode = lazyDecode;
+        this.recycleBlocks = recycleBlocks;
+        this.insertFlushRows = insertFlushRows;
+        this.insertFlushBytes = insertFlushBytes;
         this.charset = charset;
         this.settings = settings;
     }
@@ -87,13 +106,53 @@ public class ClickHouseConfig implements Serializable {
         return Charset.forName(charset);
     }
 
+    public Duration keepAliveInterval() {
+        return this.keepAliveInterval;
+    }
+
+    public Duration validateAfterInactivity() {
+        return this.validateAfterInactivity;
+    }
+
+    public boolean useNio() {
+        return this.useNio;
+    }
+
+    public boolean resultPrefetch() {
+        return this.resultPrefetch;
+    }
+
+    public boolean lazyDecode() {
+        return this.lazyDecode;
+    }
+
+    public boolean recycleBlocks() {
+        return this.recycleBlocks;
+    }
+
+    public long insertFlushRows() {
+        return this.insertFlushRows;
+    }
+
+    public long insertFlushBytes() {
+        return this.insertFlushBytes;
+    }
+
     public String jdbcUrl() {
         StringBuilder builder = new StringBuilder(ClickhouseJdbcUrlParser.JDBC_CLICKHOUSE_PREFIX)
                 .append("//").append(host).append(":").append(port).append("/").append(database)
                 .append("?").append(SettingKey.query_timeout.name()).append("=").append(queryTimeout.getSeconds())
                 .append("&").append(SettingKey.connect_timeout.name()).append("=").append(connectTimeout.getSeconds())
                 .append("&").append(SettingKey.charset.name()).append("=").append(charset)
-                .append("&").append(SettingKey.tcp_keep_alive.name()).append("=").append(tcpKeepAlive);
+                .append("&").append(SettingKey.tcp_keep_alive.name()).append("=").append(tcpKeepAlive)
+                .append("&").append(SettingKey.keep_alive_interval.name()).append("=").append(keepAliveInterval.getSeconds())
+                .append("&").append(SettingKey.validate_after_inactivity.name()).append("=").append(validateAfterInactivity.getSeconds())
+                .append("&").append(SettingKey.use_nio.name()).append("=").append(useNio)
+                .append("&").append(SettingKey.result_prefetch.name()).append("=").append(resultPrefetch)
+                .append("&").append(SettingKey.lazy_decode.name()).append("=").append(lazyDecode)
+                .append("&").append(SettingKey.recycle_blocks.name()).append("=").append(recycleBlocks)
+                .append("&").append(SettingKey.insert_flush_rows.name()).append("=").append(insertFlushRows)
+                .append("&").append(SettingKey.insert_flush_bytes.name()).append("=").append(insertFlushBytes);
 
         for (Map.Entry<SettingKey, Serializable> entry : settings.entrySet()) {
             builder.append("&").append(entry.getKey().name()).append("=").append(entry.getValue());
@@ -137,6 +196,43 @@ public class ClickHouseConfig implements Serializable {
                 .build();
     }
 
+    public ClickHouseConfig withKeepAliveInterval(Duration interval) {
+        return Builder.builder(this)
+                .keepAliveInterval(interval)
+                .build();
+    }
+
+    public ClickHouseConfig withNio(boolean enable) {
+        return Builder.builder(this)
+                .useNio(enable)
+                .build();
+    }
+
+    public ClickHouseConfig withResultPrefetch(boolean enable) {
+        return Builder.builder(this)
+                .resultPrefetch(enable)
+                .build();
+    }
+
+    public ClickHouseConfig withLazyDecode(boolean enable) {
+        return Builder.builder(this)
+                .lazyDecode(enable)
+                .build();
+    }
+
+    public ClickHouseConfig withRecycleBlocks(boolean enable) {
+        return Builder.builder(this)
+                .recycleBlocks(enable)
+                .build();
+    }
+
+    public ClickHouseConfig withInsertFlush(long rows, long bytes) {
+        return Builder.builder(this)
+                .insertFlushRows(rows)
+                .insertFlushBytes(bytes)
+                .build();
+    }
+
     public ClickHouseConfig withCharset(Charset charset) {
         return Builder.builder(this)
                 .charset(charset)
@@ -181,6 +277,14 @@ public class ClickHouseConfig implements Serializable {
         private Duration connectTimeout;
         private Duration queryTimeout;
         private boolean tcpKeepAlive;
+        private Duration keepAliveInterval;
+        private Duration validateAfterInactivity;
+        private boolean useNio;
+        private boolean resultPrefetch;
+        private boolean lazyDecode;
+        private boolean recycleBlocks;
+        private long insertFlushRows;
+        private long insertFlushBytes;
         private Charset charset;
         private Map<SettingKey, Serializable> settings = new HashMap<>();
 
@@ -202,6 +306,14 @@ public class ClickHouseConfig implements Serializable {
                     .queryTimeout(cfg.queryTimeout())
                     .charset(cfg.charset())
                     .tcpKeepAlive(cfg.tcpKeepAlive())
+                    .keepAliveInterval(cfg.keepAliveInterval())
+                    .validateAfterInactivity(cfg.validateAfterInactivity())
+                    .useNio(cfg.useNio())
+                    .resultPrefetch(cfg.resultPrefetch())
+                    .lazyDecode(cfg.lazyDecode())
+                    .recycleBlocks(cfg.recycleBlocks())
+                    .insertFlushRows(cfg.insertFlushRows())
+                    .insertFlushBytes(cfg.insertFlushBytes())
                     .withSettings(cfg.settings());
         }
 
@@ -255,6 +367,46 @@ public class ClickHouseConfig implements Serializable {
             return this;
         }
 
+        public Builder keepAliveInterval(Duration keepAliveInterval) {
+            this.withSetting(SettingKey.keep_alive_interval, keepAliveInterval);
+            return this;
+        }
+
+        public Builder validateAfterInactivity(Duration validateAfterInactivity) {
+            this.withSetting(SettingKey.validate_after_inactivity, validateAfterInactivity);
+            return this;
+        }
+
+        public Builder useNio(boolean useNio) {
+            this.withSetting(SettingKey.use_nio, useNio);
+            return this;
+        }
+
+        public Builder resultPrefetch(boolean resultPrefetch) {
+            this.withSetting(SettingKey.result_prefetch, resultPrefetch);
+            return this;
+        }
+
+        public Builder lazyDecode(boolean lazyDecode) {
+            this.withSetting(SettingKey.lazy_decode, lazyDecode);
+            return this;
+        }
+
+        public Builder recycleBlocks(boolean recycleBlocks) {
+            this.withSetting(SettingKey.recycle_blocks, recycleBlocks);
+            return this;
+        }
+
+        public Builder insertFlushRows(long insertFlushRows) {
+            this.withSetting(SettingKey.insert_flush_rows, insertFlushRows);
+            return this;
+        }
+
+        public Builder insertFlushBytes(long insertFlushBytes) {
+            this.withSetting(SettingKey.insert_flush_bytes, insertFlushBytes);
+            return this;
+        }
+
         public Builder charset(String charset) {
             this.withSetting(SettingKey.charset, charset);
             return this;
@@ -292,13 +444,27 @@ public class ClickHouseConfig implements Serializable {
             this.connectTimeout = (Duration) this.settings.getOrDefault(SettingKey.connect_timeout, Duration.ZERO);
             this.queryTimeout = (Duration) this.settings.getOrDefault(SettingKey.query_timeout, Duration.ZERO);
             this.tcpKeepAlive = (boolean) this.settings.getOrDefault(SettingKey.tcp_keep_alive, false);
+            this.keepAliveInterval = (Duration) this.settings.getOrDefault(SettingKey.keep_alive_interval, Duration.ZERO);
+            this.validateAfterInactivity = (Duration) this.settings.getOrDefault(SettingKey.validate_after_inactivity, Duration.ofSeconds(5));
+            this.useNio = (boolean) this.settings.getOrDefault(SettingKey.use_nio, false);
+            this.resultPrefetch = (boolean) this.settings.getOrDefault(SettingKey.result_prefetch, false);
+            this.lazyDecode = (boolean) this.settings.getOrDefault(SettingKey.lazy_decode, false);
+            this.recycleBlocks = (boolean) this.settings.getOrDefault(SettingKey.recycle_blocks, false);
+            this.insertFlushRows = ((Number) this.settings.getOrDefault(SettingKey.insert_flush_rows,
+                    this.settings.getOrDefault(SettingKey.max_insert_block_size,
+                            ClickHouseDefines.DEFAULT_INSERT_FLUSH_ROWS))).longValue();
+            this.insertFlushBytes = ((Number) this.settings.getOrDefault(SettingKey.insert_flush_bytes,
+                    ClickHouseDefines.DEFAULT_INSERT_FLUSH_BYTES)).longValue();
             this.charset = Charset.forName((String) this.settings.getOrDefault(SettingKey.charset, "UTF-8"));
 
             revisit();
             purgeSettings();
 
             return new ClickHouseConfig(
-                    host, port, database, user, password, queryTimeout, connectTimeout, tcpKeepAlive, charset.name(), settings);
+                    host, port, database, user, password, queryTimeout, connectTimeout, tcpKeepAlive,
+                    keepAliveInterval, validateAfterInactivity, useNio,
+                    resultPrefetch, lazyDecode, recycleBlocks, insertFlushRows, insertFlushBytes,
+                    charset.name(), settings);
         }
 
         private void revisit() {
@@ -309,6 +475,10 @@ public class ClickHouseConfig implements Serializable {
             if (StrUtil.isBlank(this.database)) this.database = "default";
             if (this.queryTimeout.isNegative()) this.queryTimeout = Duration.ZERO;
             if (this.connectTimeout.isNegative()) this.connectTimeout = Duration.ZERO;
+            if (this.keepAliveInterval.isNegative()) this.keepAliveInterval = Duration.ZERO;
+            if (this.validateAfterInactivity.isNegative()) this.validateAfterInactivity = Duration.ZERO;
+            if (this.insertFlushRows < 0) this.insertFlushRows = 0;
+            if (this.insertFlushBytes < 0) this.insertFlushBytes = 0;
         }
 
         private void purgeSettings() {
@@ -321,6 +491,14 @@ public class ClickHouseConfig implements Serializable {
             this.settings.remove(SettingKey.connect_timeout);
             this.settings.remove(SettingKey.tcp_keep_alive);
             this.settings.remove(SettingKey.charset);
+            this.settings.remove(SettingKey.keep_alive_interval);
+            this.settings.remove(SettingKey.validate_after_inactivity);
+            this.settings.remove(SettingKey.use_nio);
+            this.settings.remove(SettingKey.result_prefetch);
+            this.settings.remove(SettingKey.lazy_decode);
+            this.settings.remove(SettingKey.recycle_blocks);
+            this.settings.remove(SettingKey.insert_flush_rows);
+            this.settings.remove(SettingKey.insert_flush_bytes);
         }
     }
 }
@@ -21,15 +21,31 @@ public class ClickHouseDefines {
 
     public static final int MAJOR_VERSION = 1;
     public static final int MINOR_VERSION = 1;
-    public static final int CLIENT_REVISION = 54380;
+    public static final int PATCH_VERSION = 0;
+    public static final int CLIENT_REVISION = 54405;
     public static final int DBMS_MIN_REVISION_WITH_SERVER_TIMEZONE = 54058;
     public static final int DBMS_MIN_REVISION_WITH_SERVER_DISPLAY_NAME = 54372;
+    public static final int DBMS_MIN_REVISION_WITH_VERSION_PATCH = 54401;
+    public static final int DBMS_MIN_REVISION_WITH_LOW_CARDINALITY_TYPE = 54405;
 
     public static final int MAX_BLOCK_BYTES = 1024 * 1024 * 10;
     public static int SOCKET_SEND_BUFFER_BYTES = 1024 * 1024;
     public static int SOCKET_RECV_BUFFER_BYTES = 1024 * 1024;
 
+    // max segment size of column write buffers, segments start from 4K and grow up to this
     public static int COLUMN_BUFFER_BYTES = 1024 * 1024;
+    // free column buffer segments kept for reuse, shared by all connections, read once on first insert
+    public static long COLUMN_BUFFER_POOL_BYTES = 64L * 1024 * 1024;
+    // allocate column buffer segments off-heap, read once on first insert
+    public static boolean COLUMN_BUFFER_DIRECT = false;
+    // frames larger than this are decompressed into one-off arrays instead of the reused ones
+    public static int COMPRESSED_BUFFER_RETAINED_BYTES = MAX_BLOCK_BYTES;
+    // rows read ahead of the consumer in result prefetch mode, if fetch size is not specified
+    public static int DEFAULT_PREFETCH_ROWS = 4 * 65536;
+    // rows and bytes of a streaming insert block, as the server defaults of max_insert_block_size
+    // and min_insert_block_size_bytes
+    public static long DEFAULT_INSERT_FLUSH_ROWS = 1048576;
+    public static long DEFAULT_INSERT_FLUSH_BYTES = 256L * 1024 * 1024;
 
     public static final int DATA_TYPE_CACHE_SIZE = 1024;
 
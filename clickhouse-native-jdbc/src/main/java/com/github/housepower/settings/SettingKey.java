@@ -329,6 +329,12 @@ public class SettingKey implements Serializable {
             .withDescription("Allows you to use more sources than the number of threads - to more evenly distribute work across threads. It is assumed that this is a temporary solution, since it will be possible in the future to make the number of sources equal to the number of threads, but for each source to dynamically select available work for itself.")
             .build();
 
+    public static SettingKey network_compression_method = SettingKey.builder()
+            .withName("network_compression_method")
+            .withType(SettingType.UTF8)
+            .withDescription("Allows you to select the method of data compression when writing, LZ4 (default), ZSTD or NONE.")
+            .build();
+
     public static SettingKey network_zstd_compression_level = SettingKey.builder()
             .withName("network_zstd_compression_level")
             .withType(SettingType.Int64)
@@ -840,6 +846,54 @@ public class SettingKey implements Serializable {
             .withDescription("charset for converting between Bytes and String")
             .build();
 
+    public static SettingKey keep_alive_interval = SettingKey.builder()
+            .withName("keep_alive_interval")
+            .withType(SettingType.Seconds)
+            .withDescription("interval of background ping on idle connections, 0 means disabled")
+            .build();
+
+    public static SettingKey validate_after_inactivity = SettingKey.builder()
+            .withName("validate_after_inactivity")
+            .withType(SettingType.Seconds)
+            .withDescription("ping the server before a query only if the connection was idle longer than this")
+            .build();
+
+    public static SettingKey use_nio = SettingKey.builder()
+            .withName("use_nio")
+            .withType(SettingType.Bool)
+            .withDescription("use non-blocking SocketChannel with direct buffers instead of Socket streams")
+            .build();
+
+    public static SettingKey result_prefetch = SettingKey.builder()
+            .withName("result_prefetch")
+            .withType(SettingType.Bool)
+            .withDescription("read and decode result blocks ahead of the consumer in background, Statement#setFetchSize limits the rows read ahead")
+            .build();
+
+    public static SettingKey lazy_decode = SettingKey.builder()
+            .withName("lazy_decode")
+            .withType(SettingType.Bool)
+            .withDescription("retain the bytes of result columns and decode each column on its first access only")
+            .build();
+
+    public static SettingKey recycle_blocks = SettingKey.builder()
+            .withName("recycle_blocks")
+            .withType(SettingType.Bool)
+            .withDescription("decode the following result blocks of a query into the columns of the blocks already consumed")
+            .build();
+
+    public static SettingKey insert_flush_rows = SettingKey.builder()
+            .withName("insert_flush_rows")
+            .withType(SettingType.Int64)
+            .withDescription("send the rows of an insert batch as a block once it reaches the rows, 0 to send the batch as one block, defaults to max_insert_block_size")
+            .build();
+
+    public static SettingKey insert_flush_bytes = SettingKey.builder()
+            .withName("insert_flush_bytes")
+            .withType(SettingType.Int64)
+            .withDescription("send the rows of an insert batch as a block once it reaches the serialized bytes, 0 to send the batch as one block")
+            .build();
+
 
     public static Builder builder() {
         return new Builder();
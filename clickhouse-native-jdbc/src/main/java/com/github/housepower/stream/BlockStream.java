@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.stream;
+
+import com.github.housepower.data.Block;
+import com.github.housepower.data.vector.VectorBlock;
+import com.github.housepower.misc.CheckedIterator;
+import com.github.housepower.misc.Validate;
+import com.github.housepower.protocol.DataResponse;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+
+/**
+ * The non-empty blocks of a query result in the order they arrive, obtained by
+ * {@code ResultSet#unwrap(BlockStream.class)} before the first {@code ResultSet#next()}.
+ * <p>
+ * A block is released when {@link #hasNext()} or {@link #next()} is called again, the vectors taken from it
+ * must not be used afterwards, since its storage may be reused by the following blocks.
+ */
+public class BlockStream implements CheckedIterator<VectorBlock, SQLException> {
+
+    private final CheckedIterator<DataResponse, SQLException> dataResponses;
+    @Nullable
+    private final QueryResult result;
+    @Nullable
+    private Block current;
+    @Nullable
+    private Block next;
+
+    public BlockStream(CheckedIterator<DataResponse, SQLException> dataResponses, @Nullable QueryResult result) {
+        this.dataResponses = dataResponses;
+        this.result = result;
+    }
+
+    @Override
+    public boolean hasNext() throws SQLException {
+        if (next != null) {
+            return true;
+        }
+        release(current);
+        current = null;
+        while (dataResponses.hasNext()) {
+            Block block = dataResponses.next().block();
+            if (block.rowCnt() > 0) {
+                next = block;
+                return true;
+            }
+            release(block);
+        }
+        return false;
+    }
+
+    @Override
+    public VectorBlock next() throws SQLException {
+        Validate.isTrue(hasNext(), "No more blocks in the result");
+        current = next;
+        next = null;
+        return new VectorBlock(current);
+    }
+
+    private void release(@Nullable Block block) {
+        if (block != null && result != null) {
+            result.recycle(block);
+        }
+    }
+}
@@ -15,17 +15,21 @@
 package com.github.housepower.stream;
 
 import com.github.housepower.data.Block;
+import com.github.housepower.data.BlockRecycler;
 import com.github.housepower.misc.CheckedIterator;
 import com.github.housepower.misc.CheckedSupplier;
 import com.github.housepower.protocol.DataResponse;
 import com.github.housepower.protocol.EOFStreamResponse;
 import com.github.housepower.protocol.Response;
 
+import javax.annotation.Nullable;
 import java.sql.SQLException;
 
 public class ClickHouseQueryResult implements QueryResult {
 
     private final CheckedSupplier<Response, SQLException> responseSupplier;
+    @Nullable
+    private final BlockRecycler recycler;
     private Block header;
     private boolean atEnd;
     // Progress
@@ -35,7 +39,13 @@ public class ClickHouseQueryResult implements QueryResult {
     // EndOfStream
 
     public ClickHouseQueryResult(CheckedSupplier<Response, SQLException> responseSupplier) {
+        this(responseSupplier, null);
+    }
+
+    public ClickHouseQueryResult(CheckedSupplier<Response, SQLException> responseSupplier,
+                                 @Nullable BlockRecycler recycler) {
         this.responseSupplier = responseSupplier;
+        this.recycler = recycler;
     }
 
     @Override
@@ -77,6 +87,21 @@ public class ClickHouseQueryResult implements QueryResult {
         };
     }
 
+    @Override
+    public void recycle(Block block) {
+        // the data types of the header are shared by the following blocks
+        if (recycler != null && block != header) {
+            recycler.release(block);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (responseSupplier instanceof ResponsePrefetcher) {
+            ((ResponsePrefetcher) responseSupplier).cancel();
+        }
+    }
+
     private void ensureHeaderConsumed() throws SQLException {
         if (header == null) {
             DataResponse firstDataResponse = consumeDataResponse();
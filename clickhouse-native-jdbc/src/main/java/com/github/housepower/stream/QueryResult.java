@@ -25,4 +25,18 @@ public interface QueryResult {
     Block header() throws SQLException;
 
     CheckedIterator<DataResponse, SQLException> data();
+
+    /**
+     * Called when the consumer has advanced past a block of {@link #data()}, the block must not be accessed
+     * afterwards, its storage may be reused by the following blocks.
+     */
+    default void recycle(Block block) {
+    }
+
+    /**
+     * Called when the consumer stops reading before the end of {@link #data()}, the responses read in background
+     * are dropped.
+     */
+    default void cancel() {
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.stream;
+
+import com.github.housepower.log.Logger;
+import com.github.housepower.log.LoggerFactory;
+import com.github.housepower.misc.CheckedSupplier;
+import com.github.housepower.protocol.DataResponse;
+import com.github.housepower.protocol.EOFStreamResponse;
+import com.github.housepower.protocol.Response;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pull responses from upstream in a background thread, so that socket reading, decompression and
+ * block decoding overlap with the consumer. At most {@code maxRows} rows are buffered, but at least
+ * one response, whatever its size.
+ */
+public class ResponsePrefetcher implements CheckedSupplier<Response, SQLException> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResponsePrefetcher.class);
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "clickhouse-prefetch-" + THREAD_ID.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // the producer re-checks whether the consumer has abandoned the result at this interval
+    private static final long ABANDON_CHECK_MILLIS = 1000;
+
+    private static final Object END = new Object();
+
+    private final CheckedSupplier<Response, SQLException> upstream;
+    private final int maxRows;
+    private final BooleanSupplier abandoned;
+
+    // guarded by this
+    private final Queue<Object> queue = new ArrayDeque<>();
+    private int queuedRows;
+    private volatile boolean cancelled;
+
+    public ResponsePrefetcher(CheckedSupplier<Response, SQLException> upstream, int maxRows, BooleanSupplier abandoned) {
+        this.upstream = upstream;
+        this.maxRows = maxRows;
+        this.abandoned = abandoned;
+        EXECUTOR.execute(this::produce);
+    }
+
+    @Override
+    @Nullable
+    public Response get() throws SQLException {
+        Object head;
+        synchronized (this) {
+            while ((head = queue.peek()) == null) {
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for prefetched response", ex);
+                }
+            }
+            if (head == END) {
+                return null;
+            }
+            queue.poll();
+            queuedRows -= rows(head);
+            notifyAll();
+        }
+        if (head instanceof SQLException) {
+            throw (SQLException) head;
+        }
+        if (head instanceof RuntimeException) {
+            throw (RuntimeException) head;
+        }
+        return (Response) head;
+    }
+
+    /**
+     * Stop prefetching and drop the responses read ahead, e.g. when the result set is closed before its end or
+     * the connection is closed. The producer stops on its next offer, a blocking read is ended by closing the
+     * connection.
+     */
+    public void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            // END is kept for the consumer
+            queue.removeIf(element -> element != END);
+            queuedRows = 0;
+            notifyAll();
+        }
+    }
+
+    private void produce() {
+        try {
+            while (true) {
+                Response response = upstream.get();
+                if (response == null || !offer(response) || response instanceof EOFStreamResponse) {
+                    break;
+                }
+            }
+        } catch (SQLException | RuntimeException ex) {
+            offer(ex);
+        } finally {
+            end();
+        }
+    }
+
+    private synchronized boolean offer(Object element) {
+        int rows = rows(element);
+        while (true) {
+            // also re-checked after waiting, the queue is emptied by cancel
+            if (cancelled) {
+                LOG.debug("prefetching is cancelled");
+                return false;
+            }
+            if (queue.isEmpty() || queuedRows + rows <= maxRows) {
+                break;
+            }
+            if (abandoned.getAsBoolean()) {
+                LOG.debug("result is abandoned, stop prefetching");
+                return false;
+            }
+            try {
+                wait(ABANDON_CHECK_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        queue.add(element);
+        queuedRows += rows;
+        notifyAll();
+        return true;
+    }
+
+    private synchronized void end() {
+        queue.add(END);
+        notifyAll();
+    }
+
+    private static int rows(Object element) {
+        return element instanceof DataResponse ? ((DataResponse) element).block().rowCnt() : 0;
+    }
+}
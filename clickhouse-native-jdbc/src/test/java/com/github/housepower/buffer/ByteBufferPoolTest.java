@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBufferPoolTest {
+
+    @Test
+    public void successfullyRoundUpAndReuseSegments() {
+        ByteBufferPool pool = new ByteBufferPool(1024 * 1024, false);
+        assertEquals(4096, pool.acquire(10).capacity());
+        assertEquals(16 * 1024, pool.acquire(4097).capacity());
+        assertEquals(16 * 1024, pool.acquire(16 * 1024).capacity());
+
+        ByteBuffer segment = pool.acquire(64 * 1024);
+        segment.put((byte) 1);
+        pool.release(segment);
+        assertEquals(64 * 1024, pool.retainedBytes());
+
+        ByteBuffer reused = pool.acquire(40 * 1024);
+        assertSame(segment, reused);
+        assertEquals(0, reused.position());
+        assertEquals(0, pool.retainedBytes());
+    }
+
+    @Test
+    public void successfullyDropSegmentsBeyondCap() {
+        ByteBufferPool pool = new ByteBufferPool(16 * 1024, false);
+        pool.release(pool.acquire(16 * 1024));
+        pool.release(pool.acquire(4096));
+        assertEquals(16 * 1024, pool.retainedBytes());
+        // not a size class, e.g. allocated by someone else
+        pool.release(ByteBuffer.allocate(100));
+        assertEquals(16 * 1024, pool.retainedBytes());
+    }
+
+    @Test
+    public void successfullyGrowSegmentsAndRelease() throws Exception {
+        ByteBufferPool pool = new ByteBufferPool(1024 * 1024, true);
+        ByteArrayWriter writer = new ByteArrayWriter(64 * 1024, pool);
+        byte[] data = new byte[100 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        writer.writeBinary((byte) -1);
+        writer.writeBinary(data);
+        assertEquals(1 + data.length, writer.size());
+
+        List<ByteBuffer> segments = writer.getBufferList();
+        assertEquals(4, segments.size());
+        assertEquals(4096, segments.get(0).capacity());
+        assertEquals(16 * 1024, segments.get(1).capacity());
+        assertEquals(64 * 1024, segments.get(2).capacity());
+        assertEquals(64 * 1024, segments.get(3).capacity());
+        assertTrue(segments.get(0).isDirect());
+
+        ByteArrayWriter target = new ByteArrayWriter(256 * 1024);
+        CompressedBuffedWriter compressed = new CompressedBuffedWriter(1000, target);
+        for (ByteBuffer segment : segments) {
+            ((Buffer) segment).flip();
+            compressed.writeBinary(segment);
+        }
+        compressed.flushToTarget(true);
+
+        ByteBuffer frames = target.getBufferList().get(0);
+        byte[] written = new byte[frames.position()];
+        ((Buffer) frames).flip();
+        frames.get(written);
+        CompressedBuffedReader reader = new CompressedBuffedReader(new FragmentBuffedReader(written));
+        assertEquals(-1, (byte) reader.readBinary());
+        byte[] bytes = new byte[data.length];
+        reader.readBinary(bytes);
+        assertArrayEquals(data, bytes);
+
+        writer.release();
+        assertEquals(0, writer.size());
+        assertTrue(writer.getBufferList().isEmpty());
+        assertEquals((4 + 16 + 64 + 64) * 1024, pool.retainedBytes());
+    }
+}
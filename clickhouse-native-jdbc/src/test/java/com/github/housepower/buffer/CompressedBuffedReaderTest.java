@@ -22,6 +22,8 @@ import org.junit.jupiter.api.Test;
 import static com.github.housepower.settings.ClickHouseDefines.CHECKSUM_LENGTH;
 import static com.github.housepower.settings.ClickHouseDefines.COMPRESSION_HEADER_LENGTH;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,6 +51,54 @@ public class CompressedBuffedReaderTest {
         assertEquals(compressedBuffed.readBinary(), 7);
     }
 
+    @Test
+    public void successfullyReadFramesLargerThanRetainedBuffer() throws Exception {
+        byte[] large = new byte[64];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        CompressedBuffedReader compressedBuffed = new CompressedBuffedReader(
+            new FragmentBuffedReader(compressedData(new byte[] {1, 2}), compressedData(large), compressedData(new byte[] {3})), 16
+        );
+
+        assertEquals(compressedBuffed.readBinary(), 1);
+        assertEquals(compressedBuffed.readBinary(), 2);
+
+        byte[] bytes = new byte[large.length];
+        compressedBuffed.readBinary(bytes);
+        assertArrayEquals(large, bytes);
+
+        assertEquals(compressedBuffed.readBinary(), 3);
+    }
+
+    @Test
+    public void successfullyReadDataWrittenByEachMethod() throws Exception {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 7);
+        }
+
+        for (CompressionMethod method : CompressionMethod.values()) {
+            ByteArrayWriter target = new ByteArrayWriter(1024);
+            CompressedBuffedWriter writer = new CompressedBuffedWriter(32, target, method);
+            // pending bytes followed by a chunk larger than the frame
+            writer.writeBinary((byte) -1);
+            writer.writeBinary(data);
+            writer.flushToTarget(true);
+
+            ByteBuffer frames = target.getBufferList().get(0);
+            byte[] written = new byte[frames.position()];
+            ((Buffer) frames).flip();
+            frames.get(written);
+            assertEquals(method.code(), written[CHECKSUM_LENGTH] & 0xFF);
+
+            CompressedBuffedReader reader = new CompressedBuffedReader(new FragmentBuffedReader(written));
+            assertEquals(-1, (byte) reader.readBinary());
+            byte[] bytes = new byte[data.length];
+            reader.readBinary(bytes);
+            assertArrayEquals(data, bytes, method.name());
+        }
+    }
 
     private byte[] compressedData(byte[] bytes) {
         Compressor lz4Compressor = new Lz4Compressor();
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SocketChannelBuffedTest {
+
+    @Test
+    public void successfullyWriteAndReadThroughChannel() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                 SocketChannel accepted = server.accept()) {
+                client.configureBlocking(false);
+                accepted.configureBlocking(false);
+
+                SocketChannelBuffedWriter writer = new SocketChannelBuffedWriter(client, 4);
+                SocketChannelBuffedReader reader = new SocketChannelBuffedReader(accepted, 3);
+
+                byte[] large = new byte[64];
+                for (int i = 0; i < large.length; i++) {
+                    large[i] = (byte) i;
+                }
+                writer.writeBinary((byte) 1);
+                writer.writeBinary(new byte[]{2, 3});
+                // larger than the buffer, written by gathering write
+                writer.writeBinary(large);
+                writer.writeBinary((byte) 4);
+                writer.flushToTarget(true);
+
+                assertEquals(1, reader.readBinary());
+                // the rest of the buffer is lent without copying
+                assertEquals(2, reader.bufferedBytes());
+                ByteBuffer buffered = reader.readBuffered(2);
+                assertEquals(2, buffered.get());
+                assertEquals(3, buffered.get());
+                assertEquals(0, reader.bufferedBytes());
+                byte[] bytes = new byte[large.length];
+                reader.readBinary(bytes);
+                assertArrayEquals(large, bytes);
+                assertEquals(4, reader.readBinary());
+
+                accepted.socket().setSoTimeout(10);
+                assertThrows(SocketTimeoutException.class, reader::readBinary);
+
+                writer.close();
+                reader.close();
+            }
+        }
+    }
+}
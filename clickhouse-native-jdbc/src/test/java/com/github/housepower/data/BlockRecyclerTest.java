@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.jdbc.tool.WrittenBytes;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockRecyclerTest {
+
+    private static final NativeContext.ServerContext CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().recycleBlocks(true).build(), ZoneId.of("UTC"), "localhost");
+
+    private static final String[] TYPES = {"Int64", "Nullable(String)", "Decimal(9,2)", "DateTime", "LowCardinality(String)",
+            "Nullable(Decimal(38,2))"};
+
+    @Test
+    public void successfullyDecodeIntoReleasedBlock() throws Exception {
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        BinarySerializer serializer = new BinarySerializer(writer, false);
+        writeBlock(serializer, 0, 10);
+        writeBlock(serializer, 10, 300);
+        writeBlock(serializer, 310, 5);
+
+        BinaryDeserializer deserializer = WrittenBytes.deserializer(writer);
+        BlockRecycler recycler = new BlockRecycler();
+        Block first = Block.readFrom(deserializer, CONTEXT, null, recycler);
+        assertBlock(first, 0, 10);
+        IColumn firstLongs = first.getColumn(0);
+        IColumn firstStrings = first.getColumn(1);
+        recycler.release(first);
+
+        Block second = Block.readFrom(deserializer, CONTEXT, first, recycler);
+        assertSame(first, second);
+        assertSame(firstLongs, second.getColumn(0));
+        assertSame(firstStrings, second.getColumn(1));
+        assertBlock(second, 10, 300);
+
+        // nothing released, the block is read as usual
+        Block third = Block.readFrom(deserializer, CONTEXT, second, recycler);
+        assertNotSame(second, third);
+        assertBlock(third, 310, 5);
+        assertEquals(4, third.getPositionByName("c3"));
+
+        // the storage only grows, the stale rows beyond the row count are not visible
+        recycler.release(second);
+        ByteArrayWriter next = new ByteArrayWriter(4096);
+        writeBlock(new BinarySerializer(next, false), 1000, 3);
+        Block fourth = Block.readFrom(WrittenBytes.deserializer(next), CONTEXT, third, recycler);
+        assertSame(second, fourth);
+        assertBlock(fourth, 1000, 3);
+    }
+
+    @Test
+    public void successfullyIgnoreMismatchedBlocks() throws Exception {
+        BlockRecycler recycler = new BlockRecycler();
+        recycler.release(new Block());
+        assertNull(recycler.poll(0));
+
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        writeBlock(new BinarySerializer(writer, false), 0, 2);
+        Block block = Block.readFrom(WrittenBytes.deserializer(writer), CONTEXT, null, recycler);
+        recycler.release(block);
+        assertNull(recycler.poll(TYPES.length + 1));
+        assertSame(block, recycler.poll(TYPES.length));
+        assertNull(recycler.poll(TYPES.length));
+    }
+
+    private static void writeBlock(BinarySerializer serializer, int start, int rows) throws Exception {
+        IColumn[] columns = new IColumn[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(TYPES[i], CONTEXT), null);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+        for (int row = start; row < start + rows; row++) {
+            block.setObject(0, (long) row);
+            block.setObject(1, row % 3 == 0 ? null : "s" + row);
+            block.setObject(2, BigDecimal.valueOf(row, 2));
+            block.setObject(3, Instant.ofEpochSecond(row).atZone(ZoneOffset.UTC));
+            block.setObject(4, "v" + row % 7);
+            block.setObject(5, row % 2 == 0 ? null : BigDecimal.valueOf(row, 2));
+            block.appendRow();
+        }
+        block.writeTo(serializer);
+    }
+
+    private static void assertBlock(Block block, int start, int rows) throws Exception {
+        assertEquals(rows, block.rowCnt());
+        for (int i = 0; i < rows; i++) {
+            int row = start + i;
+            assertEquals((long) row, block.getColumn(0).value(i));
+            assertEquals(row % 3 == 0 ? null : "s" + row, block.getColumn(1).value(i));
+            assertEquals(BigDecimal.valueOf(row, 2), block.getColumn(2).value(i));
+            assertEquals(row, block.getColumn(3).longValue(i) / 1000);
+            assertEquals("v" + row % 7, block.getColumn(4).value(i));
+            assertEquals(row % 2 == 0 ? null : BigDecimal.valueOf(row, 2), block.getColumn(5).value(i));
+        }
+    }
+}
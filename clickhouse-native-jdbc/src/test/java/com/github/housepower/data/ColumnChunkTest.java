@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.jdbc.tool.WrittenBytes;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnChunkTest {
+
+    private static final NativeContext.ServerContext CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "localhost");
+
+    private static final String[] TYPES = {"Int64", "Nullable(Int32)", "Float32", "String", "Nullable(String)",
+            "Date", "LowCardinality(String)", "Decimal(9,2)", "UInt8"};
+
+    @Test
+    public void successfullyAppendColumnChunks() throws Exception {
+        Block block = newBlock();
+        long[] longs = {-1, 10, 20, 30, -1};
+        int[] ints = {1, 2, 3};
+        BitSet nulls = new BitSet();
+        nulls.set(1);
+        block.setColumnChunk(0, ColumnChunk.of(longs, 1, 3, null));
+        block.setColumnChunk(1, ColumnChunk.of(ints, 0, 3, nulls));
+        block.setColumnChunk(2, ColumnChunk.of(new double[]{0.5, 1.5, 2.5}, 0, 3, null));
+        block.setColumnChunk(3, ColumnChunk.of(new byte[][]{bytes("a"), bytes(""), bytes("\u4f60")}, 0, 3, null));
+        block.setColumnChunk(4, ColumnChunk.of(new CharSequence[]{"x", null, "z"}, 0, 3, null));
+        block.setColumnChunk(5, ColumnChunk.of(new int[]{0, 1, 18_000}, 0, 3, null));
+        block.setColumnChunk(6, ColumnChunk.of(new CharSequence[]{"p", "q", "p"}, 0, 3, null));
+        block.setColumnChunk(7, ColumnChunk.of(new long[]{1, 250, -99}, 0, 3, null));
+        // the constant column repeats its current value
+        block.setObject(8, (short) 7);
+        assertTrue(block.hasColumnChunks());
+        block.appendColumnChunks();
+        assertFalse(block.hasColumnChunks());
+
+        // rows can still be appended one by one
+        Object[] row = {40L, null, 3.5F, "b", "w", LocalDate.ofEpochDay(2), "q", BigDecimal.valueOf(5, 2), (short) 8};
+        for (int i = 0; i < row.length; i++) {
+            block.setObject(i, row[i]);
+        }
+        block.appendRow();
+        assertEquals(4, block.rowCnt());
+
+        Block read = roundTrip(block);
+        assertEquals(4, read.rowCnt());
+        assertColumn(read, 0, 10L, 20L, 30L, 40L);
+        assertColumn(read, 1, 1, null, 3, null);
+        assertColumn(read, 2, 0.5F, 1.5F, 2.5F, 3.5F);
+        assertColumn(read, 3, "a", "", "\u4f60", "b");
+        assertColumn(read, 4, "x", null, "z", "w");
+        assertColumn(read, 5, LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(1), LocalDate.ofEpochDay(18_000),
+                LocalDate.ofEpochDay(2));
+        assertColumn(read, 6, "p", "q", "p", "q");
+        assertColumn(read, 7, new BigDecimal("0.01"), new BigDecimal("2.50"), new BigDecimal("-0.99"),
+                new BigDecimal("0.05"));
+        assertColumn(read, 8, (short) 7, (short) 7, (short) 7, (short) 8);
+    }
+
+    @Test
+    public void successfullyAppendStagedPrimitives() throws Exception {
+        Block block = newBlock();
+        Object[] row = {null, null, null, "s", null, null, "t", BigDecimal.ONE, null};
+        for (int i = 0; i < row.length; i++) {
+            block.setObject(i, row[i]);
+        }
+        for (int r = 0; r < 2; r++) {
+            block.setLong(0, 100 + r);
+            block.setLong(1, r);
+            block.setDouble(2, 0.25 + r);
+            block.setLong(5, 18_000 + r);
+            block.setLong(8, 200 + r);
+            block.appendRow();
+        }
+        // a value set as object replaces the staged primitive
+        block.setObject(1, null);
+        block.appendRow();
+        assertThrows(SQLException.class, () -> block.setLong(3, 1));
+        assertThrows(SQLException.class, () -> block.setDouble(0, 1));
+        assertThrows(SQLException.class, () -> block.setLong(6, 1));
+
+        Block read = roundTrip(block);
+        assertEquals(3, read.rowCnt());
+        assertColumn(read, 0, 100L, 101L, 101L);
+        assertColumn(read, 1, 0, 1, null);
+        assertColumn(read, 2, 0.25F, 1.25F, 1.25F);
+        assertColumn(read, 5, LocalDate.ofEpochDay(18_000), LocalDate.ofEpochDay(18_001),
+                LocalDate.ofEpochDay(18_001));
+        assertColumn(read, 8, (short) 200, (short) 201, (short) 201);
+    }
+
+    @Test
+    public void successfullyClearWrittenRows() throws Exception {
+        Block block = newBlock();
+        Object[] row = {1L, null, 0.5F, "a", "b", LocalDate.ofEpochDay(1), "c", BigDecimal.ONE, (short) 2};
+        for (int i = 0; i < row.length; i++) {
+            block.setObject(i, row[i]);
+        }
+        block.appendRow();
+        assertTrue(block.writtenBytes() > 0);
+        roundTrip(block);
+
+        // the staged values of the row are kept for the rows of the next block
+        block.clearWrittenRows();
+        assertEquals(0, block.rowCnt());
+        assertEquals(0, block.writtenBytes());
+        block.setLong(0, 3);
+        block.appendRow();
+        Block read = roundTrip(block);
+        assertEquals(1, read.rowCnt());
+        assertColumn(read, 0, 3L);
+        assertColumn(read, 1, (Object) null);
+        assertColumn(read, 4, "b");
+        assertColumn(read, 8, (short) 2);
+    }
+
+    @Test
+    public void failedWithInvalidChunks() throws Exception {
+        Block block = newBlock();
+        block.setColumnChunk(0, ColumnChunk.of(new long[2], 0, 2, null));
+        block.setColumnChunk(2, ColumnChunk.of(new double[3], 0, 3, null));
+        assertThrows(SQLException.class, block::appendColumnChunks);
+        assertFalse(block.hasColumnChunks());
+
+        BitSet nulls = new BitSet();
+        nulls.set(0);
+        block.setColumnChunk(0, ColumnChunk.of(new long[1], 0, 1, nulls));
+        SQLException ex = assertThrows(SQLException.class, block::appendColumnChunks);
+        assertEquals("Column c0 of type Int64 doesn't support null value", ex.getMessage());
+
+        block.setColumnChunk(3, ColumnChunk.of(new long[1], 0, 1, null));
+        ex = assertThrows(SQLException.class, block::appendColumnChunks);
+        assertEquals("Column c3 of type String can not be set from long[]", ex.getMessage());
+        assertEquals(0, block.rowCnt());
+
+        assertThrows(RuntimeException.class, () -> ColumnChunk.of(new long[2], 1, 2, null));
+    }
+
+    private static Block newBlock() throws SQLException {
+        IColumn[] columns = new IColumn[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(TYPES[i], CONTEXT), null);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+        return block;
+    }
+
+    private static void assertColumn(Block block, int idx, Object... expected) throws SQLException {
+        IColumn column = block.getColumn(idx);
+        for (int row = 0; row < expected.length; row++) {
+            Object value = column.value(row);
+            assertEquals(expected[row], value instanceof CharSequence ? value.toString() : value);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Block roundTrip(Block block) throws Exception {
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        block.writeTo(new BinarySerializer(writer, false));
+        return Block.readFrom(WrittenBytes.deserializer(writer), CONTEXT);
+    }
+}
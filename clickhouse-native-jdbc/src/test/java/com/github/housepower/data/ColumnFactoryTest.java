@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.type.complex.DataTypeNullable;
+import com.github.housepower.data.type.complex.DataTypeString;
+import com.github.housepower.jdbc.tool.WrittenBytes;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnFactoryTest {
+
+    @Test
+    public void successfullyReadPrimitiveColumnsAsBoxedBulk() throws Exception {
+        assertSameAsBulk("Int8", ColumnByte.class, (byte) -1, (byte) 0, Byte.MAX_VALUE);
+        assertSameAsBulk("UInt8", ColumnByte.class, (short) 255, (short) 0, (short) 1);
+        assertSameAsBulk("Int16", ColumnShort.class, (short) -1, Short.MIN_VALUE, Short.MAX_VALUE);
+        assertSameAsBulk("UInt16", ColumnShort.class, 65535, 0, 1);
+        assertSameAsBulk("Int32", ColumnInt.class, -1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertSameAsBulk("UInt32", ColumnInt.class, 4294967295L, 0L, 1L);
+        assertSameAsBulk("IPv4", ColumnInt.class, 3232235777L, 0L, 1L);
+        assertSameAsBulk("Int64", ColumnLong.class, -1L, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertSameAsBulk("UInt64", ColumnLong.class,
+                new BigInteger("18446744073709551615"), BigInteger.ZERO, BigInteger.ONE);
+        assertSameAsBulk("Float32", ColumnFloat.class, -1.5F, Float.NaN, Float.MAX_VALUE);
+        assertSameAsBulk("Float64", ColumnDouble.class, -1.5D, Double.NEGATIVE_INFINITY, Double.MIN_VALUE);
+        assertSameAsBulk("Nullable(Int64)", ColumnNullable.class, 1L, null, -1L);
+        assertSameAsBulk("Nullable(UUID)", ColumnNullable.class, new UUID(1, 2), null, new UUID(-1, 0));
+    }
+
+    @Test
+    public void successfullyReadTypedValuesWithoutBoxing() throws Exception {
+        IColumn uint64 = readColumn("UInt64", new BigInteger("18446744073709551615"), BigInteger.TEN);
+        assertEquals(-1L, uint64.longValue(0));
+        assertEquals(1.8446744073709552E19, uint64.doubleValue(0));
+        assertEquals(10, uint64.intValue(1));
+
+        IColumn uint32 = readColumn("UInt32", 4294967295L);
+        assertEquals(4294967295L, uint32.longValue(0));
+        assertEquals(-1, uint32.intValue(0));
+
+        IColumn nullable = readColumn("Nullable(Float64)", 2.5D, null, 2.5D);
+        assertTrue(nullable.isNull(1));
+        assertFalse(nullable.isNull(2));
+        assertEquals(2.5D, nullable.doubleValue(2));
+        assertEquals(2, nullable.longValue(2));
+    }
+
+    @Test
+    public void successfullyReadUnscaledDecimals() throws Exception {
+        assertSameAsBulk("Decimal(9,2)", ColumnDecimal.class,
+                new BigDecimal("-1.25"), new BigDecimal("9999999.99"), new BigDecimal("0.00"));
+        assertSameAsBulk("Decimal(18,4)", ColumnDecimal.class,
+                new BigDecimal("-12345.6789"), new BigDecimal("99999999999999.9999"), new BigDecimal("0.0001"));
+        assertSameAsBulk("Nullable(Decimal(18,4))", ColumnNullable.class, new BigDecimal("1.5000"), null);
+
+        ColumnDecimal decimals = (ColumnDecimal) readColumn("Decimal(18,4)", new BigDecimal("-12345.6789"));
+        assertEquals(-123456789L, decimals.unscaledValue(0));
+        assertEquals(-12345L, decimals.longValue(0));
+        assertEquals(-12345.6789D, decimals.doubleValue(0));
+        // rounded to the scale on insert
+        assertEquals(new BigDecimal("1.2346"), readColumn("Decimal(18,4)", new BigDecimal("1.23456")).value(0));
+
+        String large = "-170141183460469231731687303715884105.728";
+        String[] values = {"-1.000", "123456789012345678901234567890.123", large, "0.000"};
+        for (String type : new String[]{"Decimal(38,3)", "Decimal(76,3)"}) {
+            IDataType<?, ?> decimal = DataTypeFactory.get(type, null);
+            Object[] bulk = decimal.deserializeBinaryBulk(values.length,
+                    deserializer(type, new BigDecimal(values[0]), new BigDecimal(values[1]),
+                            new BigDecimal(values[2]), new BigDecimal(values[3])));
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(new BigDecimal(values[i]), bulk[i], type);
+            }
+        }
+    }
+
+    @Test
+    public void successfullyReadEpochTemporals() throws Exception {
+        NativeContext.ServerContext context = new NativeContext.ServerContext(
+                20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("Asia/Shanghai"), "localhost");
+        ZoneId tz = ZoneId.of("Asia/Shanghai");
+
+        ZonedDateTime dateTime = ZonedDateTime.of(2106, 2, 7, 14, 28, 15, 0, tz);
+        ColumnTemporal dateTimes = (ColumnTemporal) readColumn(
+                DataTypeFactory.get("DateTime", context), dateTime, ZonedDateTime.of(1970, 1, 1, 8, 0, 0, 0, tz));
+        assertEquals(ColumnDateTime.class, dateTimes.getClass());
+        assertEquals(dateTime, dateTimes.value(0));
+        assertEquals(dateTime.toInstant(), dateTimes.instant(0));
+        assertEquals(dateTime.toLocalDateTime(), dateTimes.localDateTime(0));
+        assertEquals(Timestamp.from(dateTime.toInstant()), dateTimes.timestamp(0));
+        assertEquals(dateTime.toInstant().toEpochMilli(), dateTimes.longValue(0));
+        assertEquals(0L, dateTimes.longValue(1));
+
+        ZonedDateTime beforeEpoch = ZonedDateTime.of(1969, 12, 31, 23, 59, 59, 123_456_000, ZoneOffset.UTC);
+        ColumnTemporal dateTime64s = (ColumnTemporal) readColumn(
+                DataTypeFactory.get("DateTime64(6, 'UTC')", context), beforeEpoch);
+        assertEquals(ColumnDateTime64.class, dateTime64s.getClass());
+        assertEquals(beforeEpoch.toInstant(), dateTime64s.instant(0));
+        assertEquals(123_456_000, dateTime64s.timestamp(0).getNanos());
+        assertEquals(-877L, dateTime64s.longValue(0));
+
+        LocalDate date = LocalDate.of(2100, 1, 1);
+        IColumn nullableDates = readColumn(DataTypeFactory.get("Nullable(Date)", context), null, date);
+        ColumnDate dates = (ColumnDate) ((ColumnNullable) nullableDates).nestedColumn();
+        assertTrue(nullableDates.isNull(0));
+        assertEquals(date, nullableDates.value(1));
+        assertEquals(Date.valueOf(date), dates.date(1));
+        assertEquals(date.toEpochDay() * 86_400_000L, nullableDates.longValue(1));
+    }
+
+    @Test
+    public void successfullyReadStringColumnIntoArena() throws Exception {
+        DataTypeString type = new DataTypeString(StandardCharsets.UTF_8);
+        String[] values = new String[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 10 == 0 ? "" : "https://example.com/" + i + "/\u4f60\u597d";
+        }
+        ByteArrayWriter writer = new ByteArrayWriter(1024);
+        BinarySerializer serializer = new BinarySerializer(writer, false);
+        for (String value : values) {
+            type.serializeBinary(value, serializer);
+        }
+
+        IColumn column = ColumnFactory.readColumn("c", type, values.length, WrittenBytes.deserializer(writer));
+        assertEquals(ColumnString.class, column.getClass());
+        ColumnString strings = (ColumnString) column;
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = values[i].getBytes(StandardCharsets.UTF_8);
+            assertEquals(values[i], strings.value(i));
+            assertSame(strings.value(i), strings.value(i));
+            assertArrayEquals(bytes, strings.bytes(i));
+            assertEquals(bytes.length, strings.slice(i).remaining());
+            assertTrue(strings.equalsBytes(i, bytes));
+            assertEquals(i % 10 != 0, strings.startsWith(i, "https://".getBytes(StandardCharsets.UTF_8)));
+        }
+        assertFalse(strings.equalsBytes(1, "https://example.com/1/".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertSameAsBulk(String typeName, Class<?> columnClass, Object... values) throws Exception {
+        IColumn column = readColumn(typeName, values);
+        assertEquals(columnClass, column.getClass(), typeName);
+        Object[] bulk = DataTypeFactory.get(typeName, null).deserializeBinaryBulk(values.length, deserializer(typeName, values));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(bulk[i], column.value(i), typeName);
+            assertEquals(bulk[i] == null, column.isNull(i), typeName);
+        }
+    }
+
+    private static IColumn readColumn(String typeName, Object... values) throws Exception {
+        return readColumn(DataTypeFactory.get(typeName, null), values);
+    }
+
+    private static IColumn readColumn(IDataType<?, ?> type, Object... values) throws Exception {
+        return ColumnFactory.readColumn("c", type, values.length, deserializer(type, values));
+    }
+
+    private static BinaryDeserializer deserializer(String typeName, Object... values) throws Exception {
+        return deserializer(DataTypeFactory.get(typeName, null), values);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BinaryDeserializer deserializer(IDataType type, Object... values) throws Exception {
+        ByteArrayWriter writer = new ByteArrayWriter(1024);
+        BinarySerializer serializer = new BinarySerializer(writer, false);
+        // padding of null values, any non-null value works
+        Object padding = Arrays.stream(values).filter(Objects::nonNull).findFirst().orElse(null);
+        if (type instanceof DataTypeNullable) {
+            for (Object value : values) {
+                serializer.writeByte(value == null ? (byte) 1 : (byte) 0);
+            }
+            type = ((DataTypeNullable) type).getNestedDataType();
+        }
+        for (Object value : values) {
+            type.serializeBinary(value == null ? padding : value, serializer);
+        }
+        return WrittenBytes.deserializer(writer);
+    }
+}
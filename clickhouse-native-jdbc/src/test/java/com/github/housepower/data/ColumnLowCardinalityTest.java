@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.type.complex.DataTypeArray;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.tool.WrittenBytes;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnLowCardinalityTest {
+
+    private static final NativeContext.ServerContext SERVER_CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "localhost");
+
+    @Test
+    public void successfullyWriteAndReadDictionaries() throws Exception {
+        String[] types = {"LowCardinality(String)", "LowCardinality(Nullable(String))",
+                "Array(LowCardinality(String))", "LowCardinality(Int32)"};
+        IColumn[] columns = new IColumn[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(types[i], SERVER_CONTEXT), null);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+
+        int rows = 1000;
+        for (int row = 0; row < rows; row++) {
+            block.setObject(0, "v" + row % 3);
+            // 500 distinct values, indexes are UInt16
+            block.setObject(1, row % 4 == 0 ? null : row % 4 == 1 ? "" : "n" + row);
+            block.setObject(2, new ClickHouseArray(((DataTypeArray) columns[2].type()).getElemDataType(), new Object[]{"a", "b" + row % 2}));
+            block.setObject(3, row % 5);
+            block.appendRow();
+        }
+
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        block.writeTo(new BinarySerializer(writer, false));
+        Block read = Block.readFrom(WrittenBytes.deserializer(writer), SERVER_CONTEXT);
+
+        assertEquals(rows, read.rowCnt());
+        IColumn strings = read.getColumn(0);
+        IColumn nullableStrings = read.getColumn(1);
+        assertTrue(strings instanceof ColumnLowCardinality);
+        for (int row = 0; row < rows; row++) {
+            assertEquals("v" + row % 3, strings.value(row));
+            assertEquals(row % 4 == 0 ? null : row % 4 == 1 ? "" : "n" + row, nullableStrings.value(row));
+            assertEquals(row % 4 == 0, nullableStrings.isNull(row));
+            Object[] array = ((ClickHouseArray) read.getColumn(2).value(row)).getArray();
+            assertArrayEquals(new Object[]{"a", "b" + row % 2}, array);
+            assertEquals(row % 5, read.getColumn(3).intValue(row));
+        }
+        // repeated values are one shared object
+        assertSame(strings.value(0), strings.value(3));
+        // the default value is reserved at key 0
+        assertEquals(1, ((ColumnLowCardinality) strings).keyIndex(0));
+        assertEquals(3, ((ColumnLowCardinality) strings).keyIndex(2));
+        // NULL is key 0, the default value is key 1
+        assertEquals(0, ((ColumnLowCardinality) nullableStrings).keyIndex(0));
+        assertEquals(1, ((ColumnLowCardinality) nullableStrings).keyIndex(1));
+    }
+
+    @Test
+    public void successfullyWriteNothingForEmptyBlock() throws Exception {
+        IColumn column = ColumnFactory.createColumn("c", DataTypeFactory.get("LowCardinality(String)", SERVER_CONTEXT), null);
+        Block block = new Block(0, new IColumn[]{column});
+        block.initWriteBuffer();
+
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        block.writeTo(new BinarySerializer(writer, false));
+        Block read = Block.readFrom(WrittenBytes.deserializer(writer), SERVER_CONTEXT);
+        assertEquals(0, read.rowCnt());
+        assertEquals("LowCardinality(String)", read.getColumn(0).type().name());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.type.complex.DataTypeArray;
+import com.github.housepower.data.type.complex.DataTypeMap;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.ClickHouseStruct;
+import com.github.housepower.jdbc.tool.WrittenBytes;
+import com.github.housepower.misc.SQLLexer;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnMapTest {
+
+    private static final NativeContext.ServerContext SERVER_CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "localhost");
+
+    @Test
+    public void successfullyWriteAndReadMaps() throws Exception {
+        IColumn maps = ColumnFactory.createColumn("c0", DataTypeFactory.get("Map(String, Int32)", SERVER_CONTEXT), null);
+        IColumn arrays = ColumnFactory.createColumn("c1", DataTypeFactory.get("Array(Map(Int64, String))", SERVER_CONTEXT), null);
+        assertEquals("Map(String, Int32)", maps.type().name());
+        Block block = new Block(0, new IColumn[]{maps, arrays});
+        block.initWriteBuffer();
+
+        int rows = 100;
+        for (int row = 0; row < rows; row++) {
+            block.setObject(0, entries(row));
+            Map<Object, Object> nested = new LinkedHashMap<>();
+            nested.put((long) row, "v" + row);
+            block.setObject(1, new ClickHouseArray(((DataTypeArray) arrays.type()).getElemDataType(),
+                    new Object[]{nested, Collections.emptyMap()}));
+            block.appendRow();
+        }
+
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        block.writeTo(new BinarySerializer(writer, false));
+        Block read = Block.readFrom(WrittenBytes.deserializer(writer), SERVER_CONTEXT);
+
+        assertEquals(rows, read.rowCnt());
+        assertTrue(read.getColumn(0) instanceof ColumnMap);
+        for (int row = 0; row < rows; row++) {
+            Map<?, ?> map = (Map<?, ?>) read.getColumn(0).value(row);
+            assertEquals(entries(row), map);
+            assertEquals(row % 3, map.size());
+            assertEquals(row % 3 > 1 ? 1 : null, map.get("k1"));
+            assertFalse(map.containsKey("absent"));
+
+            Object[] array = ((ClickHouseArray) read.getColumn(1).value(row)).getArray();
+            assertEquals(Collections.singletonMap((long) row, "v" + row), array[0]);
+            assertTrue(((Map<?, ?>) array[1]).isEmpty());
+        }
+    }
+
+    @Test
+    public void successfullyCountWrittenBytesOfNestedBuffers() throws Exception {
+        String[] types = {"Map(String, Int32)", "Tuple(String, Int64)", "Array(Map(Int64, String))",
+                "Array(Tuple(Int32, String))"};
+        IColumn[] columns = new IColumn[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(types[i], SERVER_CONTEXT), null);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+        assertEquals(0, block.writtenBytes());
+
+        IDataType<?, ?> mapType = ((DataTypeArray) columns[2].type()).getElemDataType();
+        IDataType<?, ?> tupleType = ((DataTypeArray) columns[3].type()).getElemDataType();
+        block.setObject(0, Collections.singletonMap("key", 1));
+        block.setObject(1, new ClickHouseStruct("Tuple", new Object[]{"value", 2L}));
+        block.setObject(2, new ClickHouseArray(mapType, new Object[]{Collections.singletonMap(3L, "v")}));
+        block.setObject(3, new ClickHouseArray(tupleType, new Object[]{new ClickHouseStruct("Tuple", new Object[]{4, "w"})}));
+        block.appendRow();
+
+        // offsets, key "key" with its length prefix and value 1
+        assertEquals(8 + 4 + 4, columns[0].writtenBytes());
+        assertEquals(6 + 8, columns[1].writtenBytes());
+        assertEquals(8 + 8 + 8 + 2, columns[2].writtenBytes());
+        assertEquals(8 + 4 + 2, columns[3].writtenBytes());
+        assertEquals(16 + 14 + 26 + 14, block.writtenBytes());
+    }
+
+    @Test
+    public void successfullyParseMapLiteral() throws Exception {
+        DataTypeMap type = (DataTypeMap) DataTypeFactory.get("Map(String, Int32)", SERVER_CONTEXT);
+        Map<?, ?> map = type.deserializeText(new SQLLexer(0, "{'a': 1, 'b': 2}"));
+        Map<Object, Object> expected = new LinkedHashMap<>();
+        expected.put("a", 1);
+        expected.put("b", 2);
+        assertEquals(expected, map);
+    }
+
+    private static Map<Object, Object> entries(int row) {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < row % 3; i++) {
+            map.put("k" + i, i);
+        }
+        return map;
+    }
+}
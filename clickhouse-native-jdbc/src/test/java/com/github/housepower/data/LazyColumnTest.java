@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.type.complex.DataTypeArray;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.ClickHouseStruct;
+import com.github.housepower.jdbc.tool.WrittenBytes;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyColumnTest {
+
+    private static final NativeContext.ServerContext LAZY_CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().lazyDecode(true).build(), ZoneId.of("UTC"), "localhost");
+
+    @Test
+    public void successfullyDecodeColumnsOnFirstAccess() throws Exception {
+        String[] types = {"Int32", "Nullable(String)", "Array(Array(Float64))", "Decimal(18,4)",
+                "Map(String, UInt8)", "Tuple(String,FixedString(2))", "LowCardinality(String)"};
+        IColumn[] columns = new IColumn[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(types[i], LAZY_CONTEXT), null);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+
+        DataTypeArray outer = (DataTypeArray) columns[2].type();
+        DataTypeArray inner = (DataTypeArray) outer.getElemDataType();
+        int rows = 300;
+        for (int row = 0; row < rows; row++) {
+            block.setObject(0, row);
+            block.setObject(1, row % 3 == 0 ? null : "s" + row);
+            ClickHouseArray doubles = new ClickHouseArray(inner.getElemDataType(), new Object[]{(double) row, 0.5D});
+            block.setObject(2, new ClickHouseArray(inner, row % 2 == 0 ? new Object[0] : new Object[]{doubles}));
+            block.setObject(3, BigDecimal.valueOf(row, 2));
+            block.setObject(4, Collections.singletonMap("k" + row, (short) (row % 256)));
+            block.setObject(5, new ClickHouseStruct("Tuple", new Object[]{"t" + row, "ab"}));
+            block.setObject(6, "v" + row % 7);
+            block.appendRow();
+        }
+
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        block.writeTo(new BinarySerializer(writer, false));
+        Block read = Block.readFrom(WrittenBytes.deserializer(writer), LAZY_CONTEXT);
+
+        assertEquals(rows, read.rowCnt());
+        for (int row = rows - 1; row >= 0; row--) {
+            assertEquals(row, read.getColumn(0).intValue(row));
+            assertEquals(row % 3 == 0 ? null : "s" + row, read.getColumn(1).value(row));
+            Object[] arrays = ((ClickHouseArray) read.getColumn(2).value(row)).getArray();
+            assertEquals(row % 2 == 0 ? 0 : 1, arrays.length);
+            if (arrays.length > 0) {
+                assertArrayEquals(new Object[]{(double) row, 0.5D}, ((ClickHouseArray) arrays[0]).getArray());
+            }
+            assertEquals(new BigDecimal(BigDecimal.valueOf(row, 2).toPlainString() + "00"), read.getColumn(3).value(row));
+            assertEquals(Collections.singletonMap("k" + row, (short) (row % 256)), read.getColumn(4).value(row));
+            assertArrayEquals(new Object[]{"t" + row, "ab"}, ((ClickHouseStruct) read.getColumn(5).value(row)).getAttributes());
+            assertEquals("v" + row % 7, read.getColumn(6).value(row));
+        }
+        for (int i = 0; i < types.length; i++) {
+            assertFalse(read.getColumn(i) instanceof LazyColumn);
+        }
+        assertTrue(read.getColumn(0) instanceof ColumnInt);
+    }
+
+    @Test
+    public void successfullyKeepColumnBytesUntilAccessed() throws Exception {
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        BinarySerializer serializer = new BinarySerializer(writer, false);
+        String[] values = {"", "a", "\u4f60\u597d"};
+        for (String value : values) {
+            serializer.writeUTF8StringBinary(value);
+        }
+        serializer.writeInt(42);
+
+        BinaryDeserializer deserializer = WrittenBytes.deserializer(writer);
+        LazyColumn column = LazyColumn.readFrom("c", DataTypeFactory.get("String", LAZY_CONTEXT), values.length,
+                deserializer, new ColumnBytes());
+        // the scan stops at the end of the column
+        assertEquals(42, deserializer.readInt());
+        assertFalse(column.isDecoded());
+        assertEquals("\u4f60\u597d", column.value(2));
+        assertTrue(column.isDecoded());
+        assertEquals("", column.decode().value(0));
+    }
+}
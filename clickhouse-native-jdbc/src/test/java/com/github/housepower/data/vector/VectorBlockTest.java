@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.vector;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.Block;
+import com.github.housepower.data.ColumnFactory;
+import com.github.housepower.data.DataTypeFactory;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.tool.WrittenBytes;
+import com.github.housepower.misc.CheckedIterator;
+import com.github.housepower.protocol.DataResponse;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import com.github.housepower.stream.BlockStream;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VectorBlockTest {
+
+    private static final NativeContext.ServerContext CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "localhost");
+
+    private static final String[] TYPES = {"Int64", "Nullable(UInt32)", "Float64", "Decimal(9,2)",
+            "Nullable(String)", "Date", "Array(String)"};
+
+    @Test
+    public void successfullyReadTypedVectors() throws Exception {
+        VectorBlock block = new VectorBlock(readBlock(0, 100));
+
+        assertEquals(100, block.rowCount());
+        assertEquals(TYPES.length, block.columnCount());
+        assertEquals(4, block.position("c4"));
+
+        LongVector longs = block.longVector(0);
+        assertSame(longs.values(), block.longVector(0).values());
+        assertNull(longs.nullMap());
+        LongVector unsigned = block.longVector(1);
+        assertNotNull(unsigned.nullMap());
+        DoubleVector doubles = block.doubleVector(2);
+        DoubleVector decimals = block.doubleVector(3);
+        StringVector strings = block.stringVector(4);
+        LongVector dates = block.longVector(5);
+        for (int row = 0; row < 100; row++) {
+            assertEquals(row * 1000L, longs.get(row));
+            assertEquals(row % 4 == 0, unsigned.isNull(row));
+            if (!unsigned.isNull(row)) {
+                assertEquals(4294967295L - row, unsigned.get(row));
+            }
+            assertEquals(row / 4.0, doubles.get(row));
+            assertEquals(row / 100.0, decimals.get(row), 1e-9);
+            assertEquals(row % 3 == 0 ? null : "s" + row, strings.get(row));
+            if (!strings.isNull(row)) {
+                assertEquals(("s" + row).length(), strings.offsets()[row + 1] - strings.offsets()[row]);
+            }
+            assertEquals(row * 86_400_000L, dates.get(row));
+        }
+
+        SQLException ex = assertThrows(SQLException.class, () -> block.stringVector(0));
+        assertEquals("Column c0 of type Int64 can not be read as StringVector", ex.getMessage());
+        assertThrows(SQLException.class, () -> block.longVector(6));
+    }
+
+    @Test
+    public void successfullyStreamNonEmptyBlocks() throws Exception {
+        Iterator<DataResponse> responses = Arrays.asList(
+                new DataResponse("", readBlock(0, 3)),
+                new DataResponse("", readBlock(0, 0)),
+                new DataResponse("", readBlock(3, 2))).iterator();
+        BlockStream stream = new BlockStream(new CheckedIterator<DataResponse, SQLException>() {
+            @Override
+            public boolean hasNext() {
+                return responses.hasNext();
+            }
+
+            @Override
+            public DataResponse next() {
+                return responses.next();
+            }
+        }, null);
+
+        assertTrue(stream.hasNext());
+        assertArrayEquals(new long[]{0, 1000, 2000}, stream.next().longVector(0).values());
+        VectorBlock second = stream.next();
+        assertEquals(2, second.rowCount());
+        assertEquals("s4", second.stringVector(4).get(1));
+        assertFalse(stream.hasNext());
+        assertThrows(SQLException.class, stream::next);
+    }
+
+    private static Block readBlock(int start, int rows) throws Exception {
+        IColumn[] columns = new IColumn[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(TYPES[i], CONTEXT), null);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+        for (int row = start; row < start + rows; row++) {
+            block.setObject(0, row * 1000L);
+            block.setObject(1, row % 4 == 0 ? null : 4294967295L - row);
+            block.setObject(2, row / 4.0);
+            block.setObject(3, BigDecimal.valueOf(row, 2));
+            block.setObject(4, row % 3 == 0 ? null : "s" + row);
+            block.setObject(5, LocalDate.ofEpochDay(row));
+            block.setObject(6, new ClickHouseArray(
+                    DataTypeFactory.get("String", CONTEXT), new Object[]{"a"}));
+            block.appendRow();
+        }
+
+        ByteArrayWriter writer = new ByteArrayWriter(4096);
+        block.writeTo(new BinarySerializer(writer, false));
+        return Block.readFrom(WrittenBytes.deserializer(writer), CONTEXT);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc;
+
+import com.github.housepower.exception.InvalidValueException;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncInsertBufferITest extends AbstractITest {
+
+    @Test
+    public void successfullyInsertRowsOfManyThreads() throws Exception {
+        withNewConnection(connection -> {
+            Statement statement = connection.createStatement();
+            statement.execute("DROP TABLE IF EXISTS test");
+            statement.execute("CREATE TABLE test(id Int32, name String)ENGINE=Log");
+
+            ClickHouseConfig cfg = ClickHouseConfig.Builder.builder().withJdbcUrl(getJdbcUrl()).build();
+            AsyncInsertBuffer buffer = AsyncInsertBuffer.Builder.builder(cfg)
+                    .maxRows(500)
+                    .maxPendingRows(10000)
+                    .flushInterval(Duration.ofMillis(100))
+                    .build();
+            AsyncInsertBuffer.Target target = buffer.target("test", "id", "name");
+            assertSame(target, buffer.target("test", "id", "name"));
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int t = 0; t < 8; t++) {
+                int base = t * 1000;
+                executor.execute(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        target.add(base + i, "name" + i);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            // acknowledged by the timed flush
+            target.addWithAck(8000, "last").get(30, TimeUnit.SECONDS);
+
+            CompletableFuture<Void> failed = buffer.target("test", "id", "no_such_column").addWithAck(1, "x");
+            buffer.close();
+            assertTrue(failed.isCompletedExceptionally());
+            assertThrows(RuntimeException.class, () -> target.add(8001, "closed"));
+
+            ResultSet rs = statement.executeQuery("SELECT count(), uniqExact(id) FROM test");
+            assertTrue(rs.next());
+            assertEquals(8001, rs.getInt(1));
+            assertEquals(8001, rs.getInt(2));
+        });
+    }
+
+    @Test
+    public void successfullyRejectRowsBeyondPendingLimit() throws Exception {
+        withNewConnection(connection -> {
+            Statement statement = connection.createStatement();
+            statement.execute("DROP TABLE IF EXISTS test");
+            statement.execute("CREATE TABLE test(id Int32)ENGINE=Log");
+
+            ClickHouseConfig cfg = ClickHouseConfig.Builder.builder().withJdbcUrl(getJdbcUrl()).build();
+            AsyncInsertBuffer buffer = AsyncInsertBuffer.Builder.builder(cfg)
+                    .maxRows(100)
+                    .maxPendingRows(100)
+                    .build();
+            AsyncInsertBuffer.Target target = buffer.target("test", "id");
+            int accepted = 0;
+            for (int i = 0; i < 100_000; i++) {
+                try {
+                    target.add(i);
+                    accepted++;
+                } catch (InvalidValueException ex) {
+                    // the flusher hasn't caught up, the row is not staged
+                }
+            }
+            buffer.close();
+            assertTrue(accepted >= 100);
+
+            ResultSet rs = statement.executeQuery("SELECT count() FROM test");
+            assertTrue(rs.next());
+            assertEquals(accepted, rs.getInt(1));
+        });
+    }
+
+    @Test
+    public void successfullyDropBadRowsOnly() throws Exception {
+        withNewConnection(connection -> {
+            Statement statement = connection.createStatement();
+            statement.execute("DROP TABLE IF EXISTS test");
+            statement.execute("CREATE TABLE test(name String, id Int32)ENGINE=Log");
+
+            ClickHouseConfig cfg = ClickHouseConfig.Builder.builder().withJdbcUrl(getJdbcUrl()).build();
+            AsyncInsertBuffer buffer = AsyncInsertBuffer.Builder.builder(cfg)
+                    .flushInterval(Duration.ofMinutes(1))
+                    .build();
+            AsyncInsertBuffer.Target target = buffer.target("test", "name", "id");
+            List<CompletableFuture<Void>> acks = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                acks.add(target.addWithAck("name" + i, i));
+                if (i == 3) {
+                    // the name is written before the id fails
+                    acks.add(target.addWithAck("bad", "not a number"));
+                } else if (i == 6) {
+                    // rejected before the row is written
+                    acks.add(target.addWithAck(null, 100));
+                }
+            }
+            target.add("bad", "not a number either");
+            buffer.close();
+
+            int failed = 0;
+            for (CompletableFuture<Void> ack : acks) {
+                assertTrue(ack.isDone());
+                failed += ack.isCompletedExceptionally() ? 1 : 0;
+            }
+            assertEquals(2, failed);
+
+            ResultSet rs = statement.executeQuery("SELECT count(), sum(id), countIf(name = 'bad') FROM test");
+            assertTrue(rs.next());
+            assertEquals(10, rs.getInt(1));
+            assertEquals(45, rs.getInt(2));
+            assertEquals(0, rs.getInt(3));
+        });
+    }
+}
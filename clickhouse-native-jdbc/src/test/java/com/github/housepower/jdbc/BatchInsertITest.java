@@ -212,4 +212,48 @@ public class BatchInsertITest extends AbstractITest {
         });
 
     }
+
+    @Test
+    public void successfullyStreamBatchInsert() throws Exception {
+        withNewConnection(connection -> {
+            Statement statement = connection.createStatement();
+            statement.execute("DROP TABLE IF EXISTS test");
+            statement.execute("CREATE TABLE test(id Int32, name String)ENGINE=Log");
+
+            // every 2 rows are sent as a block before the batch is executed
+            PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO test VALUES(?, ?)");
+            addRows(preparedStatement, 0, 5);
+            assertBatchInsertResult(preparedStatement.executeBatch(), 5);
+            assertCount(statement, 5);
+
+            // the rows already sent are kept, the last one is dropped
+            addRows(preparedStatement, 5, 3);
+            preparedStatement.clearBatch();
+            assertBatchInsertResult(preparedStatement.executeBatch(), 2);
+            assertCount(statement, 7);
+
+            // closing finishes the insert of the rows already sent, the last one is dropped
+            addRows(preparedStatement, 8, 3);
+            preparedStatement.close();
+            assertCount(statement, 9);
+
+            ResultSet rs = statement.executeQuery("SELECT groupArray(id) FROM (SELECT id FROM test ORDER BY id)");
+            assertTrue(rs.next());
+            assertArrayEquals(new Object[]{0, 1, 2, 3, 4, 5, 6, 8, 9}, (Object[]) rs.getArray(1).getArray());
+        }, "insert_flush_rows", 2);
+    }
+
+    private static void addRows(PreparedStatement preparedStatement, int start, int rows) throws Exception {
+        for (int i = start; i < start + rows; i++) {
+            preparedStatement.setInt(1, i);
+            preparedStatement.setString(2, "name" + i);
+            preparedStatement.addBatch();
+        }
+    }
+
+    private static void assertCount(Statement statement, long expected) throws Exception {
+        ResultSet rs = statement.executeQuery("SELECT count() FROM test");
+        assertTrue(rs.next());
+        assertEquals(expected, rs.getLong(1));
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc.statement;
+
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.DataTypeFactory;
+import com.github.housepower.exception.ClickHouseSQLException;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.ClickHouseStruct;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValueConverterTest {
+
+    private static final ZoneId TZ = ZoneId.of("UTC");
+    private static final NativeContext.ServerContext CONTEXT = new NativeContext.ServerContext(
+            20, 8, 54405, ClickHouseConfig.Builder.builder().build(), TZ, "localhost");
+
+    private static ValueConverter compile(String type) throws SQLException {
+        return ValueConverter.compile(DataTypeFactory.get(type, CONTEXT), TZ);
+    }
+
+    @Test
+    public void successfullyConvertNumbersOfChangingSourceClass() throws Exception {
+        ValueConverter converter = compile("Int64");
+        assertEquals(1L, converter.convert(1));
+        assertEquals(2L, converter.convert(2));
+        assertEquals(3L, converter.convert(3L));
+        assertEquals(4L, converter.convert((short) 4));
+
+        ValueConverter decimal = compile("Decimal(10, 2)");
+        assertEquals(BigDecimal.valueOf(5), decimal.convert(5));
+        assertEquals(new BigDecimal(BigInteger.TEN), decimal.convert(BigInteger.TEN));
+        assertEquals(BigDecimal.valueOf(1.5), decimal.convert(1.5));
+
+        ValueConverter uint64 = compile("UInt64");
+        assertEquals(BigInteger.valueOf(6), uint64.convert(6));
+        assertEquals(BigInteger.valueOf(7), uint64.convert(new BigDecimal("7.9")));
+    }
+
+    @Test
+    public void successfullyConvertNullAndTemporalValues() throws Exception {
+        assertNull(compile("Nullable(Int32)").convert(null));
+        assertEquals(8, compile("Nullable(Int32)").convert(8L));
+        assertThrows(ClickHouseSQLException.class, () -> compile("Int32").convert(null));
+
+        Timestamp ts = Timestamp.valueOf("2021-01-01 00:00:00");
+        Object converted = compile("DateTime").convert(ts);
+        assertTrue(converted instanceof ZonedDateTime);
+        assertEquals(ts.toLocalDateTime(), ((ZonedDateTime) converted).toLocalDateTime());
+        assertEquals("abc", compile("String").convert(new StringBuilder("abc")).toString());
+    }
+
+    @Test
+    public void successfullyStagePrimitiveValues() throws Exception {
+        assertEquals(ValueConverter.Staging.INTEGER, compile("Nullable(UInt32)").staging());
+        assertEquals(ValueConverter.Staging.FLOAT, compile("Float32").staging());
+        assertEquals(ValueConverter.Staging.DATE, compile("Date").staging());
+        assertEquals(ValueConverter.Staging.OBJECT, compile("Decimal(9, 2)").staging());
+
+        Timestamp ts = Timestamp.from(Instant.ofEpochSecond(1_600_000_000L, 123_456_789));
+        ValueConverter dateTime = compile("DateTime");
+        assertEquals(ValueConverter.Staging.DATE_TIME, dateTime.staging());
+        assertEquals(1_600_000_000L, dateTime.epochValue(ts));
+        assertEquals(1_600_000_000_123L, compile("DateTime64(3)").epochValue(ts));
+        assertEquals(1_600_000_000_123_456_789L, compile("Nullable(DateTime64(9))").epochValue(ts));
+    }
+
+    @Test
+    public void successfullyConvertNestedValues() throws Exception {
+        ValueConverter array = compile("Array(Nullable(Int16))");
+        ClickHouseArray converted = (ClickHouseArray) array.convert(
+                new ClickHouseArray(DataTypeFactory.get("Int32", CONTEXT), new Object[]{1, null, 3L}));
+        assertArrayEquals(new Object[]{(short) 1, null, (short) 3}, converted.getArray());
+        assertThrows(ClickHouseSQLException.class, () -> array.convert(new Object[]{1}));
+
+        ValueConverter tuple = compile("Tuple(Int8, String)");
+        ClickHouseStruct struct = (ClickHouseStruct) tuple.convert(
+                new ClickHouseStruct("Tuple", new Object[]{9, new byte[]{'x'}}));
+        assertEquals((byte) 9, struct.getAttributes()[0]);
+        assertEquals("x", struct.getAttributes()[1].toString());
+
+        Map<?, ?> map = (Map<?, ?>) compile("Map(String, Float64)").convert(Collections.singletonMap("k", 1));
+        assertEquals(1.0, map.get("k"));
+    }
+}
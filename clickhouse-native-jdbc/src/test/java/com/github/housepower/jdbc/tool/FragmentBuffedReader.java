@@ -15,6 +15,7 @@
 package com.github.housepower.jdbc.tool;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import com.github.housepower.buffer.BuffedReader;
 
@@ -32,13 +33,15 @@ public class FragmentBuffedReader implements BuffedReader {
 
     @Override
     public int readBinary() throws IOException {
-        throw new UnsupportedOperationException();
+        byte[] bytes = new byte[1];
+        readBinary(bytes, 0, 1);
+        return bytes[0] & 0xFF;
     }
 
     @Override
-    public int readBinary(byte[] bytes) throws IOException {
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
 
-        for (int i = 0; i < bytes.length; ) {
+        for (int i = offset, end = offset + length; i < end; ) {
             if (bytesPosition == fragments[fragmentPos].length) {
                 fragmentPos++;
                 bytesPosition = 0;
@@ -47,7 +50,7 @@ public class FragmentBuffedReader implements BuffedReader {
 
             byte[] fragment = fragments[fragmentPos];
 
-            int pending = bytes.length - i;
+            int pending = end - i;
             int fillLength = Math.min(pending, fragment.length - bytesPosition);
 
             if (fillLength > 0) {
@@ -57,6 +60,21 @@ public class FragmentBuffedReader implements BuffedReader {
                 bytesPosition += fillLength;
             }
         }
-        return bytes.length;
+        return length;
+    }
+
+    @Override
+    public int bufferedBytes() {
+        return fragments[fragmentPos].length - bytesPosition;
+    }
+
+    @Override
+    public ByteBuffer readBuffered(int length) throws IOException {
+        if (length > bufferedBytes()) {
+            throw new IOException("Only " + bufferedBytes() + " bytes are buffered, but require " + length);
+        }
+        ByteBuffer view = ByteBuffer.wrap(fragments[fragmentPos], bytesPosition, length);
+        bytesPosition += length;
+        return view;
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc.tool;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class WrittenBytes {
+
+    private WrittenBytes() {
+    }
+
+    /**
+     * Reads back everything written to {@code writer}, one fragment per buffer so that
+     * values straddling buffer boundaries are exercised. The writer's buffers are left untouched.
+     */
+    public static BinaryDeserializer deserializer(ByteArrayWriter writer) {
+        List<ByteBuffer> buffers = writer.getBufferList();
+        byte[][] fragments = new byte[buffers.size()][];
+        for (int i = 0; i < fragments.length; i++) {
+            ByteBuffer buffer = buffers.get(i).duplicate();
+            ((Buffer) buffer).flip();
+            fragments[i] = new byte[buffer.remaining()];
+            buffer.get(fragments[i]);
+        }
+        return new BinaryDeserializer(new FragmentBuffedReader(fragments), false);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.misc;
+
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.DataTypeFactory;
+import com.github.housepower.data.type.complex.DataTypeDateTime;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LRUCacheTest {
+
+    @Test
+    public void testEvictNotRecentlyUsed() {
+        LRUCache<String, Integer> cache = new LRUCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.get("c"));
+
+        cache.put("d", 4);
+        assertEquals(3, cache.cacheSize());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(4, cache.get("d"));
+
+        cache.put("a", 5);
+        assertEquals(3, cache.cacheSize());
+        assertEquals(5, cache.get("a"));
+    }
+
+    @Test
+    public void testDataTypeCachedPerTimeZone() throws Exception {
+        NativeContext.ServerContext utc = new NativeContext.ServerContext(
+                20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "localhost");
+        NativeContext.ServerContext shanghai = new NativeContext.ServerContext(
+                20, 8, 54405, ClickHouseConfig.Builder.builder().build(), ZoneId.of("Asia/Shanghai"), "localhost");
+
+        assertSame(DataTypeFactory.get("DateTime", utc), DataTypeFactory.get("DateTime", utc));
+        assertEquals(ZoneId.of("UTC"), ((DataTypeDateTime) DataTypeFactory.get("DateTime", utc)).getTimeZone());
+        assertEquals(ZoneId.of("Asia/Shanghai"),
+                ((DataTypeDateTime) DataTypeFactory.get("DateTime", shanghai)).getTimeZone());
+    }
+}
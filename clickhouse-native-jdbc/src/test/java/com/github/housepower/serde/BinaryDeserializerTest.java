@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.serde;
+
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryDeserializerTest {
+
+    @Test
+    public void successfullyReadBulkValues() throws Exception {
+        // more than one bulk chunk, and split into fragments at odd offsets
+        int n = 3000;
+        ByteBuffer buf = ByteBuffer.allocate(n * (2 + 4 + 8 + 4 + 8)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < n; i++) buf.putShort((short) (i - 1500));
+        for (int i = 0; i < n; i++) buf.putInt(i * -7);
+        for (int i = 0; i < n; i++) buf.putLong(Long.MIN_VALUE + i);
+        for (int i = 0; i < n; i++) buf.putFloat(i / 3.0F);
+        for (int i = 0; i < n; i++) buf.putDouble(i / 7.0D);
+        byte[] bytes = buf.array();
+        int split = 12345;
+        byte[] first = new byte[split];
+        byte[] second = new byte[bytes.length - split];
+        System.arraycopy(bytes, 0, first, 0, split);
+        System.arraycopy(bytes, split, second, 0, second.length);
+
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(first, second), false);
+        short[] shorts = new short[n];
+        int[] ints = new int[n];
+        long[] longs = new long[n];
+        float[] floats = new float[n];
+        double[] doubles = new double[n];
+        deserializer.readShorts(shorts, n);
+        deserializer.readInts(ints, n);
+        deserializer.readLongs(longs, n);
+        deserializer.readFloats(floats, n);
+        deserializer.readDoubles(doubles, n);
+
+        for (int i = 0; i < n; i++) {
+            assertEquals((short) (i - 1500), shorts[i]);
+            assertEquals(i * -7, ints[i]);
+            assertEquals(Long.MIN_VALUE + i, longs[i]);
+            assertEquals(i / 3.0F, floats[i]);
+            assertEquals(i / 7.0D, doubles[i]);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.serde;
+
+import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySerializerTest {
+
+    @Test
+    public void successfullyWriteBulkValues() throws Exception {
+        int n = 3000;
+        short[] shorts = new short[n];
+        int[] ints = new int[n];
+        long[] longs = new long[n];
+        float[] floats = new float[n];
+        double[] doubles = new double[n];
+        for (int i = 0; i < n; i++) {
+            shorts[i] = (short) (i - 1500);
+            ints[i] = i * -7;
+            longs[i] = Long.MIN_VALUE + i;
+            floats[i] = i / 3.0F;
+            doubles[i] = i / 7.0D;
+        }
+
+        // odd block size to cross the buffer boundary inside values
+        ByteArrayWriter writer = new ByteArrayWriter(1023);
+        BinarySerializer serializer = new BinarySerializer(writer, false);
+        serializer.writeLong(42L);
+        serializer.writeShorts(shorts);
+        serializer.writeInts(ints);
+        serializer.writeLongs(longs, 1, n - 1);
+        serializer.writeFloats(floats);
+        serializer.writeDoubles(doubles);
+        serializer.writeInt(-1);
+
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(toFragments(writer)), false);
+        assertEquals(42L, deserializer.readLong());
+        short[] readShorts = new short[n];
+        deserializer.readShorts(readShorts, n);
+        assertArrayEquals(shorts, readShorts);
+        int[] readInts = new int[n];
+        deserializer.readInts(readInts, n);
+        assertArrayEquals(ints, readInts);
+        long[] readLongs = new long[n - 1];
+        deserializer.readLongs(readLongs, n - 1);
+        for (int i = 1; i < n; i++) {
+            assertEquals(longs[i], readLongs[i - 1]);
+        }
+        float[] readFloats = new float[n];
+        deserializer.readFloats(readFloats, n);
+        assertArrayEquals(floats, readFloats);
+        double[] readDoubles = new double[n];
+        deserializer.readDoubles(readDoubles, n);
+        assertArrayEquals(doubles, readDoubles);
+        assertEquals(-1, deserializer.readInt());
+    }
+
+    private byte[][] toFragments(ByteArrayWriter writer) {
+        List<ByteBuffer> buffers = writer.getBufferList();
+        byte[][] fragments = new byte[buffers.size()][];
+        for (int i = 0; i < fragments.length; i++) {
+            ByteBuffer buffer = buffers.get(i);
+            ((Buffer) buffer).flip();
+            fragments[i] = new byte[buffer.remaining()];
+            buffer.get(fragments[i]);
+        }
+        return fragments;
+    }
+}
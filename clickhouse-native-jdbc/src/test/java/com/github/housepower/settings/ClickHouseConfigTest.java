@@ -37,8 +37,10 @@ class ClickHouseConfigTest {
         assertEquals(Duration.ZERO, cfg.connectTimeout());
         assertEquals(StandardCharsets.UTF_8, cfg.charset());
         assertFalse(cfg.tcpKeepAlive());
+        assertEquals(Duration.ZERO, cfg.keepAliveInterval());
+        assertEquals(Duration.ofSeconds(5), cfg.validateAfterInactivity());
         assertEquals("default", cfg.database());
-        assertEquals("jdbc:clickhouse://127.0.0.1:9000/default?query_timeout=0&connect_timeout=0&charset=UTF-8&tcp_keep_alive=false",
+        assertEquals("jdbc:clickhouse://127.0.0.1:9000/default?query_timeout=0&connect_timeout=0&charset=UTF-8&tcp_keep_alive=false&keep_alive_interval=0&validate_after_inactivity=5&use_nio=false&result_prefetch=false&lazy_decode=false&recycle_blocks=false&insert_flush_rows=1048576&insert_flush_bytes=268435456",
                 cfg.jdbcUrl());
     }
 
@@ -59,7 +61,7 @@ class ClickHouseConfigTest {
         assertEquals(Charset.forName("GBK"), cfg.charset());
         assertFalse(cfg.tcpKeepAlive());
         assertEquals("db2", cfg.database());
-        assertEquals("jdbc:clickhouse://1.2.3.4:8123/db2?query_timeout=0&connect_timeout=0&charset=GBK&tcp_keep_alive=false&allow_distributed_ddl=true",
+        assertEquals("jdbc:clickhouse://1.2.3.4:8123/db2?query_timeout=0&connect_timeout=0&charset=GBK&tcp_keep_alive=false&keep_alive_interval=0&validate_after_inactivity=5&use_nio=false&result_prefetch=false&lazy_decode=false&recycle_blocks=false&insert_flush_rows=1048576&insert_flush_bytes=268435456&allow_distributed_ddl=true",
                 cfg.jdbcUrl());
     }
 
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.stream;
+
+import com.github.housepower.data.Block;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.exception.ClickHouseSQLException;
+import com.github.housepower.protocol.DataResponse;
+import com.github.housepower.protocol.EOFStreamResponse;
+import com.github.housepower.protocol.Response;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponsePrefetcherTest {
+
+    @Test
+    public void successfullyPrefetchBoundedRows() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        ResponsePrefetcher prefetcher = new ResponsePrefetcher(() -> {
+            int i = produced.incrementAndGet();
+            return i <= 10 ? new DataResponse("", new Block(i, new IColumn[0])) : EOFStreamResponse.INSTANCE;
+        }, 3, () -> false);
+
+        // rows of the first two blocks fit into the bound, the third has to wait for the consumer
+        Thread.sleep(200);
+        assertTrue(produced.get() <= 3);
+
+        for (int i = 1; i <= 10; i++) {
+            Response response = prefetcher.get();
+            assertEquals(i, ((DataResponse) response).block().rowCnt());
+        }
+        assertSame(EOFStreamResponse.INSTANCE, prefetcher.get());
+        assertNull(prefetcher.get());
+        assertEquals(11, produced.get());
+    }
+
+    @Test
+    public void successfullyStopOnCancel() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        ResponsePrefetcher prefetcher = new ResponsePrefetcher(
+                () -> new DataResponse("", new Block(produced.incrementAndGet(), new IColumn[0])), 3, () -> false);
+        QueryResult result = new ClickHouseQueryResult(prefetcher);
+        assertEquals(1, result.header().rowCnt());
+
+        // closed early with a full queue, the producer stops without waiting for the abandon check
+        result.cancel();
+        assertTimeoutPreemptively(Duration.ofMillis(500), () -> assertNull(prefetcher.get()));
+        int stopped = produced.get();
+        Thread.sleep(100);
+        assertEquals(stopped, produced.get());
+        assertFalse(result.data().hasNext());
+    }
+
+    @Test
+    public void successfullyPropagateException() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        ResponsePrefetcher prefetcher = new ResponsePrefetcher(() -> {
+            if (produced.incrementAndGet() == 1)
+                return new DataResponse("", new Block(1, new IColumn[0]));
+            throw new ClickHouseSQLException(42, "failed");
+        }, 100, () -> false);
+
+        assertNotNull(prefetcher.get());
+        SQLException ex = assertThrows(SQLException.class, prefetcher::get);
+        assertEquals(42, ex.getErrorCode());
+        assertNull(prefetcher.get());
+    }
+}